@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.benchmarks;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.quantummaid.tutorials.Main;
+import de.quantummaid.tutorials.runtime.StreamHandler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static de.quantummaid.tutorials.benchmarks.RecordedEvents.recordedEvent;
+
+/**
+ * Per-invocation cost of {@code Main.handleRequest(Map)} behind the managed runtime's reflective
+ * {@code Map} conversion, compared with the {@link StreamHandler} behind {@code StreamingMain}
+ * (without its response cache, so that every invocation reaches {@code Main}).
+ * The forked JVM is limited to roughly what a function with {@code MemorySize: 256} gets.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx200m", "-XX:+UseSerialGC"})
+public class EventTranslationBenchmark {
+  private static final TypeReference<Map<String, Object>> MAP = new TypeReference<>() {
+  };
+
+  @Param({"rest-api-v1", "http-api-v2"})
+  public String event;
+
+  private byte[] eventBytes;
+  private ObjectMapper objectMapper;
+  private Main main;
+  private StreamHandler streamHandler;
+  private ByteArrayOutputStream output;
+
+  @Setup
+  public void setUp() throws IOException {
+    eventBytes = recordedEvent(event);
+    objectMapper = new ObjectMapper();
+    main = new Main();
+    streamHandler = StreamHandler.streamHandler(main);
+    output = new ByteArrayOutputStream();
+
+    final Map<String, Object> managedResponse = objectMapper.readValue(managedRuntime(), MAP);
+    streamHandler();
+    final Map<String, Object> streamedResponse = objectMapper.readValue(output.toByteArray(), MAP);
+    if (!managedResponse.equals(streamedResponse)) {
+      throw new IllegalStateException(String.format(
+          "responses differ for %s: managed runtime %s, stream handler %s", event, managedResponse, streamedResponse));
+    }
+  }
+
+  @Benchmark
+  public byte[] managedRuntime() throws IOException {
+    final Map<String, Object> request = objectMapper.readValue(eventBytes, MAP);
+    final Map<String, Object> response = main.handleRequest(request);
+    return objectMapper.writeValueAsBytes(response);
+  }
+
+  @Benchmark
+  public int streamHandler() throws IOException {
+    output.reset();
+    streamHandler.handle(new ByteArrayInputStream(eventBytes), output);
+    return output.size();
+  }
+}
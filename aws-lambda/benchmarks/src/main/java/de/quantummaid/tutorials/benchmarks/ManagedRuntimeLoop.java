@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.benchmarks;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.quantummaid.tutorials.Main;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Map;
+
+/**
+ * What the managed java11 runtime does around {@code Main.handleRequest} for every invocation, as far as it can be
+ * rebuilt outside of Lambda: a general purpose HTTP client polls the Runtime API, the event is converted into a
+ * {@code Map} and the returned {@code Map} back into JSON by a reflective mapper.
+ */
+final class ManagedRuntimeLoop {
+  private static final String INVOCATION_PATH = "/2018-06-01/runtime/invocation/";
+  private static final String REQUEST_ID_HEADER = "Lambda-Runtime-Aws-Request-Id";
+  private static final TypeReference<Map<String, Object>> MAP = new TypeReference<>() {
+  };
+
+  private ManagedRuntimeLoop() {
+  }
+
+  static void serveInvocations(final String runtimeApi, final Main main) throws IOException, InterruptedException {
+    final URI baseUri = URI.create("http://" + runtimeApi);
+    final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    final ObjectMapper objectMapper = new ObjectMapper();
+    while (true) {
+      final HttpResponse<byte[]> invocation = client.send(
+          HttpRequest.newBuilder(baseUri.resolve(INVOCATION_PATH + "next")).GET().build(),
+          HttpResponse.BodyHandlers.ofByteArray());
+      final String requestId = invocation.headers().firstValue(REQUEST_ID_HEADER)
+          .orElseThrow(() -> new IOException("invocation without " + REQUEST_ID_HEADER));
+      final Map<String, Object> response = main.handleRequest(objectMapper.readValue(invocation.body(), MAP));
+      client.send(
+          HttpRequest.newBuilder(baseUri.resolve(INVOCATION_PATH + requestId + "/response"))
+              .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(response)))
+              .build(),
+          HttpResponse.BodyHandlers.discarding());
+    }
+  }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * API Gateway events recorded from the deployed tutorial function, stored under {@code /events}.
+ */
+final class RecordedEvents {
+
+  private RecordedEvents() {
+  }
+
+  static byte[] recordedEvent(final String name) throws IOException {
+    final String resource = "/events/" + name + ".json";
+    try (InputStream inputStream = RecordedEvents.class.getResourceAsStream(resource)) {
+      if (inputStream == null) {
+        throw new IllegalArgumentException("no recorded event " + resource);
+      }
+      return inputStream.readAllBytes();
+    }
+  }
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.benchmarks;
+
+import de.quantummaid.tutorials.Main;
+import de.quantummaid.tutorials.runtime.ResponseCache;
+import de.quantummaid.tutorials.runtime.StreamHandler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import static de.quantummaid.tutorials.runtime.ResponseCache.responseCache;
+import static de.quantummaid.tutorials.runtime.StreamHandler.streamHandler;
+import static de.quantummaid.tutorials.benchmarks.RecordedEvents.recordedEvent;
+
+/**
+ * The recorded {@code GET /hello/first} served from the {@link ResponseCache} ({@code cacheHit})
+ * compared with the full invocation through {@code Main} ({@code uncached}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx200m", "-XX:+UseSerialGC"})
+public class ResponseCacheBenchmark {
+  private static final long CACHE_BYTES = 1024 * 1024;
+
+  @Param({"rest-api-v1", "http-api-v2"})
+  public String event;
+
+  private byte[] eventBytes;
+  private StreamHandler uncachedHandler;
+  private StreamHandler cachingHandler;
+  private ByteArrayOutputStream output;
+
+  @Setup
+  public void setUp() throws IOException {
+    eventBytes = recordedEvent(event);
+    final Main main = new Main();
+    uncachedHandler = streamHandler(main);
+    cachingHandler = streamHandler(main)
+        .withResponseCache(responseCache(path -> path.startsWith("/hello/"), CACHE_BYTES, Duration.ofHours(1)));
+    output = new ByteArrayOutputStream();
+
+    cacheHit();
+    final byte[] miss = output.toByteArray();
+    cacheHit();
+    final byte[] hit = output.toByteArray();
+    if (!Arrays.equals(miss, hit)) {
+      throw new IllegalStateException("cached response differs from the first response for " + event);
+    }
+  }
+
+  @Benchmark
+  public int uncached() throws IOException {
+    output.reset();
+    uncachedHandler.handle(new ByteArrayInputStream(eventBytes), output);
+    return output.size();
+  }
+
+  @Benchmark
+  public int cacheHit() throws IOException {
+    output.reset();
+    cachingHandler.handle(new ByteArrayInputStream(eventBytes), output);
+    return output.size();
+  }
+}
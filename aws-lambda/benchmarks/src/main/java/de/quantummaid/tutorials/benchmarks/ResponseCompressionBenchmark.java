@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.benchmarks;
+
+import de.quantummaid.tutorials.runtime.ResponseCompression;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static de.quantummaid.tutorials.runtime.ResponseCompression.responseCompression;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * The cost of gzipping JSON response bodies of 1 to 50 KB ({@code gzip}) compared with passing them through
+ * ({@code identity}). The bytes saved are printed once per body size during setup: how many bytes reach the
+ * client, and how many travel base64 encoded between the function and API Gateway.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx200m", "-XX:+UseSerialGC"})
+public class ResponseCompressionBenchmark {
+  private static final int MINIMUM_BYTES = 1024;
+  private static final long SEED = 42;
+  private static final double PERCENT = 100.0;
+
+  @Param({"1", "10", "50"})
+  public int bodyKilobytes;
+
+  private ResponseCompression compression;
+  private Map<String, Object> response;
+
+  @Setup
+  public void setUp() {
+    compression = responseCompression(MINIMUM_BYTES);
+    response = new HashMap<>();
+    response.put("statusCode", 200);
+    response.put("headers", Map.of("Content-Type", "application/json"));
+    response.put("body", jsonBodyOf(bodyKilobytes * 1024));
+    response.put("isBase64Encoded", false);
+
+    final int plain = response.get("body").toString().getBytes(UTF_8).length;
+    final Map<String, Object> compressed = gzip();
+    if (!Boolean.TRUE.equals(compressed.get("isBase64Encoded"))) {
+      throw new IllegalStateException("a " + plain + " byte body was not compressed");
+    }
+    final String base64 = compressed.get("body").toString();
+    final int gzipped = Base64.getDecoder().decode(base64).length;
+    System.out.printf(Locale.ROOT, "%n%d bytes: %d bytes to the client (%.1f%% saved), %d bytes base64 encoded%n",
+        plain, gzipped, PERCENT * (plain - gzipped) / plain, base64.length());
+  }
+
+  @Benchmark
+  public Map<String, Object> identity() {
+    return compression.compress(response, null);
+  }
+
+  @Benchmark
+  public Map<String, Object> gzip() {
+    return compression.compress(response, "gzip");
+  }
+
+  private static String jsonBodyOf(final int bytes) {
+    final Random random = new Random(SEED);
+    final StringBuilder json = new StringBuilder(bytes + MINIMUM_BYTES).append('[');
+    for (int i = 0; json.length() < bytes; ++i) {
+      if (i > 0) {
+        json.append(',');
+      }
+      json.append("{\"id\":").append(random.nextInt(Integer.MAX_VALUE))
+          .append(",\"greeting\":\"Hello ").append(Long.toString(random.nextLong(), Character.MAX_RADIX))
+          .append("!\",\"timestamp\":").append(1_600_000_000_000L + random.nextInt(Integer.MAX_VALUE))
+          .append('}');
+    }
+    return json.append(']').toString();
+  }
+}
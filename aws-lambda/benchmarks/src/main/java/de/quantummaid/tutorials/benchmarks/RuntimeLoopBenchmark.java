@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.benchmarks;
+
+import de.quantummaid.tutorials.Main;
+import de.quantummaid.tutorials.runtime.LocalRuntimeApi;
+import de.quantummaid.tutorials.runtime.RuntimeApiBootstrap;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static de.quantummaid.tutorials.runtime.LocalRuntimeApi.startLocalRuntimeApi;
+import static de.quantummaid.tutorials.runtime.StreamHandler.streamHandler;
+import static de.quantummaid.tutorials.benchmarks.RecordedEvents.recordedEvent;
+
+/**
+ * Per-invocation cost of a complete round trip through a local stand-in for the Lambda Runtime API: the event is
+ * queued, fetched by the runtime loop, handled, and its response posted back. {@code bootstrap} is the
+ * {@link RuntimeApiBootstrap} of the custom runtime, {@code managed-runtime} the {@link ManagedRuntimeLoop} that
+ * rebuilds what the java11 runtime does around {@code Main.handleRequest}. The stand-in's own cost is the same for
+ * both.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx200m", "-XX:+UseSerialGC"})
+public class RuntimeLoopBenchmark {
+  private static final long TIMEOUT_SECONDS = 10;
+
+  @Param({"bootstrap", "managed-runtime"})
+  public String runtime;
+
+  @Param({"rest-api-v1", "http-api-v2"})
+  public String event;
+
+  private byte[] eventBytes;
+  private LocalRuntimeApi runtimeApi;
+  private ExecutorService runtimeThread;
+
+  @Setup(Level.Trial)
+  public void startRuntime() throws IOException {
+    eventBytes = recordedEvent(event);
+    runtimeApi = startLocalRuntimeApi();
+    runtimeThread = Executors.newSingleThreadExecutor();
+    final Main main = new Main();
+    runtimeThread.execute(() -> {
+      try {
+        if ("bootstrap".equals(runtime)) {
+          RuntimeApiBootstrap.serveInvocations(runtimeApi.address(), streamHandler(main));
+        } else {
+          ManagedRuntimeLoop.serveInvocations(runtimeApi.address(), main);
+        }
+      } catch (final IOException e) {
+        // the stand-in was closed at the end of the trial
+      } catch (final InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+  }
+
+  @TearDown(Level.Trial)
+  public void stopRuntime() throws IOException {
+    runtimeApi.close();
+    runtimeThread.shutdownNow();
+  }
+
+  @Benchmark
+  public int invocation() throws InterruptedException, ExecutionException, TimeoutException {
+    final LocalRuntimeApi.Result result = runtimeApi.invoke(eventBytes).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    if (result.isError()) {
+      throw new IllegalStateException("invocation failed with " + result.errorType());
+    }
+    return result.body().length;
+  }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.coldstart;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A static AppCDS archive of the classes a step loads while {@link ColdStartProbe} runs it. The archive is dumped
+ * from the class list of a training run, so a JVM started from it maps the already parsed and verified classes of
+ * the HttpMaid graph instead of loading them from the jars, while {@code Main} still builds that graph the
+ * reflective way.
+ *
+ * <p>CDS only archives classes from jars, so the classpath must not contain directories, and a JVM can only use
+ * the archive with the very classpath it was dumped with.</p>
+ */
+final class AppCdsArchive {
+  private final Path archive;
+
+  private AppCdsArchive(final Path archive) {
+    this.archive = archive;
+  }
+
+  /**
+   * Runs {@code probeArguments} once to record the loaded classes and dumps them into an archive in
+   * {@code directory}.
+   */
+  static AppCdsArchive dumpAppCdsArchive(final Path directory,
+                                         final String name,
+                                         final Path java,
+                                         final String classpath,
+                                         final List<String> probeArguments) throws IOException, InterruptedException {
+    Files.createDirectories(directory);
+    final Path classList = directory.resolve(name + ".classlist");
+    final Path archive = directory.resolve(name + ".jsa");
+    final List<String> training = new ArrayList<>(List.of(java.toString(),
+        "-Xshare:off", "-XX:DumpLoadedClassList=" + classList, "-classpath", classpath));
+    training.addAll(probeArguments);
+    run(name + " training run", training);
+    run(name + " archive dump", List.of(java.toString(),
+        "-Xshare:dump", "-XX:SharedClassListFile=" + classList, "-XX:SharedArchiveFile=" + archive,
+        "-classpath", classpath));
+    return new AppCdsArchive(archive);
+  }
+
+  /**
+   * The options that make a JVM fail instead of silently starting without the archive.
+   */
+  List<String> jvmOptions() {
+    return List.of("-Xshare:on", "-XX:SharedArchiveFile=" + archive);
+  }
+
+  private static void run(final String description, final List<String> command)
+      throws IOException, InterruptedException {
+    final Process process = new ProcessBuilder(command)
+        .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+        .redirectError(ProcessBuilder.Redirect.INHERIT)
+        .start();
+    final int exitCode = process.waitFor();
+    if (exitCode != 0) {
+      throw new IllegalStateException(String.format("%s failed with exit code %d", description, exitCode));
+    }
+  }
+}
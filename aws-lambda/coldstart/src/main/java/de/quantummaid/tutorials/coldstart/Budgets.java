@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.coldstart;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Upper limits in milliseconds for the median of all runs of a step. The cold start is the initialization plus the
+ * first invocation, like the duration of the first request that {@code itests/restapi-tests.sh} asserts for the
+ * deployed function.
+ */
+final class Budgets {
+  private static final double STEADY_STATE_FLOOR_MILLIS = 1.0;
+
+  private final long coldStartMillis;
+  private final long nthInvocationMillis;
+  private final long warmedUpFirstInvocationFactor;
+  private final Set<String> warmedUpSteps;
+
+  Budgets(final long coldStartMillis,
+          final long nthInvocationMillis,
+          final long warmedUpFirstInvocationFactor,
+          final Set<String> warmedUpSteps) {
+    this.coldStartMillis = coldStartMillis;
+    this.nthInvocationMillis = nthInvocationMillis;
+    this.warmedUpFirstInvocationFactor = warmedUpFirstInvocationFactor;
+    this.warmedUpSteps = Set.copyOf(warmedUpSteps);
+  }
+
+  List<String> violationsOf(final StepReport report) {
+    final List<String> violations = new ArrayList<>();
+    check(report, "cold start", report.medianColdStartMillis(), coldStartMillis, violations);
+    check(report, "nth invocation", report.medianNthInvocationMillis(), nthInvocationMillis, violations);
+    if (warmedUpSteps.contains(report.step())) {
+      checkWarmUp(report, violations);
+    }
+    return violations;
+  }
+
+  /**
+   * A step that warms itself up during initialization must answer its first request within a small factor of
+   * the steady state. Durations below {@value #STEADY_STATE_FLOOR_MILLIS} ms count as that much: the probe's own
+   * first reflective call costs about a millisecond, even for a handler that does nothing.
+   */
+  private void checkWarmUp(final StepReport report, final List<String> violations) {
+    final double steadyStateMillis = Math.max(report.medianNthInvocationMillis(), STEADY_STATE_FLOOR_MILLIS);
+    final double firstInvocationMillis = report.medianFirstInvocationMillis();
+    if (firstInvocationMillis > steadyStateMillis * warmedUpFirstInvocationFactor) {
+      violations.add(String.format(Locale.ROOT,
+          "%s: first invocation took %.2f ms after the warm-up, more than %dx the steady state of %.2f ms",
+          report.step(), firstInvocationMillis, warmedUpFirstInvocationFactor, steadyStateMillis));
+    }
+  }
+
+  private static void check(final StepReport report,
+                            final String phase,
+                            final double actualMillis,
+                            final long budgetMillis,
+                            final List<String> violations) {
+    if (actualMillis > budgetMillis) {
+      violations.add(String.format(Locale.ROOT, "%s: %s took %.2f ms (budget: %d ms)",
+          report.step(), phase, actualMillis, budgetMillis));
+    }
+  }
+
+  long coldStartMillis() {
+    return coldStartMillis;
+  }
+
+  long nthInvocationMillis() {
+    return nthInvocationMillis;
+  }
+
+  long warmedUpFirstInvocationFactor() {
+    return warmedUpFirstInvocationFactor;
+  }
+
+  Set<String> warmedUpSteps() {
+    return warmedUpSteps;
+  }
+}
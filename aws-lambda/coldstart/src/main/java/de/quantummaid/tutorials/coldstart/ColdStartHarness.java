@@ -0,0 +1,206 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.coldstart;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+import static de.quantummaid.tutorials.coldstart.AppCdsArchive.dumpAppCdsArchive;
+import static de.quantummaid.tutorials.coldstart.ColdStartMeasurement.isResponseLine;
+import static de.quantummaid.tutorials.coldstart.ColdStartMeasurement.isResultLine;
+import static de.quantummaid.tutorials.coldstart.ColdStartMeasurement.parseResultLines;
+import static de.quantummaid.tutorials.coldstart.HarnessConfiguration.parseArguments;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.stream.Collectors.joining;
+
+/**
+ * Measures the cold start of the aws-lambda step modules without deploying them.
+ *
+ * <p>Every run forks a fresh JVM with a single step's jar on the classpath and lets {@link ColdStartProbe}
+ * time the static {@code ADAPTER} initialization of {@code Main}, its first {@code handleRequest(Map)} call and
+ * the median of the later half of the given number of calls. The results are written as JSON so they can be
+ * tracked across releases, and the process exits with a non-zero status if the median of any step exceeds its
+ * budget.</p>
+ *
+ * <p>Steps listed in {@code --cds-steps} are measured a second time, as {@code <step>-appcds}, from an
+ * {@link AppCdsArchive} dumped from a training run with the same classpath. That run must answer exactly like
+ * the step without the archive. How much faster it initializes is only reported: a median of a few forks is too
+ * noisy on a shared machine to fail a build on. This shows locally what precomputing part of the startup buys;
+ * Lambda SnapStart, which restores the initialized JVM instead, cannot be reproduced without Lambda.</p>
+ */
+public final class ColdStartHarness {
+  private static final String CDS_SUFFIX = "-appcds";
+  private static final double PERCENT = 100;
+
+  private ColdStartHarness() {
+  }
+
+  public static void main(final String[] args) throws Exception {
+    final HarnessConfiguration configuration = parseArguments(args);
+    final List<StepReport> reports = new ArrayList<>();
+    final List<String> violations = new ArrayList<>();
+    for (final StepUnderTest step : configuration.steps()) {
+      if (!configuration.cdsSteps().contains(step.name())) {
+        reports.add(report(configuration, step.name(), measure(configuration, step)));
+        continue;
+      }
+      final AppCdsArchive archive = dumpAppCdsArchive(configuration.cdsDirectory(), step.name(), java(),
+          classpathOf(configuration, step), probeArguments(configuration, step));
+      final List<ColdStartMeasurement> measurements = new ArrayList<>();
+      final List<ColdStartMeasurement> cdsMeasurements = new ArrayList<>();
+      for (int run = 1; run <= configuration.runs(); ++run) {
+        // alternating the two keeps drifting background load from deciding the comparison
+        measurements.add(fork(configuration, step, List.of()));
+        cdsMeasurements.add(fork(configuration, step, archive.jvmOptions()));
+      }
+      final StepReport report = report(configuration, step.name(), measurements);
+      final StepReport cdsReport = report(configuration, step.name() + CDS_SUFFIX, cdsMeasurements);
+      reports.add(report);
+      reports.add(cdsReport);
+      violations.addAll(compare(measurements, cdsReport, cdsMeasurements));
+      System.out.printf(Locale.ROOT, "%s: initialization %.2f ms instead of %.2f ms (%+.0f %%)%n",
+          cdsReport.step(), cdsReport.medianInitializationMillis(), report.medianInitializationMillis(),
+          PERCENT * (cdsReport.medianInitializationMillis() / report.medianInitializationMillis() - 1));
+    }
+    writeResults(configuration, reports);
+
+    reports.forEach(report -> violations.addAll(configuration.budgets().violationsOf(report)));
+    if (!violations.isEmpty()) {
+      violations.forEach(violation -> System.out.println("cold start check failed - " + violation));
+      System.exit(1);
+    }
+  }
+
+  private static List<ColdStartMeasurement> measure(final HarnessConfiguration configuration,
+                                                    final StepUnderTest step)
+      throws IOException, InterruptedException {
+    final List<ColdStartMeasurement> measurements = new ArrayList<>();
+    for (int run = 1; run <= configuration.runs(); ++run) {
+      measurements.add(fork(configuration, step, List.of()));
+    }
+    return measurements;
+  }
+
+  private static StepReport report(final HarnessConfiguration configuration,
+                                   final String name,
+                                   final List<ColdStartMeasurement> measurements) {
+    final StepReport report = new StepReport(name, measurements);
+    System.out.printf(Locale.ROOT, "%s: cold start %.2f ms (initialization %.2f ms, first invocation %.2f ms), "
+            + "invocations %d to %d %.2f ms%n",
+        name, report.medianColdStartMillis(), report.medianInitializationMillis(),
+        report.medianFirstInvocationMillis(), ColdStartProbe.firstSteadyStateInvocation(configuration.invocations()),
+        configuration.invocations(), report.medianNthInvocationMillis());
+    return report;
+  }
+
+  private static List<String> compare(final List<ColdStartMeasurement> measurements,
+                                      final StepReport cdsReport,
+                                      final List<ColdStartMeasurement> cdsMeasurements) {
+    final String response = measurements.get(0).response();
+    return cdsMeasurements.stream()
+        .map(ColdStartMeasurement::response)
+        .filter(cdsResponse -> !cdsResponse.equals(response))
+        .findFirst()
+        .map(cdsResponse -> List.of(String.format(
+            "%s: answered '%s' instead of '%s'", cdsReport.step(), cdsResponse, response)))
+        .orElse(List.of());
+  }
+
+  private static ColdStartMeasurement fork(final HarnessConfiguration configuration,
+                                           final StepUnderTest step,
+                                           final List<String> jvmOptions) throws IOException, InterruptedException {
+    final List<String> command = new ArrayList<>();
+    command.add(java().toString());
+    command.addAll(jvmOptions);
+    command.add("-classpath");
+    command.add(classpathOf(configuration, step));
+    command.addAll(probeArguments(configuration, step));
+    final Process process = new ProcessBuilder(command)
+        .redirectError(ProcessBuilder.Redirect.INHERIT)
+        .start();
+
+    String resultLine = null;
+    String responseLine = null;
+    try (BufferedReader output = new BufferedReader(new InputStreamReader(process.getInputStream(), UTF_8))) {
+      String line = output.readLine();
+      while (line != null) {
+        if (isResultLine(line)) {
+          resultLine = line;
+        } else if (isResponseLine(line)) {
+          responseLine = line;
+        }
+        line = output.readLine();
+      }
+    }
+    final int exitCode = process.waitFor();
+    if (exitCode != 0 || resultLine == null || responseLine == null) {
+      throw new IllegalStateException(String.format(
+          "cold start probe for %s %s failed with exit code %d", step.name(), jvmOptions, exitCode));
+    }
+    return parseResultLines(resultLine, responseLine);
+  }
+
+  private static String classpathOf(final HarnessConfiguration configuration, final StepUnderTest step) {
+    return Stream.of(step.classpath(), configuration.libraryClasspath(), configuration.harnessClasspath())
+        .filter(entry -> !entry.isEmpty())
+        .collect(joining(File.pathSeparator));
+  }
+
+  private static List<String> probeArguments(final HarnessConfiguration configuration, final StepUnderTest step) {
+    return List.of(ColdStartProbe.class.getName(), step.handlerClass(), step.requestPath(),
+        String.valueOf(configuration.invocations()));
+  }
+
+  private static Path java() {
+    return Paths.get(System.getProperty("java.home"), "bin", "java");
+  }
+
+  private static void writeResults(final HarnessConfiguration configuration,
+                                   final List<StepReport> reports) throws IOException {
+    final Budgets budgets = configuration.budgets();
+    final String json = String.format(Locale.ROOT, "{\"version\":\"%s\",\"timestamp\":\"%s\",\"java\":\"%s\","
+            + "\"invocations\":%d,"
+            + "\"budgets\":{\"coldStartMillis\":%d,\"nthInvocationMillis\":%d,"
+            + "\"warmedUpFirstInvocationFactor\":%d,\"warmedUpSteps\":[%s]},"
+            + "\"steps\":[%s]}%n",
+        configuration.version(), Instant.now(), System.getProperty("java.version"),
+        configuration.invocations(),
+        budgets.coldStartMillis(), budgets.nthInvocationMillis(),
+        budgets.warmedUpFirstInvocationFactor(),
+        budgets.warmedUpSteps().stream().sorted().map(step -> "\"" + step + "\"").collect(joining(",")),
+        reports.stream().map(StepReport::toJson).collect(joining(",")));
+    final Path results = configuration.results();
+    Files.createDirectories(results.toAbsolutePath().getParent());
+    Files.writeString(results, json, UTF_8);
+    System.out.println("cold start results written to " + results);
+  }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.coldstart;
+
+import static java.lang.Long.parseLong;
+
+/**
+ * The timings of one forked JVM, as reported by {@link ColdStartProbe}.
+ */
+final class ColdStartMeasurement {
+  private static final int FIELDS = 4;
+
+  private final long initializationNanos;
+  private final long firstInvocationNanos;
+  private final long nthInvocationNanos;
+  private final String response;
+
+  private ColdStartMeasurement(final long initializationNanos,
+                               final long firstInvocationNanos,
+                               final long nthInvocationNanos,
+                               final String response) {
+    this.initializationNanos = initializationNanos;
+    this.firstInvocationNanos = firstInvocationNanos;
+    this.nthInvocationNanos = nthInvocationNanos;
+    this.response = response;
+  }
+
+  static boolean isResultLine(final String line) {
+    return line.startsWith(ColdStartProbe.RESULT_PREFIX + " ");
+  }
+
+  static boolean isResponseLine(final String line) {
+    return line.startsWith(ColdStartProbe.RESPONSE_PREFIX + " ");
+  }
+
+  static ColdStartMeasurement parseResultLines(final String resultLine, final String responseLine) {
+    final String[] fields = resultLine.split(" ");
+    if (fields.length != FIELDS) {
+      throw new IllegalArgumentException("malformed probe result: '" + resultLine + "'");
+    }
+    return new ColdStartMeasurement(parseLong(fields[1]), parseLong(fields[2]), parseLong(fields[3]),
+        responseLine.substring(ColdStartProbe.RESPONSE_PREFIX.length() + 1));
+  }
+
+  long initializationNanos() {
+    return initializationNanos;
+  }
+
+  long firstInvocationNanos() {
+    return firstInvocationNanos;
+  }
+
+  long nthInvocationNanos() {
+    return nthInvocationNanos;
+  }
+
+  /**
+   * The status code and body of the first response.
+   */
+  String response() {
+    return response;
+  }
+}
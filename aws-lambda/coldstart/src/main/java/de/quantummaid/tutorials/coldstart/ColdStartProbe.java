@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.coldstart;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.Map;
+
+import static de.quantummaid.tutorials.events.ApiGatewayEvents.restApiGetEvent;
+import static java.lang.Integer.parseInt;
+
+/**
+ * Runs inside a freshly forked JVM whose classpath contains exactly one step's {@code Main}, and the handler
+ * class wrapping it if the step names one. Class initialization of the handler class builds the static
+ * {@code ADAPTER}, so it is timed separately from the first call to {@code handleRequest(Map)}. The steady state
+ * is reported as the median of the later half of all calls, because a single call can be hit by a GC pause or a
+ * JIT compilation finishing. The status code and body of the first response are reported as well, so that runs of
+ * the same step under different JVM options can be checked to answer alike.
+ */
+public final class ColdStartProbe {
+  static final String RESULT_PREFIX = "coldstart-result";
+  static final String RESPONSE_PREFIX = "coldstart-response";
+  private static final String EXPECTED_STATUS_CODE = "200";
+
+  private ColdStartProbe() {
+  }
+
+  public static void main(final String[] args) throws Exception {
+    final String handlerClass = args[0];
+    final String path = args[1];
+    final int invocations = parseInt(args[2]);
+
+    final long initializationStart = System.nanoTime();
+    final Class<?> mainClass = Class.forName(handlerClass, true, ColdStartProbe.class.getClassLoader());
+    final long initializationNanos = System.nanoTime() - initializationStart;
+
+    final Object handler = mainClass.getConstructor().newInstance();
+    final Method handleRequest = mainClass.getMethod("handleRequest", Map.class);
+
+    final long[] invocationNanos = new long[Math.max(invocations, 1)];
+    final Map<?, ?> firstResponse = invoke(handler, handleRequest, path, invocationNanos, 0);
+    for (int i = 1; i < invocationNanos.length; ++i) {
+      invoke(handler, handleRequest, path, invocationNanos, i);
+    }
+    final long[] steadyState = Arrays.copyOfRange(
+        invocationNanos, firstSteadyStateInvocation(invocationNanos.length) - 1, invocationNanos.length);
+    Arrays.sort(steadyState);
+    final long nthInvocationNanos = steadyState[steadyState.length / 2];
+
+    System.out.printf("%s %s %s%n", RESPONSE_PREFIX, firstResponse.get("statusCode"), firstResponse.get("body"));
+    System.out.printf("%s %d %d %d%n", RESULT_PREFIX, initializationNanos, invocationNanos[0], nthInvocationNanos);
+  }
+
+  /**
+   * The first of the calls, counted from 1, whose median is reported as the steady state.
+   */
+  static int firstSteadyStateInvocation(final int invocations) {
+    return invocations / 2 + 1;
+  }
+
+  private static Map<?, ?> invoke(final Object handler,
+                                  final Method handleRequest,
+                                  final String path,
+                                  final long[] durations,
+                                  final int index) throws Exception {
+    final Map<String, Object> event = restApiGetEvent(path);
+    final long start = System.nanoTime();
+    final Map<?, ?> response = (Map<?, ?>) handleRequest.invoke(handler, event);
+    durations[index] = System.nanoTime() - start;
+    final Object statusCode = response.get("statusCode");
+    if (!EXPECTED_STATUS_CODE.equals(String.valueOf(statusCode))) {
+      throw new IllegalStateException(String.format(
+          "request to '%s' failed with status code %s: %s", path, statusCode, response));
+    }
+    return response;
+  }
+}
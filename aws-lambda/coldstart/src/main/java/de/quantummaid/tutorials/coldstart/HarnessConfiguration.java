@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.coldstart;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static de.quantummaid.tutorials.coldstart.StepUnderTest.parseStep;
+import static java.lang.Integer.parseInt;
+import static java.lang.Long.parseLong;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.stream.Collectors.toSet;
+
+/**
+ * Command line of {@link ColdStartHarness}, given as {@code --key=value} arguments
+ * (see the {@code exec-maven-plugin} configuration in this module's pom).
+ */
+final class HarnessConfiguration {
+  private final String harnessClasspath;
+  private final String libraryClasspath;
+  private final Path results;
+  private final String version;
+  private final int runs;
+  private final int invocations;
+  private final Budgets budgets;
+  private final List<StepUnderTest> steps;
+  private final Set<String> cdsSteps;
+  private final Path cdsDirectory;
+
+  private HarnessConfiguration(final String harnessClasspath,
+                               final String libraryClasspath,
+                               final Path results,
+                               final String version,
+                               final int runs,
+                               final int invocations,
+                               final Budgets budgets,
+                               final List<StepUnderTest> steps,
+                               final Set<String> cdsSteps,
+                               final Path cdsDirectory) {
+    this.harnessClasspath = harnessClasspath;
+    this.libraryClasspath = libraryClasspath;
+    this.results = results;
+    this.version = version;
+    this.runs = runs;
+    this.invocations = invocations;
+    this.budgets = budgets;
+    this.steps = steps;
+    this.cdsSteps = cdsSteps;
+    this.cdsDirectory = cdsDirectory;
+  }
+
+  static HarnessConfiguration parseArguments(final String[] args) throws IOException {
+    final Map<String, String> options = new HashMap<>();
+    final List<StepUnderTest> steps = new ArrayList<>();
+    for (final String arg : args) {
+      final int separator = arg.indexOf('=');
+      if (!arg.startsWith("--") || separator < 0) {
+        throw new IllegalArgumentException("arguments must be given as --key=value but got '" + arg + "'");
+      }
+      final String key = arg.substring(2, separator);
+      final String value = arg.substring(separator + 1);
+      if ("step".equals(key)) {
+        steps.add(parseStep(value));
+      } else {
+        options.put(key, value);
+      }
+    }
+    if (steps.isEmpty()) {
+      throw new IllegalArgumentException("at least one --step=name:jar:path is required");
+    }
+    final Path libraryClasspathFile = Paths.get(required(options, "library-classpath-file"));
+    final Budgets budgets = new Budgets(
+        parseLong(required(options, "budget-cold-start-ms")),
+        parseLong(required(options, "budget-nth-invocation-ms")),
+        parseLong(options.getOrDefault("budget-warmed-up-first-invocation-factor", "1")),
+        listOf(options.getOrDefault("warmed-up-steps", "")));
+    final Set<String> cdsSteps = listOf(options.getOrDefault("cds-steps", ""));
+    return new HarnessConfiguration(
+        required(options, "harness-classpath"),
+        Files.readString(libraryClasspathFile, UTF_8).trim(),
+        Paths.get(required(options, "results")),
+        options.getOrDefault("version", "unknown"),
+        parseInt(required(options, "runs")),
+        parseInt(required(options, "invocations")),
+        budgets,
+        steps,
+        cdsSteps,
+        cdsSteps.isEmpty() ? null : Paths.get(required(options, "cds-directory")));
+  }
+
+  private static Set<String> listOf(final String commaSeparated) {
+    return Stream.of(commaSeparated.split(","))
+        .filter(step -> !step.isEmpty())
+        .collect(toSet());
+  }
+
+  private static String required(final Map<String, String> options, final String key) {
+    final String value = options.get(key);
+    if (value == null) {
+      throw new IllegalArgumentException("missing required argument --" + key);
+    }
+    return value;
+  }
+
+  String harnessClasspath() {
+    return harnessClasspath;
+  }
+
+  String libraryClasspath() {
+    return libraryClasspath;
+  }
+
+  Path results() {
+    return results;
+  }
+
+  String version() {
+    return version;
+  }
+
+  int runs() {
+    return runs;
+  }
+
+  int invocations() {
+    return invocations;
+  }
+
+  Budgets budgets() {
+    return budgets;
+  }
+
+  List<StepUnderTest> steps() {
+    return steps;
+  }
+
+  /**
+   * The steps that are measured a second time from an {@link AppCdsArchive}.
+   */
+  Set<String> cdsSteps() {
+    return cdsSteps;
+  }
+
+  Path cdsDirectory() {
+    return cdsDirectory;
+  }
+}
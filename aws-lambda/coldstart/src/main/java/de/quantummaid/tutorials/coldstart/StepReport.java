@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.coldstart;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.function.ToLongFunction;
+
+import static java.util.stream.Collectors.joining;
+
+/**
+ * All measurements of one step, summarized by their median.
+ */
+final class StepReport {
+  private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+  private final String step;
+  private final List<ColdStartMeasurement> measurements;
+
+  StepReport(final String step, final List<ColdStartMeasurement> measurements) {
+    if (measurements.isEmpty()) {
+      throw new IllegalArgumentException("no measurements for step " + step);
+    }
+    this.step = step;
+    this.measurements = List.copyOf(measurements);
+  }
+
+  String step() {
+    return step;
+  }
+
+  double medianInitializationMillis() {
+    return medianMillis(ColdStartMeasurement::initializationNanos);
+  }
+
+  double medianColdStartMillis() {
+    return medianMillis(measurement -> measurement.initializationNanos() + measurement.firstInvocationNanos());
+  }
+
+  double medianFirstInvocationMillis() {
+    return medianMillis(ColdStartMeasurement::firstInvocationNanos);
+  }
+
+  double medianNthInvocationMillis() {
+    return medianMillis(ColdStartMeasurement::nthInvocationNanos);
+  }
+
+  String toJson() {
+    return String.format(Locale.ROOT, "{\"step\":\"%s\",\"runs\":%d,"
+            + "\"coldStartMillis\":{\"median\":%.3f},"
+            + "\"initializationMillis\":{\"median\":%.3f,\"all\":[%s]},"
+            + "\"firstInvocationMillis\":{\"median\":%.3f,\"all\":[%s]},"
+            + "\"nthInvocationMillis\":{\"median\":%.3f,\"all\":[%s]}}",
+        step, measurements.size(),
+        medianColdStartMillis(),
+        medianInitializationMillis(), allMillis(ColdStartMeasurement::initializationNanos),
+        medianFirstInvocationMillis(), allMillis(ColdStartMeasurement::firstInvocationNanos),
+        medianNthInvocationMillis(), allMillis(ColdStartMeasurement::nthInvocationNanos));
+  }
+
+  private double medianMillis(final ToLongFunction<ColdStartMeasurement> field) {
+    final long[] sorted = measurements.stream().mapToLong(field).sorted().toArray();
+    final int middle = sorted.length / 2;
+    final double median = sorted.length % 2 == 1
+        ? sorted[middle]
+        : (sorted[middle - 1] + sorted[middle]) / 2.0;
+    return median / NANOS_PER_MILLI;
+  }
+
+  private String allMillis(final ToLongFunction<ColdStartMeasurement> field) {
+    return measurements.stream()
+        .mapToLong(field)
+        .mapToObj(nanos -> String.format(Locale.ROOT, "%.3f", nanos / NANOS_PER_MILLI))
+        .collect(joining(","));
+  }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.coldstart;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static java.util.stream.Collectors.joining;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * A step module's jar together with the path that gets requested from its {@code Main}.
+ * Parsed from {@code name:jar:path}. Where the handler is not {@code de.quantummaid.tutorials.Main} itself,
+ * it is named after the step as {@code name@handlerClass}, and the jars it needs besides the step's are
+ * listed separated by commas ({@code name@handlerClass:jar,jar:path}).
+ */
+final class StepUnderTest {
+  private static final String DEFAULT_HANDLER_CLASS = "de.quantummaid.tutorials.Main";
+
+  private final String name;
+  private final String handlerClass;
+  private final List<Path> jars;
+  private final String requestPath;
+
+  private StepUnderTest(final String name, final String handlerClass, final List<Path> jars, final String requestPath) {
+    this.name = name;
+    this.handlerClass = handlerClass;
+    this.jars = jars;
+    this.requestPath = requestPath;
+  }
+
+  static StepUnderTest parseStep(final String specification) {
+    final int firstSeparator = specification.indexOf(':');
+    final int lastSeparator = specification.lastIndexOf(':');
+    if (firstSeparator <= 0 || lastSeparator == firstSeparator) {
+      throw new IllegalArgumentException(
+          "step must be specified as name:jar:path but was '" + specification + "'");
+    }
+    final String qualifiedName = specification.substring(0, firstSeparator);
+    final int handlerSeparator = qualifiedName.indexOf('@');
+    final String name = handlerSeparator < 0 ? qualifiedName : qualifiedName.substring(0, handlerSeparator);
+    final String handlerClass = handlerSeparator < 0
+        ? DEFAULT_HANDLER_CLASS
+        : qualifiedName.substring(handlerSeparator + 1);
+    final List<Path> jars = Stream.of(specification.substring(firstSeparator + 1, lastSeparator).split(","))
+        .map(Paths::get)
+        .collect(toList());
+    final String requestPath = specification.substring(lastSeparator + 1);
+    for (final Path jar : jars) {
+      if (!Files.isRegularFile(jar)) {
+        throw new IllegalArgumentException("jar of step '" + name + "' does not exist: " + jar);
+      }
+    }
+    return new StepUnderTest(name, handlerClass, jars, requestPath);
+  }
+
+  String name() {
+    return name;
+  }
+
+  String handlerClass() {
+    return handlerClass;
+  }
+
+  String classpath() {
+    return jars.stream().map(Path::toString).collect(joining(File.pathSeparator));
+  }
+
+  String requestPath() {
+    return requestPath;
+  }
+}
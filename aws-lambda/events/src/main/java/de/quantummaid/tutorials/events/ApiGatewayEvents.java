@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.events;
+
+import java.net.URLDecoder;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Builds the proxy events API Gateway hands to a function behind a {@code /{proxy+}} route, in the same generic
+ * {@code Map} shape the managed {@code java11} runtime passes to {@code handleRequest}: REST API events
+ * (payload format 1.0, as in {@code itests/cf-lambda.yml}) and HTTP API events (payload format 2.0, as in
+ * {@code aws-lambda/runtime/template.yml}).
+ *
+ * <p>Every module that feeds HttpMaid without API Gateway - warm-up, benchmarks, the cold start harness, the
+ * servlet bridge and the sharded server - builds its events here, so they all exercise the same shape.</p>
+ */
+public final class ApiGatewayEvents {
+  private static final String STAGE = "local";
+  private static final String REQUEST_ID = "local";
+  private static final String PROXY_RESOURCE = "/{proxy+}";
+
+  private ApiGatewayEvents() {
+  }
+
+  public static Map<String, Object> restApiGetEvent(final String path) {
+    return restApiEvent("GET", path, null, defaultHeaders(null), null);
+  }
+
+  public static Map<String, Object> restApiPostEvent(final String path, final String body) {
+    return restApiEvent("POST", path, null, defaultHeaders(body), body);
+  }
+
+  /**
+   * A REST API event. {@code rawQuery} is the undecoded query string without {@code ?} (or {@code null}),
+   * {@code headers} maps each header name to all of its values.
+   */
+  public static Map<String, Object> restApiEvent(final String method,
+                                                 final String path,
+                                                 final String rawQuery,
+                                                 final Map<String, List<String>> headers,
+                                                 final String body) {
+    final Map<String, String> singleValueHeaders = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    final Map<String, List<String>> multiValueHeaders = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    headers.forEach((name, values) -> {
+      singleValueHeaders.merge(name, String.join(",", values), (first, second) -> first + "," + second);
+      multiValueHeaders.computeIfAbsent(name, ignored -> new ArrayList<>(values.size())).addAll(values);
+    });
+
+    final Map<String, Object> requestContext = new HashMap<>();
+    requestContext.put("resourcePath", PROXY_RESOURCE);
+    requestContext.put("httpMethod", method);
+    requestContext.put("path", "/" + STAGE + path);
+    requestContext.put("stage", STAGE);
+    requestContext.put("requestId", REQUEST_ID);
+
+    final Map<String, List<String>> query = parseQuery(rawQuery);
+    final Map<String, Object> event = new HashMap<>();
+    event.put("resource", PROXY_RESOURCE);
+    event.put("path", path);
+    event.put("httpMethod", method);
+    event.put("headers", singleValueHeaders);
+    event.put("multiValueHeaders", multiValueHeaders);
+    event.put("queryStringParameters", query == null ? null : lastValues(query));
+    event.put("multiValueQueryStringParameters", query);
+    event.put("pathParameters", proxyParameter(path));
+    event.put("stageVariables", null);
+    event.put("requestContext", requestContext);
+    event.put("body", body);
+    event.put("isBase64Encoded", false);
+    return event;
+  }
+
+  public static Map<String, Object> httpApiGetEvent(final String path) {
+    return httpApiEvent("GET", path, null, defaultHeaders(null), null);
+  }
+
+  /**
+   * An HTTP API event. Header names are lower-cased and repeated headers as well as repeated query parameters
+   * are joined with {@code ,}, as API Gateway does for payload format 2.0.
+   */
+  public static Map<String, Object> httpApiEvent(final String method,
+                                                 final String path,
+                                                 final String rawQuery,
+                                                 final Map<String, List<String>> headers,
+                                                 final String body) {
+    final Map<String, String> lowerCaseHeaders = new HashMap<>();
+    headers.forEach((name, values) -> lowerCaseHeaders.merge(
+        name.toLowerCase(Locale.ROOT), String.join(",", values), (first, second) -> first + "," + second));
+
+    final Map<String, Object> http = new HashMap<>();
+    http.put("method", method);
+    http.put("path", path);
+    http.put("protocol", "HTTP/1.1");
+    http.put("sourceIp", "127.0.0.1");
+    http.put("userAgent", lowerCaseHeaders.getOrDefault("user-agent", ""));
+
+    final Map<String, Object> requestContext = new HashMap<>();
+    requestContext.put("domainName", lowerCaseHeaders.getOrDefault("host", "localhost"));
+    requestContext.put("http", http);
+    requestContext.put("requestId", REQUEST_ID);
+    requestContext.put("routeKey", "ANY " + PROXY_RESOURCE);
+    requestContext.put("stage", "$default");
+
+    final Map<String, Object> event = new HashMap<>();
+    event.put("version", "2.0");
+    event.put("routeKey", "ANY " + PROXY_RESOURCE);
+    event.put("rawPath", path);
+    event.put("rawQueryString", rawQuery == null ? "" : rawQuery);
+    event.put("headers", lowerCaseHeaders);
+    final Map<String, List<String>> query = parseQuery(rawQuery);
+    if (query != null) {
+      final Map<String, String> joined = new HashMap<>();
+      query.forEach((name, values) -> joined.put(name, String.join(",", values)));
+      event.put("queryStringParameters", joined);
+    }
+    event.put("pathParameters", proxyParameter(path));
+    event.put("requestContext", requestContext);
+    if (body != null) {
+      event.put("body", body);
+    }
+    event.put("isBase64Encoded", false);
+    return event;
+  }
+
+  private static Map<String, List<String>> defaultHeaders(final String body) {
+    final Map<String, List<String>> headers = new LinkedHashMap<>();
+    headers.put("Accept", List.of("*/*"));
+    headers.put("Host", List.of("localhost"));
+    if (body != null) {
+      headers.put("Content-Type", List.of("application/json"));
+    }
+    return headers;
+  }
+
+  private static Map<String, String> proxyParameter(final String path) {
+    return Map.of("proxy", path.startsWith("/") ? path.substring(1) : path);
+  }
+
+  private static Map<String, List<String>> parseQuery(final String rawQuery) {
+    if (rawQuery == null || rawQuery.isEmpty()) {
+      return null;
+    }
+    final Map<String, List<String>> parameters = new HashMap<>();
+    for (final String pair : rawQuery.split("&")) {
+      if (pair.isEmpty()) {
+        continue;
+      }
+      final int equals = pair.indexOf('=');
+      final String name = URLDecoder.decode(equals < 0 ? pair : pair.substring(0, equals), UTF_8);
+      final String value = equals < 0 ? "" : URLDecoder.decode(pair.substring(equals + 1), UTF_8);
+      parameters.computeIfAbsent(name, ignored -> new ArrayList<>(1)).add(value);
+    }
+    return parameters;
+  }
+
+  private static Map<String, String> lastValues(final Map<String, List<String>> parameters) {
+    final Map<String, String> lastValues = new HashMap<>();
+    parameters.forEach((name, values) -> lastValues.put(name, values.get(values.size() - 1)));
+    return lastValues;
+  }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.events;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static de.quantummaid.tutorials.events.ApiGatewayEvents.httpApiEvent;
+import static de.quantummaid.tutorials.events.ApiGatewayEvents.restApiEvent;
+import static de.quantummaid.tutorials.events.ApiGatewayEvents.restApiGetEvent;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+public final class ApiGatewayEventsTest {
+
+  @Test
+  public void testRestApiGetEventRoutesThroughTheProxyResource() {
+    final Map<String, Object> event = restApiGetEvent("/hello/first");
+    assertEquals("/hello/first", event.get("path"));
+    assertEquals("GET", event.get("httpMethod"));
+    assertEquals(Map.of("proxy", "hello/first"), event.get("pathParameters"));
+    assertNull(event.get("queryStringParameters"));
+    assertNull(event.get("body"));
+  }
+
+  @Test
+  public void testEmptyPathHasAnEmptyProxyParameter() {
+    assertEquals(Map.of("proxy", ""), restApiGetEvent("").get("pathParameters"));
+    assertEquals(Map.of("proxy", ""), restApiGetEvent("/").get("pathParameters"));
+  }
+
+  @Test
+  public void testRestApiEventDecodesTheQueryAndKeepsRepeatedValues() {
+    final Map<String, Object> event = restApiEvent("GET", "/search", "q=a%20b&tag=x&tag=y&flag", Map.of(), null);
+    assertEquals(Map.of("q", "a b", "tag", "y", "flag", ""), event.get("queryStringParameters"));
+    assertEquals(Map.of("q", List.of("a b"), "tag", List.of("x", "y"), "flag", List.of("")),
+        event.get("multiValueQueryStringParameters"));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testRestApiEventJoinsRepeatedHeadersAndLooksThemUpCaseInsensitively() {
+    final Map<String, Object> event = restApiEvent("GET", "/", null, Map.of("Accept", List.of("a", "b")), null);
+    assertEquals("a,b", ((Map<String, String>) event.get("headers")).get("accept"));
+    assertEquals(List.of("a", "b"), ((Map<String, List<String>>) event.get("multiValueHeaders")).get("ACCEPT"));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testHttpApiEventUsesPayloadFormatTwo() {
+    final Map<String, Object> event = httpApiEvent("POST", "/hello", "tag=x&tag=y",
+        Map.of("Content-Type", List.of("application/json"), "User-Agent", List.of("test")), "{}");
+    assertEquals("2.0", event.get("version"));
+    assertEquals("/hello", event.get("rawPath"));
+    assertEquals("tag=x&tag=y", event.get("rawQueryString"));
+    assertEquals(Map.of("tag", "x,y"), event.get("queryStringParameters"));
+    assertEquals(Map.of("content-type", "application/json", "user-agent", "test"), event.get("headers"));
+    final Map<String, Object> http = (Map<String, Object>) ((Map<String, Object>) event.get("requestContext"))
+        .get("http");
+    assertEquals("POST", http.get("method"));
+    assertEquals("test", http.get("userAgent"));
+    assertEquals("{}", event.get("body"));
+  }
+}
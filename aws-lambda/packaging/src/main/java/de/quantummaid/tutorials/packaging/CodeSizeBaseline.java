@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.packaging;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Properties;
+
+import static java.lang.Long.parseLong;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * The minimized kilobytes of every dependency as recorded by the last
+ * {@code -Dcode-size.update-baseline=true} build, stored as {@code dependency=kilobytes}.
+ */
+final class CodeSizeBaseline {
+  private static final int PERCENT = 100;
+
+  private final Properties recordedKilobytes;
+
+  private CodeSizeBaseline(final Properties recordedKilobytes) {
+    this.recordedKilobytes = recordedKilobytes;
+  }
+
+  static CodeSizeBaseline loadBaseline(final Path file) throws IOException {
+    final Properties properties = new Properties();
+    if (Files.isRegularFile(file)) {
+      try (Reader reader = Files.newBufferedReader(file, UTF_8)) {
+        properties.load(reader);
+      }
+    }
+    return new CodeSizeBaseline(properties);
+  }
+
+  static void recordBaseline(final Path file,
+                             final Collection<DependencyContribution> contributions) throws IOException {
+    final List<String> lines = new ArrayList<>();
+    lines.add("# minimized kilobytes per dependency, recorded with -Dcode-size.update-baseline=true");
+    contributions.stream()
+        .map(contribution -> contribution.name() + "=" + contribution.minimizedKilobytes())
+        .sorted()
+        .forEach(lines::add);
+    try (Writer writer = Files.newBufferedWriter(file, UTF_8)) {
+      for (final String line : lines) {
+        writer.write(line);
+        writer.write(System.lineSeparator());
+      }
+    }
+  }
+
+  List<String> violationsOf(final Collection<DependencyContribution> contributions, final int tolerancePercent) {
+    final List<String> violations = new ArrayList<>();
+    for (final DependencyContribution contribution : contributions) {
+      final String recorded = recordedKilobytes.getProperty(contribution.name());
+      final long actual = contribution.minimizedKilobytes();
+      if (recorded == null) {
+        if (actual > 0) {
+          violations.add(String.format(Locale.ROOT, "%s is new and adds %d KB", contribution.name(), actual));
+        }
+        continue;
+      }
+      final long allowed = parseLong(recorded.trim()) * (PERCENT + tolerancePercent) / PERCENT;
+      if (actual > allowed) {
+        violations.add(String.format(Locale.ROOT, "%s grew from %s KB to %d KB (allowed: %d KB)",
+            contribution.name(), recorded.trim(), actual, allowed));
+      }
+    }
+    return violations;
+  }
+
+  boolean isEmpty() {
+    return recordedKilobytes.isEmpty();
+  }
+}
@@ -0,0 +1,252 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.packaging;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Stream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+import static de.quantummaid.tutorials.packaging.CodeSizeBaseline.loadBaseline;
+import static de.quantummaid.tutorials.packaging.CodeSizeBaseline.recordBaseline;
+import static java.lang.Integer.parseInt;
+import static java.lang.Long.parseLong;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.stream.Collectors.joining;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Checks the minimized step4 jar without deploying it.
+ *
+ * <p>First, {@link MinimizedJarProbe} is run against the jar to prove that minimizing did not remove anything
+ * {@code Main} needs at runtime. The probe and the event builders it uses are put on the classpath next to the
+ * jar, not into it, so that the jar holds exactly what the function deploys. Then every entry of the jar is
+ * attributed to the dependency it was copied from, and the compressed bytes per dependency are reported, written
+ * as JSON and compared with the recorded baseline. The process exits with a non-zero status if the jar exceeds
+ * its total budget, any dependency grew beyond the tolerance or no baseline has been recorded yet.</p>
+ */
+public final class CodeSizeCheck {
+  private static final long KILOBYTE = 1024;
+  private static final String UNATTRIBUTED = "(unattributed)";
+
+  private CodeSizeCheck() {
+  }
+
+  public static void main(final String[] args) throws Exception {
+    final Map<String, String> options = parseOptions(args);
+    final Path jar = Paths.get(required(options, "jar"));
+    final Path baselineFile = Paths.get(required(options, "baseline"));
+    final Path report = Paths.get(required(options, "report"));
+    final long budgetTotalKilobytes = parseLong(required(options, "budget-total-kb"));
+    final int tolerancePercent = parseInt(required(options, "tolerance-percent"));
+
+    final List<String> probeClasspath = new ArrayList<>();
+    probeClasspath.add(jar.toString());
+    probeClasspath.add(required(options, "probe-classpath"));
+    probeClasspath.addAll(classpathIn(Paths.get(required(options, "probe-classpath-file"))));
+    probe(String.join(File.pathSeparator, probeClasspath), jar, required(options, "probe-path"));
+
+    final List<Path> dependencies = classpathIn(Paths.get(required(options, "dependency-classpath-file"))).stream()
+        .map(Paths::get)
+        .collect(toList());
+    final List<DependencyContribution> contributions = attribute(jar, dependencies);
+    final long jarKilobytes = (Files.size(jar) + KILOBYTE - 1) / KILOBYTE;
+
+    System.out.printf(Locale.ROOT, "%-48s %12s %12s%n", "dependency", "full KB", "minimized KB");
+    contributions.forEach(contribution -> System.out.printf(Locale.ROOT, "%-48s %12d %12d%n",
+        contribution.name(), (contribution.fullBytes() + KILOBYTE - 1) / KILOBYTE, contribution.minimizedKilobytes()));
+    System.out.printf(Locale.ROOT, "%-48s %12s %12d%n", jar.getFileName(), "", jarKilobytes);
+    writeReport(report, jarKilobytes, budgetTotalKilobytes, contributions);
+
+    if (Boolean.parseBoolean(options.getOrDefault("update-baseline", "false"))) {
+      recordBaseline(baselineFile, contributions);
+      System.out.println("code size baseline recorded in " + baselineFile);
+      return;
+    }
+    final CodeSizeBaseline baseline = loadBaseline(baselineFile);
+    if (baseline.isEmpty()) {
+      System.out.println("code size baseline missing - " + baselineFile
+          + " records no dependency, record one with -Dcode-size.update-baseline=true and commit it");
+      System.exit(1);
+    }
+    final List<String> violations = new ArrayList<>(baseline.violationsOf(contributions, tolerancePercent));
+    if (jarKilobytes > budgetTotalKilobytes) {
+      violations.add(0, String.format(Locale.ROOT, "%s has %d KB (allowed: %d KB)",
+          jar.getFileName(), jarKilobytes, budgetTotalKilobytes));
+    }
+    if (!violations.isEmpty()) {
+      violations.forEach(violation -> System.out.println("code size budget exceeded - " + violation));
+      System.exit(1);
+    }
+  }
+
+  private static List<String> classpathIn(final Path classpathFile) throws IOException {
+    return Stream.of(Files.readString(classpathFile, UTF_8).trim().split(File.pathSeparator))
+        .filter(entry -> !entry.isEmpty())
+        .collect(toList());
+  }
+
+  private static void probe(final String classpath,
+                            final Path jar,
+                            final String path) throws IOException, InterruptedException {
+    final Path java = Paths.get(System.getProperty("java.home"), "bin", "java");
+    final Process process = new ProcessBuilder(
+        java.toString(), "-classpath", classpath, MinimizedJarProbe.class.getName(), path)
+        .redirectError(ProcessBuilder.Redirect.INHERIT)
+        .start();
+    boolean answered = false;
+    try (BufferedReader output = new BufferedReader(new InputStreamReader(process.getInputStream(), UTF_8))) {
+      String line = output.readLine();
+      while (line != null) {
+        if (line.startsWith(MinimizedJarProbe.RESULT_PREFIX)) {
+          System.out.println(jar.getFileName() + ": " + line);
+          answered = true;
+        }
+        line = output.readLine();
+      }
+    }
+    final int exitCode = process.waitFor();
+    if (exitCode != 0 || !answered) {
+      throw new IllegalStateException(String.format(Locale.ROOT,
+          "%s cannot serve '%s' on its own (exit code %d) - a class that is only loaded reflectively "
+              + "is probably missing and needs an include filter in the maven-shade-plugin configuration",
+          jar.getFileName(), path, exitCode));
+    }
+  }
+
+  private static List<DependencyContribution> attribute(final Path jar,
+                                                        final List<Path> dependencies) throws IOException {
+    final Map<String, DependencyContribution> owners = new HashMap<>();
+    final Map<String, DependencyContribution> contributions = new LinkedHashMap<>();
+    for (final Path dependency : dependencies) {
+      final DependencyContribution contribution = new DependencyContribution(nameOf(dependency), sizeOf(dependency));
+      contributions.put(contribution.name(), contribution);
+      for (final String entry : entriesOf(dependency)) {
+        owners.putIfAbsent(entry, contribution);
+      }
+    }
+    final DependencyContribution unattributed = new DependencyContribution(UNATTRIBUTED, 0);
+    try (ZipFile minimized = new ZipFile(jar.toFile())) {
+      final Enumeration<? extends ZipEntry> entries = minimized.entries();
+      while (entries.hasMoreElements()) {
+        final ZipEntry entry = entries.nextElement();
+        if (!entry.isDirectory()) {
+          owners.getOrDefault(entry.getName(), unattributed).addEntry(entry.getCompressedSize());
+        }
+      }
+    }
+    contributions.put(UNATTRIBUTED, unattributed);
+    return contributions.values().stream()
+        .sorted(Comparator.comparingLong(DependencyContribution::minimizedBytes).reversed())
+        .collect(toList());
+  }
+
+  private static List<String> entriesOf(final Path dependency) throws IOException {
+    if (Files.isDirectory(dependency)) {
+      try (Stream<Path> files = Files.walk(dependency)) {
+        return files.filter(Files::isRegularFile)
+            .map(file -> dependency.relativize(file).toString().replace(File.separatorChar, '/'))
+            .collect(toList());
+      }
+    }
+    try (ZipFile zipFile = new ZipFile(dependency.toFile())) {
+      return zipFile.stream()
+          .filter(entry -> !entry.isDirectory())
+          .map(ZipEntry::getName)
+          .collect(toList());
+    }
+  }
+
+  private static long sizeOf(final Path dependency) throws IOException {
+    if (!Files.isDirectory(dependency)) {
+      return Files.size(dependency);
+    }
+    try (Stream<Path> files = Files.walk(dependency)) {
+      long size = 0;
+      for (final Path file : files.filter(Files::isRegularFile).collect(toList())) {
+        size += Files.size(file);
+      }
+      return size;
+    }
+  }
+
+  /**
+   * {@code httpmaid-core-0.9.143.jar} becomes {@code httpmaid-core}; a reactor module's
+   * {@code step4/target/classes} becomes {@code step4}.
+   */
+  private static String nameOf(final Path dependency) {
+    if (Files.isDirectory(dependency) && dependency.getParent() != null && dependency.getParent().getParent() != null) {
+      return dependency.getParent().getParent().getFileName().toString();
+    }
+    return dependency.getFileName().toString()
+        .replaceFirst("\\.jar$", "")
+        .replaceFirst("-\\d.*$", "");
+  }
+
+  private static void writeReport(final Path report,
+                                  final long jarKilobytes,
+                                  final long budgetTotalKilobytes,
+                                  final List<DependencyContribution> contributions) throws IOException {
+    final String json = String.format(Locale.ROOT,
+        "{\"timestamp\":\"%s\",\"jarKilobytes\":%d,\"budgetKilobytes\":%d,\"dependencies\":[%s]}%n",
+        Instant.now(), jarKilobytes, budgetTotalKilobytes,
+        contributions.stream().map(DependencyContribution::toJson).collect(joining(",")));
+    Files.createDirectories(report.toAbsolutePath().getParent());
+    Files.writeString(report, json, UTF_8);
+    System.out.println("code size report written to " + report);
+  }
+
+  private static Map<String, String> parseOptions(final String[] args) {
+    final Map<String, String> options = new HashMap<>();
+    for (final String arg : args) {
+      final int separator = arg.indexOf('=');
+      if (!arg.startsWith("--") || separator < 0) {
+        throw new IllegalArgumentException("arguments must be given as --key=value but got '" + arg + "'");
+      }
+      options.put(arg.substring(2, separator), arg.substring(separator + 1));
+    }
+    return options;
+  }
+
+  private static String required(final Map<String, String> options, final String key) {
+    final String value = options.get(key);
+    if (value == null) {
+      throw new IllegalArgumentException("missing required argument --" + key);
+    }
+    return value;
+  }
+}
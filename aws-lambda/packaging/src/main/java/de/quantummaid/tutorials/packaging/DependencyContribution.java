@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.packaging;
+
+import java.util.Locale;
+
+/**
+ * What a single dependency costs: the size of its own jar, and the compressed size of the entries
+ * that are left of it in the minimized jar.
+ */
+final class DependencyContribution {
+  private static final long KILOBYTE = 1024;
+
+  private final String name;
+  private final long fullBytes;
+  private long minimizedBytes;
+  private int minimizedEntries;
+
+  DependencyContribution(final String name, final long fullBytes) {
+    this.name = name;
+    this.fullBytes = fullBytes;
+  }
+
+  void addEntry(final long compressedBytes) {
+    minimizedBytes += compressedBytes;
+    ++minimizedEntries;
+  }
+
+  String name() {
+    return name;
+  }
+
+  long fullBytes() {
+    return fullBytes;
+  }
+
+  long minimizedBytes() {
+    return minimizedBytes;
+  }
+
+  long minimizedKilobytes() {
+    return (minimizedBytes + KILOBYTE - 1) / KILOBYTE;
+  }
+
+  String toJson() {
+    return String.format(Locale.ROOT,
+        "{\"dependency\":\"%s\",\"fullBytes\":%d,\"minimizedBytes\":%d,\"minimizedEntries\":%d}",
+        name, fullBytes, minimizedBytes, minimizedEntries);
+  }
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.packaging;
+
+import de.quantummaid.tutorials.Main;
+
+import java.util.Map;
+
+import static de.quantummaid.tutorials.events.ApiGatewayEvents.restApiGetEvent;
+
+/**
+ * Invokes {@link Main#handleRequest(Map)} from the minimized jar. Besides the jar, only this class and the
+ * JDK-only {@code aws-lambda-events} are on the classpath, so every class {@code Main} needs has to come from the
+ * jar.
+ */
+public final class MinimizedJarProbe {
+  static final String RESULT_PREFIX = "probe-result";
+  private static final String EXPECTED_STATUS_CODE = "200";
+
+  private MinimizedJarProbe() {
+  }
+
+  public static void main(final String[] args) {
+    final String path = args[0];
+    final Map<String, Object> response = new Main().handleRequest(restApiGetEvent(path));
+    final Object statusCode = response.get("statusCode");
+    if (!EXPECTED_STATUS_CODE.equals(String.valueOf(statusCode))) {
+      throw new IllegalStateException(String.format(
+          "request to '%s' failed with status code %s: %s", path, statusCode, response));
+    }
+    System.out.println(RESULT_PREFIX + " " + statusCode + " " + response.get("body"));
+  }
+}
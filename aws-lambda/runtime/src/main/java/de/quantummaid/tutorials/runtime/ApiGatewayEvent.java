@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.runtime;
+
+import java.net.URLEncoder;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Reads the parts of an API Gateway event that do not depend on the payload format:
+ * REST API (1.0) events carry {@code httpMethod} and {@code path},
+ * HTTP API (2.0) events carry {@code requestContext.http.method} and {@code rawPath}.
+ */
+final class ApiGatewayEvent {
+
+  private ApiGatewayEvent() {
+  }
+
+  static String methodOf(final Map<String, Object> event) {
+    final Object method = event.get("httpMethod");
+    if (method != null) {
+      return method.toString();
+    }
+    final Object requestContext = event.get("requestContext");
+    if (requestContext instanceof Map) {
+      final Object http = ((Map<?, ?>) requestContext).get("http");
+      if (http instanceof Map) {
+        return String.valueOf(((Map<?, ?>) http).get("method"));
+      }
+    }
+    return "";
+  }
+
+  /**
+   * The payload format version, {@code 1.0} for REST API events unless they say otherwise.
+   */
+  static String payloadVersionOf(final Map<String, Object> event) {
+    final Object version = event.get("version");
+    if (version != null) {
+      return version.toString();
+    }
+    return event.containsKey("rawPath") ? "2.0" : "1.0";
+  }
+
+  static String pathOf(final Map<String, Object> event) {
+    final Object path = event.containsKey("rawPath") ? event.get("rawPath") : event.get("path");
+    return path == null ? "" : path.toString();
+  }
+
+  /**
+   * The query string of the request. REST API events only carry the decoded parameters, so for them it is
+   * rebuilt canonically: names in sorted order, the values of a name in request order, both form-encoded.
+   */
+  static String queryOf(final Map<String, Object> event) {
+    if (event.containsKey("rawQueryString")) {
+      return String.valueOf(event.get("rawQueryString"));
+    }
+    Object parameters = event.get("multiValueQueryStringParameters");
+    if (!(parameters instanceof Map)) {
+      parameters = event.get("queryStringParameters");
+    }
+    if (!(parameters instanceof Map)) {
+      return "";
+    }
+    final Map<String, Object> sorted = new TreeMap<>();
+    ((Map<?, ?>) parameters).forEach((name, values) -> sorted.put(String.valueOf(name), values));
+    final StringBuilder query = new StringBuilder();
+    sorted.forEach((name, values) -> {
+      for (final Object value : values instanceof List ? (List<?>) values : List.of(String.valueOf(values))) {
+        if (query.length() > 0) {
+          query.append('&');
+        }
+        query.append(URLEncoder.encode(name, UTF_8)).append('=')
+            .append(URLEncoder.encode(value == null ? "" : value.toString(), UTF_8));
+      }
+    });
+    return query.toString();
+  }
+
+  static String headerOf(final Map<String, Object> event, final String name) {
+    final String value = headerIn(event.get("headers"), name);
+    if (value != null) {
+      return value;
+    }
+    return headerIn(event.get("multiValueHeaders"), name);
+  }
+
+  /**
+   * Every value of a header, from all of its occurrences.
+   */
+  static List<String> headerValuesOf(final Map<String, Object> event, final String name) {
+    final List<String> values = new ArrayList<>();
+    final Object multiValueHeaders = event.get("multiValueHeaders");
+    if (multiValueHeaders instanceof Map) {
+      for (final Map.Entry<?, ?> header : ((Map<?, ?>) multiValueHeaders).entrySet()) {
+        if (name.equalsIgnoreCase(String.valueOf(header.getKey())) && header.getValue() instanceof List) {
+          ((List<?>) header.getValue()).forEach(value -> values.add(String.valueOf(value)));
+        }
+      }
+    }
+    if (values.isEmpty()) {
+      final String value = headerIn(event.get("headers"), name);
+      if (value != null) {
+        values.add(value);
+      }
+    }
+    return values;
+  }
+
+  private static String headerIn(final Object headers, final String name) {
+    if (!(headers instanceof Map)) {
+      return null;
+    }
+    for (final Map.Entry<?, ?> header : ((Map<?, ?>) headers).entrySet()) {
+      if (name.equalsIgnoreCase(String.valueOf(header.getKey()))) {
+        final Object value = header.getValue();
+        if (value instanceof List) {
+          final List<?> values = (List<?>) value;
+          return values.isEmpty() ? null : String.valueOf(values.get(0));
+        }
+        return value == null ? null : value.toString();
+      }
+    }
+    return null;
+  }
+}
@@ -0,0 +1,504 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.runtime;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Just enough JSON to read API Gateway events and write the responses of {@code AwsLambdaEndpoint}.
+ *
+ * <p>The event is parsed straight from its bytes into the {@code Map}/{@code List} shape the adapter
+ * expects, strings without escapes are decoded in place, and the response is encoded into a buffer that is
+ * written to the output stream in one go. The buffer is kept per thread and reused by the next response, unless
+ * an unusually large response grew it beyond {@value #MAX_RETAINED_BUFFER_SIZE} bytes.</p>
+ *
+ * <p>Integral numbers become {@code Integer}, {@code Long} or {@code BigInteger}, whichever is the smallest to
+ * hold them; all other numbers become {@code Double}. Unpaired surrogates in response strings are written as
+ * JSON unicode escapes, so the output is always valid UTF-8. JSON has no NaN or infinity, so a non-finite
+ * {@code Double} or {@code Float} in a response is written as {@code null}.</p>
+ */
+final class EventJson {
+  private static final int INITIAL_BUFFER_SIZE = 4096;
+  private static final int MAX_RETAINED_BUFFER_SIZE = 1024 * 1024;
+  private static final ThreadLocal<byte[]> BUFFER = ThreadLocal.withInitial(() -> new byte[INITIAL_BUFFER_SIZE]);
+  private static final int HEX_RADIX = 16;
+  private static final int UNICODE_ESCAPE_LENGTH = 4;
+  private static final int FIRST_NON_CONTROL_CHARACTER = 0x20;
+  private static final byte[] HEX_DIGITS = "0123456789abcdef".getBytes(UTF_8);
+  private static final byte[] NULL = "null".getBytes(UTF_8);
+  private static final byte[] TRUE = "true".getBytes(UTF_8);
+  private static final byte[] FALSE = "false".getBytes(UTF_8);
+
+  private final byte[] input;
+  private int position;
+
+  private byte[] output;
+  private int length;
+
+  private EventJson(final byte[] input) {
+    this.input = input;
+  }
+
+  static Map<String, Object> readEvent(final InputStream inputStream) throws IOException {
+    return parseEvent(inputStream.readAllBytes());
+  }
+
+  @SuppressWarnings("unchecked")
+  static Map<String, Object> parseEvent(final byte[] bytes) {
+    final EventJson parser = new EventJson(bytes);
+    parser.skipWhitespace();
+    if (parser.peek() != '{') {
+      throw parser.malformed("event must be a JSON object");
+    }
+    final Object event = parser.readValue();
+    parser.skipWhitespace();
+    if (parser.position != bytes.length) {
+      throw parser.malformed("trailing content after event");
+    }
+    return (Map<String, Object>) event;
+  }
+
+  static void writeResponse(final Map<String, Object> response,
+                            final OutputStream outputStream) throws IOException {
+    final EventJson writer = encode(response);
+    outputStream.write(writer.output, 0, writer.length);
+    outputStream.flush();
+  }
+
+  static byte[] encodeResponse(final Map<String, Object> response) {
+    final EventJson writer = encode(response);
+    return Arrays.copyOf(writer.output, writer.length);
+  }
+
+  private static EventJson encode(final Map<String, Object> response) {
+    final EventJson writer = new EventJson(null);
+    writer.output = BUFFER.get();
+    writer.writeValue(response);
+    if (writer.output.length <= MAX_RETAINED_BUFFER_SIZE) {
+      BUFFER.set(writer.output);
+    } else {
+      BUFFER.remove();
+    }
+    return writer;
+  }
+
+  private Object readValue() {
+    skipWhitespace();
+    final byte current = peek();
+    switch (current) {
+      case '{':
+        return readObject();
+      case '[':
+        return readArray();
+      case '"':
+        return readString();
+      case 't':
+        expectLiteral(TRUE);
+        return Boolean.TRUE;
+      case 'f':
+        expectLiteral(FALSE);
+        return Boolean.FALSE;
+      case 'n':
+        expectLiteral(NULL);
+        return null;
+      default:
+        return readNumber();
+    }
+  }
+
+  private Map<String, Object> readObject() {
+    ++position;
+    final Map<String, Object> object = new HashMap<>();
+    skipWhitespace();
+    if (peek() == '}') {
+      ++position;
+      return object;
+    }
+    while (true) {
+      skipWhitespace();
+      if (peek() != '"') {
+        throw malformed("expected object key");
+      }
+      final String key = readString();
+      skipWhitespace();
+      expect(':');
+      object.put(key, readValue());
+      skipWhitespace();
+      final byte separator = next();
+      if (separator == '}') {
+        return object;
+      }
+      if (separator != ',') {
+        throw malformed("expected ',' or '}'");
+      }
+    }
+  }
+
+  private List<Object> readArray() {
+    ++position;
+    final List<Object> array = new ArrayList<>();
+    skipWhitespace();
+    if (peek() == ']') {
+      ++position;
+      return array;
+    }
+    while (true) {
+      array.add(readValue());
+      skipWhitespace();
+      final byte separator = next();
+      if (separator == ']') {
+        return array;
+      }
+      if (separator != ',') {
+        throw malformed("expected ',' or ']'");
+      }
+    }
+  }
+
+  private String readString() {
+    ++position;
+    final int start = position;
+    while (position < input.length) {
+      final byte current = input[position];
+      if (current == '"') {
+        final String string = new String(input, start, position - start, UTF_8);
+        ++position;
+        return string;
+      }
+      if (current == '\\') {
+        return readEscapedString(start);
+      }
+      ++position;
+    }
+    throw malformed("unterminated string");
+  }
+
+  private String readEscapedString(final int start) {
+    final StringBuilder builder = new StringBuilder(new String(input, start, position - start, UTF_8));
+    int chunkStart = position;
+    while (position < input.length) {
+      final byte current = input[position];
+      if (current == '"') {
+        builder.append(new String(input, chunkStart, position - chunkStart, UTF_8));
+        ++position;
+        return builder.toString();
+      }
+      if (current == '\\') {
+        builder.append(new String(input, chunkStart, position - chunkStart, UTF_8));
+        ++position;
+        builder.append(readEscape());
+        chunkStart = position;
+      } else {
+        ++position;
+      }
+    }
+    throw malformed("unterminated string");
+  }
+
+  private char readEscape() {
+    final byte escaped = next();
+    switch (escaped) {
+      case '"':
+        return '"';
+      case '\\':
+        return '\\';
+      case '/':
+        return '/';
+      case 'b':
+        return '\b';
+      case 'f':
+        return '\f';
+      case 'n':
+        return '\n';
+      case 'r':
+        return '\r';
+      case 't':
+        return '\t';
+      case 'u':
+        if (position + UNICODE_ESCAPE_LENGTH > input.length) {
+          throw malformed("truncated unicode escape");
+        }
+        int code = 0;
+        for (int i = 0; i < UNICODE_ESCAPE_LENGTH; ++i) {
+          final int digit = Character.digit(input[position], HEX_RADIX);
+          if (digit < 0) {
+            throw malformed("invalid unicode escape");
+          }
+          code = code * HEX_RADIX + digit;
+          ++position;
+        }
+        return (char) code;
+      default:
+        throw malformed("invalid escape sequence");
+    }
+  }
+
+  private Number readNumber() {
+    final int start = position;
+    if (position < input.length && input[position] == '-') {
+      ++position;
+    }
+    if (position < input.length && input[position] == '0') {
+      ++position;
+    } else if (skipDigits() == 0) {
+      throw malformed(start == position ? "unexpected character" : "invalid number");
+    }
+    boolean integral = true;
+    if (position < input.length && input[position] == '.') {
+      ++position;
+      integral = false;
+      if (skipDigits() == 0) {
+        throw malformed("invalid number");
+      }
+    }
+    if (position < input.length && (input[position] == 'e' || input[position] == 'E')) {
+      ++position;
+      integral = false;
+      if (position < input.length && (input[position] == '+' || input[position] == '-')) {
+        ++position;
+      }
+      if (skipDigits() == 0) {
+        throw malformed("invalid number");
+      }
+    }
+    final String number = new String(input, start, position - start, UTF_8);
+    if (!integral) {
+      return Double.valueOf(number);
+    }
+    try {
+      final long value = Long.parseLong(number);
+      if (value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE) {
+        return (int) value;
+      }
+      return value;
+    } catch (final NumberFormatException e) {
+      return new BigInteger(number);
+    }
+  }
+
+  private int skipDigits() {
+    final int start = position;
+    while (position < input.length && input[position] >= '0' && input[position] <= '9') {
+      ++position;
+    }
+    return position - start;
+  }
+
+  private void expectLiteral(final byte[] literal) {
+    for (final byte expected : literal) {
+      if (next() != expected) {
+        throw malformed("invalid literal");
+      }
+    }
+  }
+
+  private void expect(final char expected) {
+    if (next() != expected) {
+      throw malformed("expected '" + expected + "'");
+    }
+  }
+
+  private void skipWhitespace() {
+    while (position < input.length) {
+      final byte current = input[position];
+      if (current != ' ' && current != '\n' && current != '\r' && current != '\t') {
+        return;
+      }
+      ++position;
+    }
+  }
+
+  private byte peek() {
+    if (position >= input.length) {
+      throw malformed("unexpected end of input");
+    }
+    return input[position];
+  }
+
+  private byte next() {
+    final byte current = peek();
+    ++position;
+    return current;
+  }
+
+  private IllegalArgumentException malformed(final String reason) {
+    return new IllegalArgumentException("malformed event JSON at offset " + position + ": " + reason);
+  }
+
+  private void writeValue(final Object value) {
+    if (value == null) {
+      writeBytes(NULL);
+    } else if (value instanceof String) {
+      writeString((String) value);
+    } else if (value instanceof Boolean) {
+      writeBytes((Boolean) value ? TRUE : FALSE);
+    } else if (isNonFinite(value)) {
+      writeBytes(NULL);
+    } else if (value instanceof Number) {
+      writeAscii(value.toString());
+    } else if (value instanceof Map) {
+      writeObject((Map<?, ?>) value);
+    } else if (value instanceof Collection) {
+      writeArray((Collection<?>) value);
+    } else {
+      writeString(value.toString());
+    }
+  }
+
+  private static boolean isNonFinite(final Object value) {
+    if (value instanceof Double) {
+      return !Double.isFinite((Double) value);
+    }
+    return value instanceof Float && !Float.isFinite((Float) value);
+  }
+
+  private void writeObject(final Map<?, ?> object) {
+    writeByte('{');
+    boolean first = true;
+    for (final Map.Entry<?, ?> entry : object.entrySet()) {
+      if (!first) {
+        writeByte(',');
+      }
+      first = false;
+      writeString(String.valueOf(entry.getKey()));
+      writeByte(':');
+      writeValue(entry.getValue());
+    }
+    writeByte('}');
+  }
+
+  private void writeArray(final Collection<?> array) {
+    writeByte('[');
+    boolean first = true;
+    for (final Object element : array) {
+      if (!first) {
+        writeByte(',');
+      }
+      first = false;
+      writeValue(element);
+    }
+    writeByte(']');
+  }
+
+  private void writeString(final String string) {
+    writeByte('"');
+    final int stringLength = string.length();
+    for (int i = 0; i < stringLength; ++i) {
+      final char current = string.charAt(i);
+      if (current == '"' || current == '\\') {
+        writeByte('\\');
+        writeByte(current);
+      } else if (current < FIRST_NON_CONTROL_CHARACTER) {
+        writeControlCharacter(current);
+      } else if (current < 0x80) {
+        writeByte(current);
+      } else if (current < 0x800) {
+        writeByte(0xC0 | (current >> 6));
+        writeByte(0x80 | (current & 0x3F));
+      } else if (Character.isHighSurrogate(current) && i + 1 < stringLength
+          && Character.isLowSurrogate(string.charAt(i + 1))) {
+        final int codePoint = Character.toCodePoint(current, string.charAt(++i));
+        writeByte(0xF0 | (codePoint >> 18));
+        writeByte(0x80 | ((codePoint >> 12) & 0x3F));
+        writeByte(0x80 | ((codePoint >> 6) & 0x3F));
+        writeByte(0x80 | (codePoint & 0x3F));
+      } else if (Character.isSurrogate(current)) {
+        writeUnicodeEscape(current);
+      } else {
+        writeByte(0xE0 | (current >> 12));
+        writeByte(0x80 | ((current >> 6) & 0x3F));
+        writeByte(0x80 | (current & 0x3F));
+      }
+    }
+    writeByte('"');
+  }
+
+  private void writeControlCharacter(final char current) {
+    writeByte('\\');
+    switch (current) {
+      case '\n':
+        writeByte('n');
+        break;
+      case '\r':
+        writeByte('r');
+        break;
+      case '\t':
+        writeByte('t');
+        break;
+      case '\b':
+        writeByte('b');
+        break;
+      case '\f':
+        writeByte('f');
+        break;
+      default:
+        writeByte('u');
+        writeHex(current);
+    }
+  }
+
+  private void writeUnicodeEscape(final char current) {
+    writeByte('\\');
+    writeByte('u');
+    writeHex(current);
+  }
+
+  private void writeHex(final char current) {
+    writeByte(HEX_DIGITS[current >> 12]);
+    writeByte(HEX_DIGITS[(current >> 8) & 0xF]);
+    writeByte(HEX_DIGITS[(current >> 4) & 0xF]);
+    writeByte(HEX_DIGITS[current & 0xF]);
+  }
+
+  private void writeAscii(final String ascii) {
+    final int asciiLength = ascii.length();
+    for (int i = 0; i < asciiLength; ++i) {
+      writeByte(ascii.charAt(i));
+    }
+  }
+
+  private void writeBytes(final byte[] bytes) {
+    for (final byte current : bytes) {
+      writeByte(current);
+    }
+  }
+
+  private void writeByte(final int current) {
+    if (length == output.length) {
+      final byte[] grown = new byte[output.length * 2];
+      System.arraycopy(output, 0, grown, 0, length);
+      output = grown;
+    }
+    output[length++] = (byte) current;
+  }
+}
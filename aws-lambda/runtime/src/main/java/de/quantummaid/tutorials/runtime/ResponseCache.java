@@ -0,0 +1,241 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.runtime;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import java.util.zip.CRC32;
+
+import static de.quantummaid.tutorials.runtime.ApiGatewayEvent.headerOf;
+import static de.quantummaid.tutorials.runtime.ApiGatewayEvent.headerValuesOf;
+import static de.quantummaid.tutorials.runtime.ApiGatewayEvent.methodOf;
+import static de.quantummaid.tutorials.runtime.ApiGatewayEvent.pathOf;
+import static de.quantummaid.tutorials.runtime.ApiGatewayEvent.payloadVersionOf;
+import static de.quantummaid.tutorials.runtime.ApiGatewayEvent.queryOf;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Keeps the encoded responses of idempotent {@code GET} routes, keyed on payload format version, path and
+ * query string (and with that on the route and every parameter extracted from it). The version is part of the
+ * key because a REST API (1.0) and an HTTP API (2.0) response for the same request are encoded differently.
+ *
+ * <p>Only routes accepted by the given predicate are cached, and only their {@code 200} responses.
+ * Every cached response carries an {@code ETag}; a request whose {@code If-None-Match} lists it
+ * (weak or strong) or is {@code *} gets a {@code 304} without a body, which keeps the {@code Vary},
+ * {@code Cache-Control} and {@code Expires} headers of the full response. Entries expire after a fixed time,
+ * and when the encoded size of all entries exceeds the budget, the least recently used ones are evicted
+ * first.</p>
+ */
+public final class ResponseCache {
+  private static final int OK = 200;
+  private static final int NOT_MODIFIED = 304;
+  private static final int INITIAL_CAPACITY = 16;
+  private static final float LOAD_FACTOR = 0.75f;
+  private static final String WEAK_PREFIX = "W/";
+  private static final List<String> NOT_MODIFIED_HEADERS = List.of("Vary", "Cache-Control", "Expires");
+
+  private final Predicate<String> cacheablePaths;
+  private final long maxBytes;
+  private final long timeToLiveNanos;
+  private final LongSupplier nanoClock;
+  private final LinkedHashMap<String, CachedResponse> entries =
+      new LinkedHashMap<>(INITIAL_CAPACITY, LOAD_FACTOR, true);
+  private long bytes;
+
+  private ResponseCache(final Predicate<String> cacheablePaths,
+                        final long maxBytes,
+                        final long timeToLiveNanos,
+                        final LongSupplier nanoClock) {
+    this.cacheablePaths = cacheablePaths;
+    this.maxBytes = maxBytes;
+    this.timeToLiveNanos = timeToLiveNanos;
+    this.nanoClock = nanoClock;
+  }
+
+  public static ResponseCache responseCache(final Predicate<String> cacheablePaths,
+                                            final long maxBytes,
+                                            final Duration timeToLive) {
+    return responseCache(cacheablePaths, maxBytes, timeToLive, System::nanoTime);
+  }
+
+  static ResponseCache responseCache(final Predicate<String> cacheablePaths,
+                                     final long maxBytes,
+                                     final Duration timeToLive,
+                                     final LongSupplier nanoClock) {
+    return new ResponseCache(cacheablePaths, maxBytes, timeToLive.toNanos(), nanoClock);
+  }
+
+  String keyOf(final Map<String, Object> event) {
+    if (!"GET".equals(methodOf(event))) {
+      return null;
+    }
+    final String path = pathOf(event);
+    if (!cacheablePaths.test(path)) {
+      return null;
+    }
+    return payloadVersionOf(event) + ' ' + path + '?' + queryOf(event);
+  }
+
+  synchronized byte[] lookup(final String key, final Map<String, Object> event) {
+    final CachedResponse cached = entries.get(key);
+    if (cached == null) {
+      return null;
+    }
+    if (nanoClock.getAsLong() - cached.storedAt > timeToLiveNanos) {
+      remove(key);
+      return null;
+    }
+    return cached.responseTo(event);
+  }
+
+  byte[] store(final String key, final Map<String, Object> event, final Map<String, Object> response) {
+    if (!String.valueOf(OK).equals(String.valueOf(response.get("statusCode")))) {
+      return null;
+    }
+    final CachedResponse cached = cachedResponse(response, nanoClock.getAsLong());
+    if (cached.size() <= maxBytes) {
+      synchronized (this) {
+        remove(key);
+        entries.put(key, cached);
+        bytes += cached.size();
+        evictLeastRecentlyUsed();
+      }
+    }
+    return cached.responseTo(event);
+  }
+
+  synchronized long bytes() {
+    return bytes;
+  }
+
+  private void evictLeastRecentlyUsed() {
+    final Iterator<CachedResponse> leastRecentlyUsedFirst = entries.values().iterator();
+    while (bytes > maxBytes && leastRecentlyUsedFirst.hasNext()) {
+      bytes -= leastRecentlyUsedFirst.next().size();
+      leastRecentlyUsedFirst.remove();
+    }
+  }
+
+  private void remove(final String key) {
+    final CachedResponse removed = entries.remove(key);
+    if (removed != null) {
+      bytes -= removed.size();
+    }
+  }
+
+  private static CachedResponse cachedResponse(final Map<String, Object> response, final long storedAt) {
+    final String body = String.valueOf(response.getOrDefault("body", ""));
+    final String etag = etagOf(body);
+
+    final Map<String, Object> withEtag = new HashMap<>(response);
+    addHeader(withEtag, "ETag", etag);
+
+    final Map<String, Object> notModified = new HashMap<>();
+    notModified.put("statusCode", NOT_MODIFIED);
+    notModified.put("body", "");
+    notModified.put("isBase64Encoded", false);
+    addHeader(notModified, "ETag", etag);
+    for (final String name : NOT_MODIFIED_HEADERS) {
+      final String value = headerOf(response, name);
+      if (value != null) {
+        addHeader(notModified, name, value);
+      }
+    }
+
+    return new CachedResponse(
+        etag, EventJson.encodeResponse(withEtag), EventJson.encodeResponse(notModified), storedAt);
+  }
+
+  /**
+   * Sets a header in {@code headers} and in {@code multiValueHeaders}, whichever the response has, replacing
+   * every earlier value of it regardless of case. With neither, {@code headers} is created.
+   */
+  @SuppressWarnings("unchecked")
+  static void addHeader(final Map<String, Object> response, final String name, final String value) {
+    final Object multiValueHeaders = response.get("multiValueHeaders");
+    final Object headers = response.get("headers");
+    if (multiValueHeaders instanceof Map) {
+      final Map<String, Object> copy = new HashMap<>((Map<String, Object>) multiValueHeaders);
+      copy.keySet().removeIf(name::equalsIgnoreCase);
+      final List<String> values = new ArrayList<>();
+      values.add(value);
+      copy.put(name, values);
+      response.put("multiValueHeaders", copy);
+    }
+    if (headers instanceof Map || !(multiValueHeaders instanceof Map)) {
+      final Map<String, Object> copy = headers instanceof Map
+          ? new HashMap<>((Map<String, Object>) headers)
+          : new HashMap<>();
+      copy.keySet().removeIf(name::equalsIgnoreCase);
+      copy.put(name, value);
+      response.put("headers", copy);
+    }
+  }
+
+  private static String etagOf(final String body) {
+    final byte[] bytes = body.getBytes(UTF_8);
+    final CRC32 checksum = new CRC32();
+    checksum.update(bytes);
+    return "\"" + Integer.toHexString(bytes.length) + "-" + Long.toHexString(checksum.getValue()) + "\"";
+  }
+
+  private static final class CachedResponse {
+    private final String etag;
+    private final byte[] response;
+    private final byte[] notModified;
+    private final long storedAt;
+
+    private CachedResponse(final String etag, final byte[] response, final byte[] notModified, final long storedAt) {
+      this.etag = etag;
+      this.response = response;
+      this.notModified = notModified;
+      this.storedAt = storedAt;
+    }
+
+    byte[] responseTo(final Map<String, Object> event) {
+      return matchesIfNoneMatch(event) ? notModified : response;
+    }
+
+    private boolean matchesIfNoneMatch(final Map<String, Object> event) {
+      for (final String header : headerValuesOf(event, "If-None-Match")) {
+        for (final String candidate : header.split(",")) {
+          final String tag = candidate.trim();
+          if ("*".equals(tag) || etag.equals(tag.startsWith(WEAK_PREFIX) ? tag.substring(WEAK_PREFIX.length()) : tag)) {
+            return true;
+          }
+        }
+      }
+      return false;
+    }
+
+    long size() {
+      return response.length + notModified.length;
+    }
+  }
+}
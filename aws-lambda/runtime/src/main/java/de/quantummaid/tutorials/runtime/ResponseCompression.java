@@ -0,0 +1,209 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.runtime;
+
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+import static de.quantummaid.tutorials.runtime.ApiGatewayEvent.headerOf;
+import static de.quantummaid.tutorials.runtime.ApiGatewayEvent.headerValuesOf;
+import static de.quantummaid.tutorials.runtime.ResponseCache.addHeader;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Gzips response bodies of at least a minimum size for requests whose {@code Accept-Encoding} allows it.
+ * The compressed body is returned base64 encoded with {@code isBase64Encoded} set, which HTTP APIs decode
+ * before answering the client. REST APIs only do so for their configured {@code binaryMediaTypes} and would
+ * hand the base64 text to the client otherwise, so REST API (payload format 1.0) requests are left alone unless
+ * {@link #withRestApiBinaryMediaTypes()} says the API is configured accordingly.
+ *
+ * <p>Each thread reuses one {@link Deflater} and one output buffer. Bodies below the minimum, bodies that
+ * are already encoded and bodies that would not get smaller are passed through unchanged, but every body
+ * of at least the minimum size carries {@code Vary: Accept-Encoding}, added to any {@code Vary} the response
+ * already has. Both headers go into {@code headers} and {@code multiValueHeaders}, whichever the response
+ * uses. Brotli is not offered: the JDK has no encoder for it.</p>
+ *
+ * <p>The body is deflated in one pass, not streamed: a buffered Lambda response is a single JSON document
+ * holding the whole base64 encoded body, so there is no output to stream the compressed bytes into.</p>
+ */
+public final class ResponseCompression {
+  private static final String GZIP = "gzip";
+  private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+  private static final int GZIP_TRAILER_LENGTH = 8;
+  private static final int INITIAL_BUFFER_SIZE = 8 * 1024;
+  private static final int MAX_RETAINED_BUFFER_SIZE = 1024 * 1024;
+  private static final ThreadLocal<GzipEncoder> ENCODERS = ThreadLocal.withInitial(GzipEncoder::new);
+
+  private static final String ACCEPT_ENCODING = "Accept-Encoding";
+
+  private final int minimumBytes;
+  private final boolean restApiBinaryMediaTypes;
+
+  private ResponseCompression(final int minimumBytes, final boolean restApiBinaryMediaTypes) {
+    this.minimumBytes = minimumBytes;
+    this.restApiBinaryMediaTypes = restApiBinaryMediaTypes;
+  }
+
+  public static ResponseCompression responseCompression(final int minimumBytes) {
+    return new ResponseCompression(minimumBytes, false);
+  }
+
+  /**
+   * Also compresses for REST APIs, whose {@code binaryMediaTypes} have to include the content types of all
+   * compressed responses (or {@code *}{@code /*}).
+   */
+  public ResponseCompression withRestApiBinaryMediaTypes() {
+    return new ResponseCompression(minimumBytes, true);
+  }
+
+  /**
+   * Whether responses to this request may be compressed at all: HTTP API requests always, REST API requests
+   * only with {@link #withRestApiBinaryMediaTypes()}.
+   */
+  public boolean appliesTo(final Map<String, Object> event) {
+    return restApiBinaryMediaTypes || event.containsKey("rawPath") || "2.0".equals(event.get("version"));
+  }
+
+  /**
+   * Returns {@code "gzip"} if the request accepts it, otherwise {@code null}.
+   */
+  public String encodingFor(final Map<String, Object> event) {
+    final String acceptEncoding = headerOf(event, ACCEPT_ENCODING);
+    if (acceptEncoding == null) {
+      return null;
+    }
+    Boolean gzip = null;
+    boolean wildcard = false;
+    for (final String element : acceptEncoding.split(",")) {
+      final String[] parameters = element.split(";");
+      final String coding = parameters[0].trim().toLowerCase(Locale.ROOT);
+      if (GZIP.equals(coding) || "x-gzip".equals(coding)) {
+        gzip = acceptable(parameters);
+      } else if ("*".equals(coding)) {
+        wildcard = acceptable(parameters);
+      }
+    }
+    return (gzip == null ? wildcard : gzip) ? GZIP : null;
+  }
+
+  public Map<String, Object> compress(final Map<String, Object> response, final String encoding) {
+    final Object body = response.get("body");
+    if (body == null || Boolean.TRUE.equals(response.get("isBase64Encoded"))
+        || headerOf(response, "Content-Encoding") != null) {
+      return response;
+    }
+    final byte[] bytes = body.toString().getBytes(UTF_8);
+    if (bytes.length < minimumBytes) {
+      return response;
+    }
+    final Map<String, Object> negotiated = new HashMap<>(response);
+    addVary(negotiated);
+    if (!GZIP.equals(encoding)) {
+      return negotiated;
+    }
+    final byte[] compressed = ENCODERS.get().gzip(bytes);
+    if (compressed.length >= bytes.length) {
+      return negotiated;
+    }
+    negotiated.put("body", Base64.getEncoder().encodeToString(compressed));
+    negotiated.put("isBase64Encoded", true);
+    addHeader(negotiated, "Content-Encoding", GZIP);
+    return negotiated;
+  }
+
+  private static void addVary(final Map<String, Object> response) {
+    final List<String> vary = headerValuesOf(response, "Vary");
+    for (final String value : vary) {
+      for (final String field : value.split(",")) {
+        if (ACCEPT_ENCODING.equalsIgnoreCase(field.trim()) || "*".equals(field.trim())) {
+          return;
+        }
+      }
+    }
+    vary.add(ACCEPT_ENCODING);
+    addHeader(response, "Vary", String.join(", ", vary));
+  }
+
+  private static boolean acceptable(final String[] parameters) {
+    for (int i = 1; i < parameters.length; ++i) {
+      final String parameter = parameters[i].trim();
+      if (parameter.startsWith("q=")) {
+        try {
+          return Double.parseDouble(parameter.substring(2)) > 0;
+        } catch (final NumberFormatException e) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Deflates in chunks into a buffer that grows as needed and frames the result as a gzip member.
+   */
+  private static final class GzipEncoder {
+    private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+    private final CRC32 checksum = new CRC32();
+    private byte[] buffer = new byte[INITIAL_BUFFER_SIZE];
+
+    byte[] gzip(final byte[] input) {
+      deflater.reset();
+      deflater.setInput(input);
+      deflater.finish();
+      checksum.reset();
+      checksum.update(input);
+
+      System.arraycopy(GZIP_HEADER, 0, buffer, 0, GZIP_HEADER.length);
+      int length = GZIP_HEADER.length;
+      while (!deflater.finished()) {
+        if (length == buffer.length) {
+          buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        }
+        length += deflater.deflate(buffer, length, buffer.length - length);
+      }
+      if (length + GZIP_TRAILER_LENGTH > buffer.length) {
+        buffer = Arrays.copyOf(buffer, length + GZIP_TRAILER_LENGTH);
+      }
+      length = writeIntLittleEndian((int) checksum.getValue(), length);
+      length = writeIntLittleEndian(input.length, length);
+
+      final byte[] gzipped = Arrays.copyOf(buffer, length);
+      if (buffer.length > MAX_RETAINED_BUFFER_SIZE) {
+        buffer = new byte[INITIAL_BUFFER_SIZE];
+      }
+      return gzipped;
+    }
+
+    private int writeIntLittleEndian(final int value, final int offset) {
+      for (int i = 0; i < Integer.BYTES; ++i) {
+        buffer[offset + i] = (byte) (value >>> (Byte.SIZE * i));
+      }
+      return offset + Integer.BYTES;
+    }
+  }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.runtime;
+
+import de.quantummaid.tutorials.Main;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static de.quantummaid.tutorials.runtime.ResponseCompression.responseCompression;
+import static de.quantummaid.tutorials.runtime.RuntimeApiClient.runtimeApiClient;
+import static de.quantummaid.tutorials.runtime.StreamHandler.streamHandler;
+import static de.quantummaid.tutorials.runtime.WarmUp.warmUp;
+
+/**
+ * Entry point of the native executable that is deployed as the {@code bootstrap} of a custom runtime
+ * ({@code template-native.yml}). Without a managed runtime in between, it fetches every invocation from the
+ * Lambda Runtime API itself and passes the raw event through a {@link StreamHandler} with the response compression
+ * of {@link StreamingMain}, but without its response cache.
+ *
+ * <p>A failing initialization is reported to the Runtime API as an init error before the process exits, a
+ * failing invocation as the error of that invocation; both with the {@code errorMessage}/{@code errorType}
+ * payload Lambda expects. A response the Runtime API rejects with a {@code 4xx}, such as {@code 413} for one
+ * above the payload limit, is reported as the error of its invocation as well, and the next invocation is
+ * served. Only when the Runtime API itself fails does the loop end.</p>
+ *
+ * <p>The Runtime API is talked to over a single connection by a {@link RuntimeApiClient}, which hands the event
+ * bytes to the handler straight from its input buffer. The response buffer is reused for every invocation.</p>
+ */
+public final class RuntimeApiBootstrap {
+  static final String RESPONSE_REJECTED = "Runtime.ResponseRejected";
+
+  private RuntimeApiBootstrap() {
+  }
+
+  public static void main(final String[] args) throws IOException {
+    final String runtimeApi = System.getenv("AWS_LAMBDA_RUNTIME_API");
+    if (runtimeApi == null) {
+      throw new IllegalStateException("AWS_LAMBDA_RUNTIME_API is not set - this executable only runs inside Lambda");
+    }
+    try (RuntimeApiClient client = runtimeApiClient(runtimeApi)) {
+      serveInvocations(client, initialize(client, RuntimeApiBootstrap::warmedUpHandler));
+    }
+  }
+
+  /**
+   * Serves the invocations of the Runtime API at {@code runtimeApi} ({@code host:port}) through {@code handler}
+   * until the connection to it fails or it answers with neither {@code 202} nor a {@code 4xx}. A
+   * {@link RuntimeException} of the handler is reported as the error of its invocation.
+   */
+  public static void serveInvocations(final String runtimeApi, final StreamHandler handler) throws IOException {
+    try (RuntimeApiClient client = runtimeApiClient(runtimeApi)) {
+      serveInvocations(client, handler);
+    }
+  }
+
+  /**
+   * Runs {@code initialization} and reports a failure as init error before passing it on.
+   */
+  static StreamHandler initialize(final RuntimeApiClient client,
+                                  final Supplier<StreamHandler> initialization) throws IOException {
+    try {
+      return initialization.get();
+    } catch (final RuntimeException | LinkageError e) {
+      final ByteArrayOutputStream error = new ByteArrayOutputStream();
+      error.write(errorOf(e));
+      client.failInitialization(e.getClass().getName(), error);
+      throw e;
+    }
+  }
+
+  static byte[] errorOf(final Throwable throwable) {
+    return errorOf(String.valueOf(throwable.getMessage()), throwable.getClass().getName());
+  }
+
+  private static byte[] errorOf(final String message, final String type) {
+    return EventJson.encodeResponse(Map.of("errorMessage", message, "errorType", type));
+  }
+
+  private static StreamHandler warmedUpHandler() {
+    final StreamHandler handler = streamHandler(new Main())
+        .withCompression(responseCompression(StreamingMain.COMPRESSION_MINIMUM_BYTES));
+    warmUp(StreamingMain.WARMUP_PATH).replayThrough(handler);
+    return handler;
+  }
+
+  private static void serveInvocations(final RuntimeApiClient client, final StreamHandler handler) throws IOException {
+    final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    while (true) {
+      final String requestId = client.nextInvocation();
+      output.reset();
+      try {
+        handler.handle(client.event(), output);
+      } catch (final RuntimeException e) {
+        output.reset();
+        output.write(errorOf(e));
+        client.fail(requestId, e.getClass().getName(), output);
+        continue;
+      }
+      final int status = client.respond(requestId, output);
+      if (status != RuntimeApiClient.ACCEPTED) {
+        final int size = output.size();
+        output.reset();
+        output.write(errorOf("the Runtime API rejected the response of " + size + " bytes with " + status,
+            RESPONSE_REJECTED));
+        client.fail(requestId, RESPONSE_REJECTED, output);
+      }
+    }
+  }
+}
@@ -0,0 +1,287 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.runtime;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.Arrays;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+/**
+ * Just enough HTTP/1.1 for the Lambda Runtime API. All invocations share one keep-alive connection and the same
+ * buffers: an event is read into the input buffer and handed out from there, a response is written from the
+ * caller's {@link ByteArrayOutputStream} without copying it first.
+ *
+ * <p>Only what the Runtime API sends is understood, i.e. responses with a {@code Content-Length}.</p>
+ *
+ * <p>A {@code 4xx} answer to a post rejects that one request, for example a response above the size limit, and is
+ * returned to the caller. Any other answer except {@code 202} means the runtime cannot continue and is thrown as an
+ * {@link IOException}.</p>
+ */
+final class RuntimeApiClient implements AutoCloseable {
+  private static final String INVOCATION_PATH = "/2018-06-01/runtime/invocation/";
+  private static final String INIT_ERROR_PATH = "/2018-06-01/runtime/init/error";
+  private static final int INITIAL_BUFFER_SIZE = 64 * 1024;
+  private static final int OUTPUT_BUFFER_SIZE = 64 * 1024;
+  private static final byte[] HEADER_END = {'\r', '\n', '\r', '\n'};
+  private static final byte[] CONTENT_LENGTH = "content-length:".getBytes(US_ASCII);
+  private static final byte[] REQUEST_ID = "lambda-runtime-aws-request-id:".getBytes(US_ASCII);
+  private static final int STATUS_OFFSET = "HTTP/1.1 ".length();
+  private static final int STATUS_DIGITS = 3;
+  private static final int CASE_BIT = 0x20;
+  private static final int DECIMAL = 10;
+  static final int ACCEPTED = 202;
+  private static final int OK = 200;
+  private static final int CLIENT_ERRORS = 400;
+  private static final int SERVER_ERRORS = 500;
+
+  private final String host;
+  private final int port;
+  private final byte[] nextRequest;
+  private Socket socket;
+  private InputStream input;
+  private OutputStream output;
+  private byte[] buffer = new byte[INITIAL_BUFFER_SIZE];
+  private int start;
+  private int end;
+  private int bodyStart;
+  private int bodyLength;
+  private String requestId;
+
+  private RuntimeApiClient(final String host, final int port) {
+    this.host = host;
+    this.port = port;
+    this.nextRequest = ("GET " + INVOCATION_PATH + "next HTTP/1.1\r\nHost: " + host + "\r\n\r\n").getBytes(US_ASCII);
+  }
+
+  /**
+   * Connects to the Runtime API at {@code runtimeApi}, given as {@code host:port} like in
+   * {@code AWS_LAMBDA_RUNTIME_API}.
+   */
+  static RuntimeApiClient runtimeApiClient(final String runtimeApi) throws IOException {
+    final int colon = runtimeApi.lastIndexOf(':');
+    if (colon < 0) {
+      throw new IllegalArgumentException("expected host:port but got " + runtimeApi);
+    }
+    final RuntimeApiClient client = new RuntimeApiClient(
+        runtimeApi.substring(0, colon), Integer.parseInt(runtimeApi.substring(colon + 1)));
+    client.connect();
+    return client;
+  }
+
+  /**
+   * Waits for the next invocation and returns its request id. Its event stays available from {@link #event()}
+   * until the next call of any other method.
+   */
+  String nextInvocation() throws IOException {
+    int status;
+    try {
+      output.write(nextRequest);
+      output.flush();
+      status = readResponse();
+    } catch (final EOFException | SocketException e) {
+      // the connection was closed or reset while it was idle, which is no reason to give up yet
+      connect();
+      output.write(nextRequest);
+      output.flush();
+      status = readResponse();
+    }
+    if (status != OK || requestId == null) {
+      throw new IOException("Runtime API answered " + status + " without a request id to the poll for the next "
+          + "invocation");
+    }
+    return requestId;
+  }
+
+  InputStream event() {
+    return new ByteArrayInputStream(buffer, bodyStart, bodyLength);
+  }
+
+  /**
+   * Posts the response of an invocation and returns {@link #ACCEPTED} or the {@code 4xx} it was rejected with.
+   */
+  int respond(final String invocation, final ByteArrayOutputStream response) throws IOException {
+    return post(INVOCATION_PATH + invocation + "/response", null, response);
+  }
+
+  /**
+   * Posts the error of an invocation and returns {@link #ACCEPTED} or the {@code 4xx} it was rejected with.
+   */
+  int fail(final String invocation, final String errorType, final ByteArrayOutputStream error) throws IOException {
+    return post(INVOCATION_PATH + invocation + "/error", errorType, error);
+  }
+
+  int failInitialization(final String errorType, final ByteArrayOutputStream error) throws IOException {
+    return post(INIT_ERROR_PATH, errorType, error);
+  }
+
+  @Override
+  public void close() throws IOException {
+    socket.close();
+  }
+
+  private void connect() throws IOException {
+    if (socket != null) {
+      socket.close();
+    }
+    socket = new Socket(host, port);
+    socket.setTcpNoDelay(true);
+    input = socket.getInputStream();
+    output = new BufferedOutputStream(socket.getOutputStream(), OUTPUT_BUFFER_SIZE);
+    start = 0;
+    end = 0;
+  }
+
+  private int post(final String path,
+                   final String errorType,
+                   final ByteArrayOutputStream body) throws IOException {
+    writeAscii("POST " + path + " HTTP/1.1\r\nHost: " + host + "\r\nContent-Type: application/json\r\n"
+        + "Content-Length: " + body.size() + "\r\n");
+    if (errorType != null) {
+      writeAscii("Lambda-Runtime-Function-Error-Type: " + errorType + "\r\n");
+    }
+    writeAscii("\r\n");
+    body.writeTo(output);
+    output.flush();
+    final int status = readResponse();
+    if (status != ACCEPTED && (status < CLIENT_ERRORS || status >= SERVER_ERRORS)) {
+      throw new IOException("Runtime API answered " + status + " to " + path);
+    }
+    return status;
+  }
+
+  private void writeAscii(final String text) throws IOException {
+    for (int i = 0; i < text.length(); ++i) {
+      output.write(text.charAt(i));
+    }
+  }
+
+  private int readResponse() throws IOException {
+    if (start == end) {
+      start = 0;
+      end = 0;
+    }
+    int headerEnd = indexOfHeaderEnd();
+    while (headerEnd < 0) {
+      fill();
+      headerEnd = indexOfHeaderEnd();
+    }
+    bodyStart = headerEnd + HEADER_END.length;
+    bodyLength = 0;
+    requestId = null;
+    int line = start;
+    while (line < headerEnd) {
+      final int lineEnd = indexOf('\r', line, headerEnd);
+      if (startsWithIgnoringCase(line, lineEnd, CONTENT_LENGTH)) {
+        bodyLength = parseLength(line + CONTENT_LENGTH.length, lineEnd);
+      } else if (startsWithIgnoringCase(line, lineEnd, REQUEST_ID)) {
+        requestId = new String(buffer, line + REQUEST_ID.length, lineEnd - line - REQUEST_ID.length, US_ASCII)
+            .trim();
+      }
+      line = lineEnd + 2;
+    }
+    int status = 0;
+    for (int i = start + STATUS_OFFSET; i < start + STATUS_OFFSET + STATUS_DIGITS; ++i) {
+      status = status * DECIMAL + buffer[i] - '0';
+    }
+    while (end < bodyStart + bodyLength) {
+      fill();
+    }
+    start = bodyStart + bodyLength;
+    return status;
+  }
+
+  /**
+   * Reads more of the connection into the buffer. Bytes before {@code start} belong to responses that were already
+   * handled and are dropped to make room.
+   */
+  private void fill() throws IOException {
+    if (end == buffer.length) {
+      if (start > 0) {
+        System.arraycopy(buffer, start, buffer, 0, end - start);
+        bodyStart -= start;
+        end -= start;
+        start = 0;
+      } else {
+        buffer = Arrays.copyOf(buffer, buffer.length * 2);
+      }
+    }
+    final int read = input.read(buffer, end, buffer.length - end);
+    if (read < 0) {
+      if (end == start) {
+        throw new EOFException("Runtime API closed the connection");
+      }
+      throw new IOException("Runtime API closed the connection in the middle of a response");
+    }
+    end += read;
+  }
+
+  private int indexOfHeaderEnd() {
+    for (int i = start; i <= end - HEADER_END.length; ++i) {
+      if (buffer[i] == '\r' && buffer[i + 1] == '\n' && buffer[i + 2] == '\r' && buffer[i + 3] == '\n') {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  private int indexOf(final char character, final int from, final int to) {
+    for (int i = from; i < to; ++i) {
+      if (buffer[i] == character) {
+        return i;
+      }
+    }
+    return to;
+  }
+
+  private int parseLength(final int from, final int to) throws IOException {
+    int value = 0;
+    for (int i = from; i < to; ++i) {
+      if (buffer[i] >= '0' && buffer[i] <= '9') {
+        value = value * DECIMAL + buffer[i] - '0';
+      } else if (buffer[i] != ' ') {
+        throw new IOException("invalid Content-Length from the Runtime API");
+      }
+    }
+    return value;
+  }
+
+  private boolean startsWithIgnoringCase(final int position, final int lineEnd, final byte[] lowerCase) {
+    if (lineEnd - position < lowerCase.length) {
+      return false;
+    }
+    for (int i = 0; i < lowerCase.length; ++i) {
+      if ((buffer[position + i] | CASE_BIT) != lowerCase[i]) {
+        return false;
+      }
+    }
+    return true;
+  }
+}
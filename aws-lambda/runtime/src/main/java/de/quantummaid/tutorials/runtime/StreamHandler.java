@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.runtime;
+
+import de.quantummaid.tutorials.Main;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Map;
+
+/**
+ * The request path behind {@link StreamingMain}: raw event bytes in, {@link Main#handleRequest(Map)}
+ * in the middle, encoded response bytes out. Optional stages are added with the {@code with...} methods.
+ */
+public final class StreamHandler {
+  private final Main main;
+  private final ResponseCache responseCache;
+  private final ResponseCompression compression;
+
+  private StreamHandler(final Main main, final ResponseCache responseCache, final ResponseCompression compression) {
+    this.main = main;
+    this.responseCache = responseCache;
+    this.compression = compression;
+  }
+
+  public static StreamHandler streamHandler(final Main main) {
+    return new StreamHandler(main, null, null);
+  }
+
+  public StreamHandler withResponseCache(final ResponseCache cache) {
+    return new StreamHandler(main, cache, compression);
+  }
+
+  StreamHandler withoutResponseCache() {
+    return new StreamHandler(main, null, compression);
+  }
+
+  /**
+   * Combined with a response cache, every encoding is cached on its own, so a cache hit serves the
+   * already compressed bytes.
+   */
+  public StreamHandler withCompression(final ResponseCompression responseCompression) {
+    return new StreamHandler(main, responseCache, responseCompression);
+  }
+
+  public void handle(final InputStream input, final OutputStream output) throws IOException {
+    final Map<String, Object> event = EventJson.readEvent(input);
+    final boolean compressing = compression != null && compression.appliesTo(event);
+    final String encoding = compressing ? compression.encodingFor(event) : null;
+    final String cacheKey = cacheKeyOf(event, encoding);
+    if (cacheKey == null) {
+      EventJson.writeResponse(invoke(event, compressing, encoding), output);
+      return;
+    }
+    byte[] encoded = responseCache.lookup(cacheKey, event);
+    if (encoded == null) {
+      final Map<String, Object> response = invoke(event, compressing, encoding);
+      encoded = responseCache.store(cacheKey, event, response);
+      if (encoded == null) {
+        EventJson.writeResponse(response, output);
+        return;
+      }
+    }
+    output.write(encoded);
+    output.flush();
+  }
+
+  private Map<String, Object> invoke(final Map<String, Object> event,
+                                     final boolean compressing,
+                                     final String encoding) {
+    final Map<String, Object> response = main.handleRequest(event);
+    return compressing ? compression.compress(response, encoding) : response;
+  }
+
+  private String cacheKeyOf(final Map<String, Object> event, final String encoding) {
+    final String key = responseCache == null ? null : responseCache.keyOf(event);
+    return key == null || encoding == null ? key : key + ' ' + encoding;
+  }
+}
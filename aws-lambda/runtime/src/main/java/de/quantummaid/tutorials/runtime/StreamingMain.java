@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.runtime;
+
+import de.quantummaid.tutorials.Main;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.time.Duration;
+
+import static de.quantummaid.tutorials.runtime.ResponseCache.responseCache;
+import static de.quantummaid.tutorials.runtime.ResponseCompression.responseCompression;
+import static de.quantummaid.tutorials.runtime.StreamHandler.streamHandler;
+import static de.quantummaid.tutorials.runtime.WarmUp.warmUp;
+
+/**
+ * Stream handler entry point for the step4 function
+ * ({@code Handler: de.quantummaid.tutorials.runtime.StreamingMain::handleRequest}, deployed by this module's
+ * {@code template.yml}).
+ *
+ * <p>With {@link Main}, the managed runtime deserializes the event into a generic {@code Map} and serializes the
+ * returned {@code Map} again with its own reflective JSON mapper. Here the runtime passes the raw event bytes
+ * and {@link EventJson} takes care of both directions.</p>
+ *
+ * <p>{@code /hello/<whoever-you-are>} is a pure function of its path, so its responses are served from a
+ * {@link ResponseCache} for as long as the execution environment lives. Bodies of a kilobyte and more are
+ * gzipped for clients that accept it ({@link ResponseCompression}).</p>
+ *
+ * <p>The static initializer warms up the adapter together with the event decoding and response encoding
+ * around it ({@link WarmUp}).</p>
+ */
+public final class StreamingMain {
+  static final String WARMUP_PATH = "/hello/warm-up";
+  static final int COMPRESSION_MINIMUM_BYTES = 1024;
+  private static final long RESPONSE_CACHE_BYTES = 4 * 1024 * 1024;
+  private static final Duration RESPONSE_CACHE_TIME_TO_LIVE = Duration.ofMinutes(10);
+  private static final StreamHandler HANDLER = streamHandler(new Main())
+      .withResponseCache(responseCache(
+          path -> path.startsWith("/hello/"), RESPONSE_CACHE_BYTES, RESPONSE_CACHE_TIME_TO_LIVE))
+      .withCompression(responseCompression(COMPRESSION_MINIMUM_BYTES));
+
+  static {
+    warmUp(WARMUP_PATH).replayThrough(HANDLER);
+  }
+
+  public StreamingMain() {
+    // the AWS Lambda Java runtime requires a public no-args constructor
+  }
+
+  public void handleRequest(final InputStream input, final OutputStream output) throws IOException {
+    HANDLER.handle(input, output);
+  }
+}
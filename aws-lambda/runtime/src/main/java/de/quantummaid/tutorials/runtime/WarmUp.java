@@ -0,0 +1,196 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.runtime;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static de.quantummaid.tutorials.events.ApiGatewayEvents.httpApiGetEvent;
+import static de.quantummaid.tutorials.events.ApiGatewayEvents.restApiGetEvent;
+
+/**
+ * Replays synthetic {@code GET} requests for the given paths before the first real request arrives, so that
+ * class loading, lazily built HttpMaid internals and the JIT compilation of the request path are paid during
+ * initialization. Lambda runs the static initializers of the handler class in its init phase, which is where
+ * {@link WarmedUpMain} and {@link StreamingMain} call this; with provisioned concurrency that happens before the
+ * environment receives any traffic at all. {@link RuntimeApiBootstrap} calls it before polling for the first
+ * invocation, {@link WarmedUpLocalMain} before the local endpoint serves its first request.
+ *
+ * <p>Each path is replayed {@code WARMUP_ITERATIONS} times (an environment variable, default
+ * {@value #DEFAULT_ITERATIONS}; {@code 0} turns the warm-up off, a value that is not a non-negative number is
+ * reported and replaced by the default), once as a REST API event and once as an HTTP API event, because
+ * HttpMaid translates the two payload formats on different code paths. A path that does not answer with a 2xx
+ * status or throws is reported on stderr and not replayed further - a failing warm-up never fails the
+ * initialization.</p>
+ */
+public final class WarmUp {
+  private static final int DEFAULT_ITERATIONS = 1000;
+  private static final int STATUS_CODE_LENGTH = 3;
+  private static final String ITERATIONS_VARIABLE = "WARMUP_ITERATIONS";
+  private static final int CONNECT_ATTEMPTS = 100;
+  private static final long CONNECT_RETRY_MILLIS = 50;
+
+  private final List<String> paths;
+  private final int iterations;
+
+  private WarmUp(final List<String> paths, final int iterations) {
+    this.paths = paths;
+    this.iterations = iterations;
+  }
+
+  public static WarmUp warmUp(final String... paths) {
+    return new WarmUp(List.of(paths), iterationsFrom(System.getenv(ITERATIONS_VARIABLE)));
+  }
+
+  public WarmUp withIterations(final int iterationsPerPath) {
+    return new WarmUp(paths, iterationsPerPath);
+  }
+
+  /**
+   * Replays the requests through an in-process handler such as {@code AwsLambdaEndpoint::delegate}.
+   */
+  public void replayThrough(final Function<Map<String, Object>, Map<String, Object>> handler) {
+    for (final String path : paths) {
+      for (final Map<String, Object> event : List.of(restApiGetEvent(path), httpApiGetEvent(path))) {
+        for (int i = 0; i < iterations; ++i) {
+          final Object statusCode;
+          try {
+            statusCode = handler.apply(event).get("statusCode");
+          } catch (final RuntimeException e) {
+            warn(path, e);
+            break;
+          }
+          if (!isSuccessful(String.valueOf(statusCode))) {
+            warn(path, statusCode);
+            break;
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Replays the requests as raw event bytes, which also warms up {@link EventJson} and any response compression.
+   * The response cache is bypassed: a cache hit would skip the adapter after the first iteration, and the
+   * warm-up response would stay cached for as long as the environment lives.
+   */
+  public void replayThrough(final StreamHandler handler) {
+    final StreamHandler uncached = handler.withoutResponseCache();
+    final ByteArrayOutputStream output = new ByteArrayOutputStream();
+    for (final String path : paths) {
+      for (final Map<String, Object> event : List.of(restApiGetEvent(path), httpApiGetEvent(path))) {
+        final byte[] encodedEvent = EventJson.encodeResponse(event);
+        for (int i = 0; i < iterations; ++i) {
+          output.reset();
+          final Object statusCode;
+          try {
+            uncached.handle(new ByteArrayInputStream(encodedEvent), output);
+            statusCode = EventJson.parseEvent(output.toByteArray()).get("statusCode");
+          } catch (final IOException | RuntimeException e) {
+            warn(path, e);
+            break;
+          }
+          if (!isSuccessful(String.valueOf(statusCode))) {
+            warn(path, statusCode);
+            break;
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Replays the requests over HTTP against an endpoint that was just started with
+   * {@code withLocalHostEndpointOnPort(port).runAsynchronously()}, retrying until it accepts connections.
+   */
+  public void replayAgainstLocalEndpoint(final int port) {
+    final HttpClient client = HttpClient.newBuilder()
+        .version(HttpClient.Version.HTTP_1_1)
+        .connectTimeout(Duration.ofSeconds(1))
+        .build();
+    try {
+      for (final String path : paths) {
+        final HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).GET().build();
+        for (int i = 0; i < iterations; ++i) {
+          final int status = send(client, request);
+          if (!isSuccessful(String.valueOf(status))) {
+            warn(path, status);
+            break;
+          }
+        }
+      }
+    } catch (final IOException | RuntimeException e) {
+      warn(paths.toString(), e);
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static int send(final HttpClient client, final HttpRequest request)
+      throws IOException, InterruptedException {
+    for (int attempt = 1; ; ++attempt) {
+      try {
+        return client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+      } catch (final ConnectException e) {
+        if (attempt == CONNECT_ATTEMPTS) {
+          throw e;
+        }
+        Thread.sleep(CONNECT_RETRY_MILLIS);
+      }
+    }
+  }
+
+  static int iterationsFrom(final String configured) {
+    if (configured == null) {
+      return DEFAULT_ITERATIONS;
+    }
+    try {
+      final int iterations = Integer.parseInt(configured.trim());
+      if (iterations >= 0) {
+        return iterations;
+      }
+    } catch (final NumberFormatException e) {
+      // reported below
+    }
+    System.err.println("ignoring " + ITERATIONS_VARIABLE + "=" + configured + ", warming up with "
+        + DEFAULT_ITERATIONS + " iterations");
+    return DEFAULT_ITERATIONS;
+  }
+
+  private static boolean isSuccessful(final String statusCode) {
+    return statusCode.length() == STATUS_CODE_LENGTH && statusCode.charAt(0) == '2';
+  }
+
+  private static void warn(final String path, final Object reason) {
+    System.err.println("warm-up of " + path + " stopped: " + reason);
+  }
+}
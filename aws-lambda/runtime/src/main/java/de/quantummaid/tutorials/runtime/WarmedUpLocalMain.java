@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.runtime;
+
+import de.quantummaid.tutorials.Main;
+
+import static de.quantummaid.tutorials.runtime.WarmUp.warmUp;
+
+/**
+ * {@link Main#main(String[])}, the step4 function served by QuantumMaid's local endpoint, with the endpoint
+ * warmed up over HTTP before this method returns. Requests that arrive meanwhile are served, just not yet at
+ * steady-state speed.
+ */
+public final class WarmedUpLocalMain {
+  /**
+   * The port {@link Main#main(String[])} starts the local endpoint on.
+   */
+  private static final int PORT = 8080;
+
+  private WarmedUpLocalMain() {
+  }
+
+  public static void main(final String[] args) {
+    Main.main(args);
+    warmUp(StreamingMain.WARMUP_PATH).replayAgainstLocalEndpoint(PORT);
+  }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.runtime;
+
+import de.quantummaid.tutorials.Main;
+
+import java.util.Map;
+
+import static de.quantummaid.tutorials.runtime.WarmUp.warmUp;
+
+/**
+ * {@link Main} for the managed runtime, with its adapter warmed up during initialization
+ * ({@code Handler: de.quantummaid.tutorials.runtime.WarmedUpMain::handleRequest}). With SnapStart, the warmed-up
+ * state is part of the snapshot.
+ */
+public final class WarmedUpMain {
+  private static final Main MAIN = new Main();
+
+  static {
+    warmUp(StreamingMain.WARMUP_PATH).replayThrough(MAIN::handleRequest);
+  }
+
+  public WarmedUpMain() {
+    // the AWS Lambda Java runtime requires a public no-args constructor
+  }
+
+  public Map<String, Object> handleRequest(final Map<String, Object> request) {
+    return MAIN.handleRequest(request);
+  }
+}
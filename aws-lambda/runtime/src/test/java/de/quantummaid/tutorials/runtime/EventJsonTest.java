@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.runtime;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static de.quantummaid.tutorials.runtime.EventJson.encodeResponse;
+import static de.quantummaid.tutorials.runtime.EventJson.parseEvent;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class EventJsonTest {
+
+  @Test
+  public void testEscapesAreDecoded() {
+    final Map<String, Object> event = parse("{\"s\": \"a\\\"b\\\\c\\/d\\b\\f\\n\\r\\t\\u00e9\"}");
+    assertEquals("a\"b\\c/d\b\f\n\r\t\u00e9", event.get("s"));
+  }
+
+  @Test
+  public void testStringsSurviveARoundTrip() {
+    final String string = "quote \" backslash \\ control \u0001\n\t umlaut \u00e4 euro \u20ac emoji \uD83D\uDE00";
+    assertEquals(Map.of("s", string), parseEvent(encodeResponse(Map.of("s", string))));
+  }
+
+  @Test
+  public void testEscapedSurrogatePairsAreCombined() {
+    assertEquals("\uD83D\uDE00", parse("{\"s\": \"\\ud83d\\ude00\"}").get("s"));
+  }
+
+  @Test
+  public void testUnpairedSurrogatesAreEscapedAndTheOutputIsValidUtf8() throws CharacterCodingException {
+    final String string = "lone \uD83D high, lone \uDE00 low, reversed \uDE00\uD83D";
+    final byte[] encoded = encodeResponse(Map.of("s", string));
+    UTF_8.newDecoder().decode(ByteBuffer.wrap(encoded));
+    assertEquals("{\"s\":\"lone \\ud83d high, lone \\ude00 low, reversed \\ude00\\ud83d\"}",
+        new String(encoded, UTF_8));
+    assertEquals(string, parseEvent(encoded).get("s"));
+  }
+
+  @Test
+  public void testNumbersUseTheSmallestFittingType() {
+    final Map<String, Object> event = parse(
+        "{\"int\": -42, \"zero\": 0, \"long\": 4294967296, \"big\": 123456789012345678901234567890,"
+            + " \"fraction\": 1.5, \"exponent\": -2E-3, \"both\": 0.5e+1}");
+    assertEquals(-42, event.get("int"));
+    assertEquals(0, event.get("zero"));
+    assertEquals(4294967296L, event.get("long"));
+    assertEquals(new BigInteger("123456789012345678901234567890"), event.get("big"));
+    assertEquals(1.5, event.get("fraction"));
+    assertEquals(-0.002, event.get("exponent"));
+    assertEquals(5.0, event.get("both"));
+  }
+
+  @Test
+  public void testInvalidNumbersAreRejected() {
+    for (final String number : List.of("01", "1.", ".5", "-", "+1", "1e", "1e+", "--1", "1-2", "0x10")) {
+      assertThrows(IllegalArgumentException.class, () -> parse("{\"n\": " + number + "}"), number);
+    }
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testNestedStructuresAreParsed() {
+    final Map<String, Object> event = parse(
+        "{ \"a\" : [ 1 , { \"b\" : [ ] , \"c\" : { } } , null , true , false ] , \"d\" : \"\" }");
+    final List<Object> array = (List<Object>) event.get("a");
+    assertEquals(5, array.size());
+    assertEquals(Map.of("b", List.of(), "c", Map.of()), array.get(1));
+    assertNull(array.get(2));
+    assertEquals(true, array.get(3));
+    assertEquals(false, array.get(4));
+    assertEquals("", event.get("d"));
+  }
+
+  @Test
+  public void testNestedStructuresSurviveARoundTrip() {
+    final Map<String, Object> inner = new HashMap<>();
+    inner.put("list", List.of(1, "two", 3.5, true));
+    inner.put("nothing", null);
+    final Map<String, Object> response = Map.of("statusCode", 200, "inner", inner, "empty", Map.of());
+    assertEquals(response, parseEvent(encodeResponse(response)));
+  }
+
+  @Test
+  public void testMalformedInputIsRejected() {
+    for (final String json : List.of(
+        "", "[]", "\"event\"", "{", "{\"a\"}", "{\"a\" 1}", "{\"a\": 1,}", "{\"a\": 1} {}", "{a: 1}",
+        "{\"a\": tru}", "{\"a\": nul}", "{\"a\": \"unterminated}", "{\"a\": \"\\x\"}", "{\"a\": \"\\u12\"}",
+        "{\"a\": \"\\uzzzz\"}", "{\"a\": \"\\u+0e9\"}", "{\"a\": \"\\u-0e9\"}", "{\"a\": \"\\u00e\"}",
+        "{\"a\": [1 2]}", "{\"a\": [1,}")) {
+      assertThrows(IllegalArgumentException.class, () -> parse(json), json);
+    }
+  }
+
+  @Test
+  public void testNonFiniteNumbersAreWrittenAsNull() {
+    final List<Object> values = List.of(Double.NaN, Double.POSITIVE_INFINITY, Float.NEGATIVE_INFINITY, 1.5);
+    final byte[] encoded = encodeResponse(Map.of("values", values));
+    assertEquals("{\"values\":[null,null,null,1.5]}", new String(encoded, UTF_8));
+  }
+
+  @Test
+  public void testLargeResponsesAreEncodedCompletely() {
+    final String body = "x".repeat(3 * 1024 * 1024);
+    assertEquals(body, parseEvent(encodeResponse(Map.of("body", body))).get("body"));
+    assertEquals("small", parseEvent(encodeResponse(Map.of("body", "small"))).get("body"));
+  }
+
+  private static Map<String, Object> parse(final String json) {
+    return parseEvent(json.getBytes(UTF_8));
+  }
+}
@@ -0,0 +1,283 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.runtime;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+/**
+ * A stand-in for the Lambda Runtime API on a free local port, so that a runtime can be run without Lambda.
+ * {@link #invoke(byte[])} queues an event for {@code GET /2018-06-01/runtime/invocation/next} and completes once
+ * the runtime posted the response or the error for it. An error posted to {@code /2018-06-01/runtime/init/error}
+ * completes {@link #initError()}. {@link #rejectNextResponse(String)} answers the next posted response with the
+ * given status instead of accepting it.
+ */
+public final class LocalRuntimeApi implements AutoCloseable {
+  private static final String INVOCATION_PATH = "/2018-06-01/runtime/invocation/";
+  private static final String INIT_ERROR_PATH = "/2018-06-01/runtime/init/error";
+  private static final String NEXT = "next";
+  private static final String RESPONSE = "/response";
+  private static final String ERROR = "/error";
+  private static final long DEADLINE_MILLIS = 30_000;
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private final ServerSocket serverSocket;
+  private final BlockingQueue<Invocation> pending = new LinkedBlockingQueue<>();
+  private final Map<String, CompletableFuture<Result>> inFlight = new ConcurrentHashMap<>();
+  private final List<Socket> connections = new CopyOnWriteArrayList<>();
+  private final AtomicInteger connectionsAccepted = new AtomicInteger();
+  private final CompletableFuture<Result> initError = new CompletableFuture<>();
+  private final AtomicReference<String> nextResponseRejection = new AtomicReference<>();
+
+  private LocalRuntimeApi(final ServerSocket serverSocket) {
+    this.serverSocket = serverSocket;
+  }
+
+  public static LocalRuntimeApi startLocalRuntimeApi() throws IOException {
+    final LocalRuntimeApi runtimeApi = new LocalRuntimeApi(new ServerSocket(0, 0, InetAddress.getLoopbackAddress()));
+    final Thread acceptor = new Thread(runtimeApi::accept, "local-runtime-api");
+    acceptor.setDaemon(true);
+    acceptor.start();
+    return runtimeApi;
+  }
+
+  /**
+   * The value for {@code AWS_LAMBDA_RUNTIME_API}.
+   */
+  public String address() {
+    return "localhost:" + serverSocket.getLocalPort();
+  }
+
+  public CompletableFuture<Result> invoke(final byte[] event) {
+    final Invocation invocation = new Invocation(UUID.randomUUID().toString(), event);
+    final CompletableFuture<Result> result = new CompletableFuture<>();
+    inFlight.put(invocation.requestId, result);
+    pending.add(invocation);
+    return result;
+  }
+
+  public CompletableFuture<Result> initError() {
+    return initError;
+  }
+
+  /**
+   * Answers the next posted response with {@code status}, e.g. {@code "413 Request Entity Too Large"}, and leaves
+   * its invocation waiting for another post.
+   */
+  public void rejectNextResponse(final String status) {
+    nextResponseRejection.set(status);
+  }
+
+  public int connectionsAccepted() {
+    return connectionsAccepted.get();
+  }
+
+  /**
+   * Closes the connections of the runtime, like an idle connection that was dropped by the network.
+   */
+  public void closeConnections() throws IOException {
+    for (final Socket connection : connections) {
+      connection.close();
+    }
+  }
+
+  /**
+   * Resets the connections of the runtime, like a NAT or load balancer that dropped an idle connection.
+   */
+  public void resetConnections() throws IOException {
+    for (final Socket connection : connections) {
+      connection.setSoLinger(true, 0);
+      connection.close();
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    serverSocket.close();
+    closeConnections();
+  }
+
+  private void accept() {
+    while (!serverSocket.isClosed()) {
+      try {
+        final Socket connection = serverSocket.accept();
+        if (serverSocket.isClosed()) {
+          // a blocked accept() can still return a connection that arrived while the server socket was being closed
+          connection.close();
+          return;
+        }
+        connection.setTcpNoDelay(true);
+        connections.add(connection);
+        connectionsAccepted.incrementAndGet();
+        final Thread thread = new Thread(() -> serve(connection), "local-runtime-api-connection");
+        thread.setDaemon(true);
+        thread.start();
+      } catch (final IOException e) {
+        return;
+      }
+    }
+  }
+
+  private void serve(final Socket connection) {
+    Invocation delivered = null;
+    try (connection) {
+      final InputStream input = new BufferedInputStream(connection.getInputStream(), BUFFER_SIZE);
+      final OutputStream output = new BufferedOutputStream(connection.getOutputStream(), BUFFER_SIZE);
+      while (true) {
+        final String requestLine = readLine(input);
+        if (requestLine == null) {
+          return;
+        }
+        final Map<String, String> headers = new HashMap<>();
+        for (String line = readLine(input); line != null && !line.isEmpty(); line = readLine(input)) {
+          final int colon = line.indexOf(':');
+          headers.put(line.substring(0, colon).trim().toLowerCase(Locale.ROOT), line.substring(colon + 1).trim());
+        }
+        final byte[] body = input.readNBytes(Integer.parseInt(headers.getOrDefault("content-length", "0")));
+        final String path = requestLine.split(" ")[1];
+        if (INIT_ERROR_PATH.equals(path)) {
+          respond(output, "202 Accepted", "", "{\"status\":\"OK\"}".getBytes(US_ASCII));
+          initError.complete(new Result(true, headers.get("lambda-runtime-function-error-type"), body));
+          continue;
+        }
+        if (!path.startsWith(INVOCATION_PATH)) {
+          respond(output, "404 Not Found", "", "{\"errorMessage\":\"unknown path\"}".getBytes(US_ASCII));
+          continue;
+        }
+        final String resource = path.substring(INVOCATION_PATH.length());
+        if (NEXT.equals(resource)) {
+          delivered = pending.take();
+          respond(output, "200 OK", "Lambda-Runtime-Aws-Request-Id: " + delivered.requestId + "\r\n"
+              + "Lambda-Runtime-Deadline-Ms: " + (System.currentTimeMillis() + DEADLINE_MILLIS) + "\r\n",
+              delivered.event);
+          continue;
+        }
+        final boolean error = resource.endsWith(ERROR);
+        if (!error && !resource.endsWith(RESPONSE)) {
+          respond(output, "404 Not Found", "", "{\"errorMessage\":\"unknown path\"}".getBytes(US_ASCII));
+          continue;
+        }
+        final String rejection = error ? null : nextResponseRejection.getAndSet(null);
+        if (rejection != null) {
+          respond(output, rejection, "", "{\"errorMessage\":\"rejected\"}".getBytes(US_ASCII));
+          continue;
+        }
+        final String requestId = resource.substring(0, resource.lastIndexOf('/'));
+        final CompletableFuture<Result> result = inFlight.remove(requestId);
+        if (result == null) {
+          respond(output, "400 Bad Request", "", "{\"errorMessage\":\"unknown request id\"}".getBytes(US_ASCII));
+          continue;
+        }
+        delivered = null;
+        respond(output, "202 Accepted", "", "{\"status\":\"OK\"}".getBytes(US_ASCII));
+        result.complete(new Result(error, headers.get("lambda-runtime-function-error-type"), body));
+      }
+    } catch (final IOException e) {
+      if (delivered != null) {
+        // the runtime never answered this one, so it is delivered again on the next connection
+        pending.add(delivered);
+      }
+    } catch (final InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static void respond(final OutputStream output,
+                              final String status,
+                              final String headers,
+                              final byte[] body) throws IOException {
+    output.write(("HTTP/1.1 " + status + "\r\n" + headers + "Content-Type: application/json\r\n"
+        + "Content-Length: " + body.length + "\r\n\r\n").getBytes(US_ASCII));
+    output.write(body);
+    output.flush();
+  }
+
+  private static String readLine(final InputStream input) throws IOException {
+    final StringBuilder line = new StringBuilder();
+    for (int read = input.read(); read != '\n'; read = input.read()) {
+      if (read < 0) {
+        return null;
+      }
+      if (read != '\r') {
+        line.append((char) read);
+      }
+    }
+    return line.toString();
+  }
+
+  private static final class Invocation {
+    private final String requestId;
+    private final byte[] event;
+
+    private Invocation(final String requestId, final byte[] event) {
+      this.requestId = requestId;
+      this.event = event;
+    }
+  }
+
+  /**
+   * What the runtime posted for one invocation.
+   */
+  public static final class Result {
+    private final boolean error;
+    private final String errorType;
+    private final byte[] body;
+
+    private Result(final boolean error, final String errorType, final byte[] body) {
+      this.error = error;
+      this.errorType = errorType;
+      this.body = body;
+    }
+
+    public boolean isError() {
+      return error;
+    }
+
+    public String errorType() {
+      return errorType;
+    }
+
+    public byte[] body() {
+      return body;
+    }
+  }
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.runtime;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static de.quantummaid.tutorials.events.ApiGatewayEvents.httpApiEvent;
+import static de.quantummaid.tutorials.events.ApiGatewayEvents.restApiEvent;
+import static de.quantummaid.tutorials.events.ApiGatewayEvents.restApiGetEvent;
+import static de.quantummaid.tutorials.events.ApiGatewayEvents.restApiPostEvent;
+import static de.quantummaid.tutorials.runtime.EventJson.parseEvent;
+import static de.quantummaid.tutorials.runtime.ResponseCache.responseCache;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class ResponseCacheTest {
+  private static final Duration TIME_TO_LIVE = Duration.ofMinutes(1);
+  private static final long MAX_BYTES = 1024 * 1024;
+
+  private final AtomicLong nanoTime = new AtomicLong();
+
+  @Test
+  public void testOnlyGetRequestsToCacheablePathsHaveAKey() {
+    final ResponseCache cache = cache(MAX_BYTES);
+    assertNotNull(cache.keyOf(restApiGetEvent("/hello/a")));
+    assertNotNull(cache.keyOf(httpApiEvent("GET", "/hello/a", null, Map.of(), null)));
+    assertNull(cache.keyOf(restApiGetEvent("/goodbye/a")));
+    assertNull(cache.keyOf(restApiPostEvent("/hello/a", "{}")));
+  }
+
+  @Test
+  public void testRestApiQueriesAreKeyedCanonically() {
+    final ResponseCache cache = cache(MAX_BYTES);
+    assertEquals(cache.keyOf(query("a=1&b=2")), cache.keyOf(query("b=2&a=1")));
+    assertEquals(cache.keyOf(query("a=x%20y")), cache.keyOf(query("a=x+y")));
+    assertNotEquals(cache.keyOf(query("a=1&a=2")), cache.keyOf(query("a=2&a=1")));
+    assertNotEquals(cache.keyOf(query("a=x%2C%20y")), cache.keyOf(query("a=x&a=y")));
+    assertNotEquals(cache.keyOf(query("a=1%262")), cache.keyOf(query("a=1&2")));
+    assertNotEquals(cache.keyOf(query("a=1")), cache.keyOf(query(null)));
+  }
+
+  @Test
+  public void testRestAndHttpApiEventsAreKeyedApart() {
+    final ResponseCache cache = cache(MAX_BYTES);
+    final Map<String, Object> restApi = restApiEvent("GET", "/hello/a", "a=1", Map.of(), null);
+    final Map<String, Object> httpApi = httpApiEvent("GET", "/hello/a", "a=1", Map.of(), null);
+    assertNotEquals(cache.keyOf(restApi), cache.keyOf(httpApi));
+    cache.store(cache.keyOf(restApi), restApi, ok("a"));
+    assertNotNull(cache.lookup(cache.keyOf(restApi), restApi));
+    assertNull(cache.lookup(cache.keyOf(httpApi), httpApi));
+  }
+
+  @Test
+  public void testEntriesExpireAfterTheTimeToLive() {
+    final ResponseCache cache = cache(MAX_BYTES);
+    final Map<String, Object> event = restApiGetEvent("/hello/a");
+    final String key = cache.keyOf(event);
+    cache.store(key, event, ok("a"));
+    nanoTime.addAndGet(TIME_TO_LIVE.toNanos());
+    assertNotNull(cache.lookup(key, event));
+    nanoTime.incrementAndGet();
+    assertNull(cache.lookup(key, event));
+    assertEquals(0, cache.bytes());
+  }
+
+  @Test
+  public void testTheLeastRecentlyUsedEntriesAreEvictedBeyondTheByteBudget() {
+    final ResponseCache measuring = cache(MAX_BYTES);
+    final Map<String, Object> probe = restApiGetEvent("/hello/a");
+    measuring.store(measuring.keyOf(probe), probe, ok("a"));
+    final long entrySize = measuring.bytes();
+
+    final long maxBytes = 2 * entrySize + entrySize / 2;
+    final ResponseCache cache = cache(maxBytes);
+    final Map<String, Object> a = restApiGetEvent("/hello/a");
+    final Map<String, Object> b = restApiGetEvent("/hello/b");
+    final Map<String, Object> c = restApiGetEvent("/hello/c");
+    cache.store(cache.keyOf(a), a, ok("a"));
+    cache.store(cache.keyOf(b), b, ok("b"));
+    assertNotNull(cache.lookup(cache.keyOf(a), a));
+    cache.store(cache.keyOf(c), c, ok("c"));
+
+    assertNotNull(cache.lookup(cache.keyOf(a), a));
+    assertNull(cache.lookup(cache.keyOf(b), b));
+    assertNotNull(cache.lookup(cache.keyOf(c), c));
+    assertTrue(cache.bytes() <= maxBytes);
+  }
+
+  @Test
+  public void testResponsesLargerThanTheBudgetAreServedButNotCached() {
+    final ResponseCache cache = cache(16);
+    final Map<String, Object> event = restApiGetEvent("/hello/a");
+    assertNotNull(cache.store(cache.keyOf(event), event, ok("a")));
+    assertNull(cache.lookup(cache.keyOf(event), event));
+    assertEquals(0, cache.bytes());
+  }
+
+  @Test
+  public void testOnlyOkResponsesAreCached() {
+    final ResponseCache cache = cache(MAX_BYTES);
+    final Map<String, Object> event = restApiGetEvent("/hello/a");
+    assertNull(cache.store(cache.keyOf(event), event, Map.of("statusCode", 404, "body", "")));
+    assertNull(cache.lookup(cache.keyOf(event), event));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testConditionalRequestsGetANotModifiedThatKeepsVary() {
+    final ResponseCache cache = cache(MAX_BYTES);
+    final Map<String, Object> event = restApiGetEvent("/hello/a");
+    final String key = cache.keyOf(event);
+    final Map<String, Object> full = parseEvent(cache.store(key, event, ok("a")));
+    final String etag = String.valueOf(((Map<String, Object>) full.get("headers")).get("ETag"));
+
+    for (final String ifNoneMatch : List.of(etag, "W/" + etag, "\"other\", " + etag, "*")) {
+      final Map<String, Object> notModified = parseEvent(cache.lookup(key, conditional(ifNoneMatch)));
+      assertEquals(304, notModified.get("statusCode"), ifNoneMatch);
+      assertEquals(Map.of("ETag", etag, "Vary", "Accept-Encoding"), notModified.get("headers"));
+    }
+    assertEquals(200, parseEvent(cache.lookup(key, conditional("\"other\""))).get("statusCode"));
+    assertEquals(200, parseEvent(cache.lookup(key, event)).get("statusCode"));
+  }
+
+  private ResponseCache cache(final long maxBytes) {
+    return responseCache(path -> path.startsWith("/hello/"), maxBytes, TIME_TO_LIVE, nanoTime::get);
+  }
+
+  private static Map<String, Object> query(final String rawQuery) {
+    return restApiEvent("GET", "/hello/a", rawQuery, Map.of(), null);
+  }
+
+  private static Map<String, Object> conditional(final String ifNoneMatch) {
+    return restApiEvent("GET", "/hello/a", null, Map.of("If-None-Match", List.of(ifNoneMatch)), null);
+  }
+
+  private static Map<String, Object> ok(final String body) {
+    return Map.of("statusCode", 200, "body", body, "headers", Map.of("Vary", "Accept-Encoding"));
+  }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.runtime;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPInputStream;
+
+import static de.quantummaid.tutorials.events.ApiGatewayEvents.httpApiEvent;
+import static de.quantummaid.tutorials.events.ApiGatewayEvents.restApiEvent;
+import static de.quantummaid.tutorials.runtime.ResponseCompression.responseCompression;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class ResponseCompressionTest {
+  private static final int MINIMUM_BYTES = 1024;
+  private static final String COMPRESSIBLE_BODY = "{\"greeting\":\"hello\"},".repeat(200);
+
+  private final ResponseCompression compression = responseCompression(MINIMUM_BYTES);
+
+  @Test
+  public void testGzipIsNegotiatedFromAcceptEncoding() {
+    for (final String accepted : List.of("gzip", "GZIP", "x-gzip", "deflate, gzip;q=0.5", "br;q=1.0, *",
+        "*;q=0.1", "gzip;q=1, *;q=0")) {
+      assertEquals("gzip", compression.encodingFor(acceptingHttpApiEvent(accepted)), accepted);
+    }
+    for (final String refused : List.of("identity", "deflate, br", "gzip;q=0", "gzip;q=0.000", "*;q=0",
+        "gzip;q=0, *", "gzip;q=high")) {
+      assertNull(compression.encodingFor(acceptingHttpApiEvent(refused)), refused);
+    }
+    assertNull(compression.encodingFor(httpApiEvent("GET", "/hello", null, Map.of(), null)));
+  }
+
+  @Test
+  public void testOnlyHttpApiRequestsAreCompressedUnlessTheRestApiHasBinaryMediaTypes() {
+    final Map<String, Object> restApiEvent = restApiEvent(
+        "GET", "/hello", null, Map.of("Accept-Encoding", List.of("gzip")), null);
+    assertTrue(compression.appliesTo(acceptingHttpApiEvent("gzip")));
+    assertFalse(compression.appliesTo(restApiEvent));
+    assertTrue(compression.withRestApiBinaryMediaTypes().appliesTo(restApiEvent));
+  }
+
+  @Test
+  public void testCompressedBodiesGunzipToTheOriginal() throws IOException {
+    final Map<String, Object> compressed = compression.compress(ok(COMPRESSIBLE_BODY), "gzip");
+    assertEquals(true, compressed.get("isBase64Encoded"));
+    assertEquals(Map.of("Content-Type", "application/json", "Content-Encoding", "gzip", "Vary", "Accept-Encoding"),
+        compressed.get("headers"));
+    assertEquals(COMPRESSIBLE_BODY, gunzip(compressed.get("body").toString()));
+  }
+
+  @Test
+  public void testBodiesBelowTheMinimumPassThroughUnchanged() {
+    final Map<String, Object> response = ok("{\"greeting\":\"hello\"}");
+    assertSame(response, compression.compress(response, "gzip"));
+  }
+
+  @Test
+  public void testEncodedBodiesPassThroughUnchanged() {
+    final Map<String, Object> base64 = ok(Base64.getEncoder().encodeToString(COMPRESSIBLE_BODY.getBytes(UTF_8)));
+    base64.put("isBase64Encoded", true);
+    assertSame(base64, compression.compress(base64, "gzip"));
+
+    final Map<String, Object> encoded = ok(COMPRESSIBLE_BODY);
+    encoded.put("headers", Map.of("Content-Encoding", "br"));
+    assertSame(encoded, compression.compress(encoded, "gzip"));
+  }
+
+  @Test
+  public void testUncompressedLargeBodiesStillVaryOnAcceptEncoding() {
+    final Map<String, Object> identity = compression.compress(ok(COMPRESSIBLE_BODY), null);
+    assertEquals(COMPRESSIBLE_BODY, identity.get("body"));
+    assertEquals("Accept-Encoding", headersOf(identity).get("Vary"));
+
+    final Map<String, Object> notSmaller = responseCompression(1).compress(ok("{}"), "gzip");
+    assertEquals("{}", notSmaller.get("body"));
+    assertEquals(false, notSmaller.get("isBase64Encoded"));
+    assertEquals("Accept-Encoding", headersOf(notSmaller).get("Vary"));
+  }
+
+  @Test
+  public void testVaryIsExtendedInsteadOfReplaced() {
+    final Map<String, Object> response = ok(COMPRESSIBLE_BODY);
+    response.put("headers", Map.of("Vary", "Origin"));
+    assertEquals("Origin, Accept-Encoding", headersOf(compression.compress(response, "gzip")).get("Vary"));
+
+    response.put("headers", Map.of("vary", "origin, accept-encoding"));
+    assertEquals("origin, accept-encoding", headersOf(compression.compress(response, "gzip")).get("vary"));
+
+    response.remove("headers");
+    response.put("multiValueHeaders", Map.of("Vary", List.of("Origin", "Cookie")));
+    final Object multiValueHeaders = compression.compress(response, "gzip").get("multiValueHeaders");
+    assertEquals(List.of("Origin, Cookie, Accept-Encoding"), ((Map<?, ?>) multiValueHeaders).get("Vary"));
+  }
+
+  @Test
+  public void testHeadersAreAddedToBothHeaderMaps() {
+    final Map<String, Object> response = ok(COMPRESSIBLE_BODY);
+    response.put("multiValueHeaders", Map.of("Set-Cookie", List.of("a=1", "b=2")));
+    final Map<String, Object> compressed = compression.compress(response, "gzip");
+    assertEquals("gzip", headersOf(compressed).get("Content-Encoding"));
+    assertEquals("Accept-Encoding", headersOf(compressed).get("Vary"));
+    final Map<?, ?> multiValueHeaders = (Map<?, ?>) compressed.get("multiValueHeaders");
+    assertEquals(List.of("gzip"), multiValueHeaders.get("Content-Encoding"));
+    assertEquals(List.of("Accept-Encoding"), multiValueHeaders.get("Vary"));
+    assertEquals(List.of("a=1", "b=2"), multiValueHeaders.get("Set-Cookie"));
+  }
+
+  private static Map<String, Object> acceptingHttpApiEvent(final String acceptEncoding) {
+    return httpApiEvent("GET", "/hello", null, Map.of("Accept-Encoding", List.of(acceptEncoding)), null);
+  }
+
+  private static Map<String, Object> ok(final String body) {
+    final Map<String, Object> response = new HashMap<>();
+    response.put("statusCode", 200);
+    response.put("headers", Map.of("Content-Type", "application/json"));
+    response.put("body", body);
+    response.put("isBase64Encoded", false);
+    return response;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Map<String, Object> headersOf(final Map<String, Object> response) {
+    return (Map<String, Object>) response.get("headers");
+  }
+
+  private static String gunzip(final String base64) throws IOException {
+    final byte[] compressed = Base64.getDecoder().decode(base64);
+    try (GZIPInputStream input = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+      return new String(input.readAllBytes(), UTF_8);
+    }
+  }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.runtime;
+
+import de.quantummaid.tutorials.Main;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static de.quantummaid.tutorials.events.ApiGatewayEvents.restApiGetEvent;
+import static de.quantummaid.tutorials.runtime.EventJson.encodeResponse;
+import static de.quantummaid.tutorials.runtime.EventJson.parseEvent;
+import static de.quantummaid.tutorials.runtime.LocalRuntimeApi.startLocalRuntimeApi;
+import static de.quantummaid.tutorials.runtime.RuntimeApiBootstrap.RESPONSE_REJECTED;
+import static de.quantummaid.tutorials.runtime.RuntimeApiBootstrap.errorOf;
+import static de.quantummaid.tutorials.runtime.RuntimeApiBootstrap.initialize;
+import static de.quantummaid.tutorials.runtime.RuntimeApiBootstrap.serveInvocations;
+import static de.quantummaid.tutorials.runtime.RuntimeApiClient.runtimeApiClient;
+import static de.quantummaid.tutorials.runtime.StreamHandler.streamHandler;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class RuntimeApiBootstrapTest {
+  private static final long TIMEOUT_SECONDS = 10;
+
+  private LocalRuntimeApi runtimeApi;
+  private ExecutorService runtime;
+  private Future<?> invocationLoop;
+
+  @BeforeEach
+  public void startRuntime() throws IOException {
+    runtimeApi = startLocalRuntimeApi();
+    runtime = Executors.newSingleThreadExecutor();
+    invocationLoop = runtime.submit(() -> {
+      serveInvocations(runtimeApi.address(), streamHandler(new Main()));
+      return null;
+    });
+  }
+
+  @AfterEach
+  public void stopRuntime() throws IOException {
+    runtimeApi.close();
+    runtime.shutdownNow();
+  }
+
+  @Test
+  public void testInvocationsShareOneConnection() throws Exception {
+    for (final String name : new String[]{"quantummaid", "lambda", "runtime"}) {
+      assertGreeting(name);
+    }
+    assertEquals(1, runtimeApi.connectionsAccepted());
+  }
+
+  @Test
+  public void testMalformedEventIsReportedAsError() throws Exception {
+    final LocalRuntimeApi.Result result = runtimeApi.invoke("not json".getBytes(UTF_8))
+        .get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    assertTrue(result.isError());
+    assertEquals(IllegalArgumentException.class.getName(), result.errorType());
+    assertEquals(IllegalArgumentException.class.getName(), parseEvent(result.body()).get("errorType"));
+    assertGreeting("after-error");
+  }
+
+  @Test
+  public void testRejectedResponseIsReportedAsErrorAndTheLoopContinues() throws Exception {
+    runtimeApi.rejectNextResponse("413 Request Entity Too Large");
+    final LocalRuntimeApi.Result result = runtimeApi.invoke(encodeResponse(restApiGetEvent("/hello/large")))
+        .get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    assertTrue(result.isError());
+    assertEquals(RESPONSE_REJECTED, result.errorType());
+    final String message = String.valueOf(parseEvent(result.body()).get("errorMessage"));
+    assertTrue(message.endsWith(" with 413"), message);
+    assertGreeting("after-rejection");
+  }
+
+  @Test
+  public void testEndsWhenTheRuntimeApiFailsToTakeAResponse() throws Exception {
+    runtimeApi.rejectNextResponse("500 Internal Server Error");
+    runtimeApi.invoke(encodeResponse(restApiGetEvent("/hello/quantummaid")));
+    final Exception exception = assertThrows(Exception.class,
+        () -> invocationLoop.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+    assertTrue(exception.getCause() instanceof IOException, String.valueOf(exception.getCause()));
+  }
+
+  @Test
+  public void testErrorPayloadIsValidJsonForAnyMessage() {
+    final String message = "quote \" backslash \\ newline \n control \u0001 lone \uD83D";
+    final Map<String, Object> error = parseEvent(errorOf(new IllegalStateException(message)));
+    assertEquals(Map.of("errorMessage", message, "errorType", IllegalStateException.class.getName()), error);
+  }
+
+  @Test
+  public void testInitializationFailureIsReportedAsInitError() throws Exception {
+    try (RuntimeApiClient client = runtimeApiClient(runtimeApi.address())) {
+      assertThrows(IllegalStateException.class, () -> initialize(client, () -> {
+        throw new IllegalStateException("no configuration");
+      }));
+    }
+    final LocalRuntimeApi.Result initError = runtimeApi.initError().get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    assertEquals(IllegalStateException.class.getName(), initError.errorType());
+    assertEquals("no configuration", parseEvent(initError.body()).get("errorMessage"));
+  }
+
+  @Test
+  public void testReconnectsAfterTheIdleConnectionWasClosed() throws Exception {
+    assertGreeting("before");
+    runtimeApi.closeConnections();
+    assertGreeting("after");
+    assertEquals(2, runtimeApi.connectionsAccepted());
+  }
+
+  @Test
+  public void testReconnectsAfterTheIdleConnectionWasReset() throws Exception {
+    assertGreeting("before");
+    runtimeApi.resetConnections();
+    assertGreeting("after");
+    assertEquals(2, runtimeApi.connectionsAccepted());
+  }
+
+  @Test
+  public void testEndsWhenTheRuntimeApiIsGone() throws Exception {
+    assertGreeting("quantummaid");
+    runtimeApi.close();
+    final Exception exception = assertThrows(Exception.class,
+        () -> invocationLoop.get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+    assertTrue(exception.getCause() instanceof IOException, String.valueOf(exception.getCause()));
+  }
+
+  private void assertGreeting(final String name) throws Exception {
+    final LocalRuntimeApi.Result result = runtimeApi.invoke(encodeResponse(restApiGetEvent("/hello/" + name)))
+        .get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    final Map<String, Object> response = parseEvent(result.body());
+    assertEquals(false, result.isError());
+    assertEquals(200, ((Number) response.get("statusCode")).intValue());
+    assertEquals("Hello " + name + "!", response.get("body"));
+  }
+}
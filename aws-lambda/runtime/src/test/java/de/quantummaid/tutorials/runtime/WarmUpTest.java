@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.runtime;
+
+import com.sun.net.httpserver.HttpServer;
+import de.quantummaid.tutorials.Main;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static de.quantummaid.tutorials.runtime.ResponseCache.responseCache;
+import static de.quantummaid.tutorials.runtime.StreamHandler.streamHandler;
+import static de.quantummaid.tutorials.runtime.WarmUp.iterationsFrom;
+import static de.quantummaid.tutorials.runtime.WarmUp.warmUp;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.stream.Collectors.toList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public final class WarmUpTest {
+  private static final int ITERATIONS = 3;
+  private static final long SERVER_START_DELAY_MILLIS = 300;
+
+  @Test
+  public void testIterationsFallBackToTheDefaultUnlessTheyAreANonNegativeNumber() {
+    final int defaultIterations = iterationsFrom(null);
+    assertEquals(0, iterationsFrom("0"));
+    assertEquals(25, iterationsFrom(" 25 "));
+    assertEquals(defaultIterations, iterationsFrom("-1"));
+    assertEquals(defaultIterations, iterationsFrom("many"));
+    assertEquals(defaultIterations, iterationsFrom(""));
+  }
+
+  @Test
+  public void testEveryPathIsReplayedAsRestApiAndAsHttpApiEvent() {
+    final List<Map<String, Object>> events = new ArrayList<>();
+    warmUp("/hello/warm-up").withIterations(ITERATIONS).replayThrough(event -> {
+      events.add(event);
+      return Map.of("statusCode", 200);
+    });
+    assertEquals(2 * ITERATIONS, events.size());
+    assertEquals("/hello/warm-up", events.get(0).get("path"));
+    assertEquals("2.0", events.get(ITERATIONS).get("version"));
+  }
+
+  @Test
+  public void testAThrowingPathStopsOnlyItsOwnReplay() {
+    final List<Object> replayedPaths = new ArrayList<>();
+    warmUp("/failing", "/hello/warm-up").withIterations(ITERATIONS).replayThrough(event -> {
+      final Object path = event.containsKey("path") ? event.get("path") : event.get("rawPath");
+      replayedPaths.add(path);
+      if ("/failing".equals(path)) {
+        throw new IllegalStateException("not warmed up");
+      }
+      return Map.of("statusCode", 200);
+    });
+    assertEquals(2, replayedPaths.stream().filter("/failing"::equals).count());
+    assertEquals(2 * ITERATIONS, replayedPaths.stream().filter("/hello/warm-up"::equals).count());
+  }
+
+  @Test
+  public void testTheStreamReplayBypassesTheResponseCache() {
+    final ResponseCache cache = responseCache(path -> true, 1024 * 1024, Duration.ofMinutes(1));
+    final StreamHandler handler = streamHandler(new Main()).withResponseCache(cache);
+    warmUp("/hello/warm-up").withIterations(ITERATIONS).replayThrough(handler);
+    assertEquals(0, cache.bytes());
+  }
+
+  @Test
+  public void testTheStreamReplayStopsAtTheFirstUnsuccessfulResponse() {
+    final String warnings = stderrOf(() -> warmUp("/not-routed").withIterations(ITERATIONS)
+        .replayThrough(streamHandler(new Main())));
+    assertEquals(2, warnings.lines().filter(line -> line.equals("warm-up of /not-routed stopped: 404")).count(),
+        warnings);
+  }
+
+  @Test
+  public void testTheLocalEndpointIsReplayedOnceItAcceptsConnections() throws Exception {
+    final int port;
+    try (ServerSocket freePort = new ServerSocket(0)) {
+      port = freePort.getLocalPort();
+    }
+    final Map<String, Integer> requests = new ConcurrentHashMap<>();
+    final AtomicReference<HttpServer> server = new AtomicReference<>();
+    final ScheduledExecutorService starter = Executors.newSingleThreadScheduledExecutor();
+    try {
+      starter.schedule(() -> {
+        server.set(startServer(port, requests));
+        return null;
+      }, SERVER_START_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+
+      final String warnings = stderrOf(() -> warmUp("/hello/warm-up", "/failing").withIterations(ITERATIONS)
+          .replayAgainstLocalEndpoint(port));
+
+      assertEquals(Map.of("/hello/warm-up", ITERATIONS, "/failing", 1), requests);
+      assertEquals(List.of("warm-up of /failing stopped: 500"), warnings.lines().collect(toList()));
+    } finally {
+      starter.shutdownNow();
+      if (server.get() != null) {
+        server.get().stop(0);
+      }
+    }
+  }
+
+  private static HttpServer startServer(final int port, final Map<String, Integer> requests) throws IOException {
+    final HttpServer server = HttpServer.create(new InetSocketAddress("localhost", port), 0);
+    server.createContext("/", exchange -> {
+      final String path = exchange.getRequestURI().getPath();
+      requests.merge(path, 1, Integer::sum);
+      exchange.sendResponseHeaders("/failing".equals(path) ? 500 : 200, -1);
+      exchange.close();
+    });
+    server.start();
+    return server;
+  }
+
+  private static String stderrOf(final Runnable runnable) {
+    final PrintStream stderr = System.err;
+    final ByteArrayOutputStream captured = new ByteArrayOutputStream();
+    System.setErr(new PrintStream(captured, true, UTF_8));
+    try {
+      runnable.run();
+    } finally {
+      System.setErr(stderr);
+    }
+    return captured.toString(UTF_8);
+  }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.admission;
+
+import de.quantummaid.httpmaid.handler.http.HttpHandler;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounds the number of requests in flight across all routes wrapped by the same instance. The limit is not
+ * configured but adjusted by {@link AimdLimit} from the latency the wrapped handlers show: it grows while
+ * latency stays close to the lowest latency observed and shrinks as soon as requests start to queue.
+ *
+ * <p>A request above the allowance of its route's {@link Priority} is answered right away with
+ * {@code 503 Service Unavailable} and {@code Retry-After}, without calling the wrapped handler:</p>
+ *
+ * <pre>{@code
+ * final AdmissionControl admissionControl = admissionControl();
+ * QuantumMaid.quantumMaid()
+ *         .get("/hello/<name>", admissionControl.admit(CRITICAL, helloFromPath(greetingUseCase)))
+ * }</pre>
+ */
+public final class AdmissionControl {
+    static final int DEFAULT_INITIAL_LIMIT = 10;
+    static final int DEFAULT_MINIMUM_LIMIT = 1;
+    static final int DEFAULT_MAXIMUM_LIMIT = 1000;
+    static final double DEFAULT_TOLERANCE = 2.0;
+    static final double DEFAULT_BACKOFF_RATIO = 0.9;
+    static final long DEFAULT_WINDOW_MILLIS = 100;
+
+    private final AimdLimit limit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder admitted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    private AdmissionControl(final AimdLimit limit) {
+        this.limit = limit;
+    }
+
+    public static AdmissionControl admissionControl() {
+        return admissionControl(DEFAULT_INITIAL_LIMIT, DEFAULT_MINIMUM_LIMIT, DEFAULT_MAXIMUM_LIMIT);
+    }
+
+    public static AdmissionControl admissionControl(final int initialLimit,
+                                                    final int minimumLimit,
+                                                    final int maximumLimit) {
+        return new AdmissionControl(new AimdLimit(initialLimit, minimumLimit, maximumLimit,
+                DEFAULT_TOLERANCE, DEFAULT_BACKOFF_RATIO, TimeUnit.MILLISECONDS.toNanos(DEFAULT_WINDOW_MILLIS)));
+    }
+
+    public HttpHandler admit(final Priority priority, final HttpHandler delegate) {
+        return new AdmittedHandler(this, priority, delegate);
+    }
+
+    public int limit() {
+        return limit.limit();
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    public long admitted() {
+        return admitted.sum();
+    }
+
+    public long rejected() {
+        return rejected.sum();
+    }
+
+    public double baselineMillis() {
+        return limit.baselineMillis();
+    }
+
+    boolean tryAcquire(final Priority priority) {
+        final int allowance = priority.allowance(limit.limit());
+        while (true) {
+            final int current = inFlight.get();
+            if (current >= allowance) {
+                rejected.increment();
+                limit.onRejected();
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                admitted.increment();
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Failed requests free their slot but are no latency sample: an exception thrown early says nothing
+     * about queueing.
+     */
+    void release(final long latencyNanos, final boolean failed) {
+        final int before = inFlight.getAndDecrement();
+        if (!failed) {
+            limit.onSample(latencyNanos, before, System.nanoTime());
+        }
+    }
+}
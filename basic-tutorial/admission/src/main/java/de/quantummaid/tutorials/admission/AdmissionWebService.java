@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+//Showcase start admissionwebservice
+
+package de.quantummaid.tutorials.admission;
+
+import de.quantummaid.quantummaid.QuantumMaid;
+import de.quantummaid.tutorials.GreetingUseCase;
+import de.quantummaid.tutorials.codegen.SpecializeUseCases;
+
+import static de.quantummaid.tutorials.admission.AdmissionControl.admissionControl;
+import static de.quantummaid.tutorials.admission.GreetingUseCaseMappers.helloFromBody;
+import static de.quantummaid.tutorials.admission.GreetingUseCaseMappers.helloFromPath;
+import static de.quantummaid.tutorials.admission.Priority.CRITICAL;
+import static de.quantummaid.tutorials.admission.Priority.SHEDDABLE;
+
+@SpecializeUseCases(GreetingUseCase.class)
+public final class AdmissionWebService {
+    private static final int PORT = 8080;
+
+    public static void main(final String[] args) {
+        createQuantumMaid(PORT).run();
+    }
+
+    public static QuantumMaid createQuantumMaid(final int port) {
+        final AdmissionControl admissionControl = admissionControl();
+        final GreetingUseCase greetingUseCase = new GreetingUseCase();
+        return QuantumMaid.quantumMaid()
+                .get("/hello/<name>", admissionControl.admit(CRITICAL, helloFromPath(greetingUseCase)))
+                .post("/hello", admissionControl.admit(SHEDDABLE, helloFromBody(greetingUseCase)))
+                .withLocalHostEndpointOnPort(port);
+    }
+}
+//Showcase end admissionwebservice
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.admission;
+
+import de.quantummaid.httpmaid.handler.http.HttpHandler;
+import de.quantummaid.httpmaid.handler.http.HttpRequest;
+import de.quantummaid.httpmaid.handler.http.HttpResponse;
+
+/**
+ * Passes a request to the wrapped handler if {@link AdmissionControl} has room for its {@link Priority},
+ * and rejects it with {@code 503} otherwise.
+ */
+final class AdmittedHandler implements HttpHandler {
+    static final int SERVICE_UNAVAILABLE = 503;
+    static final String RETRY_AFTER_SECONDS = "1";
+
+    private final AdmissionControl admissionControl;
+    private final Priority priority;
+    private final HttpHandler delegate;
+
+    AdmittedHandler(final AdmissionControl admissionControl, final Priority priority, final HttpHandler delegate) {
+        this.admissionControl = admissionControl;
+        this.priority = priority;
+        this.delegate = delegate;
+    }
+
+    @Override
+    public void handle(final HttpRequest request, final HttpResponse response) {
+        if (!admissionControl.tryAcquire(priority)) {
+            response.setStatus(SERVICE_UNAVAILABLE);
+            response.addHeader("Retry-After", RETRY_AFTER_SECONDS);
+            response.addHeader("Content-Type", "application/json");
+            response.setBody("{\"message\":\"overloaded, retry later\"}");
+            return;
+        }
+        final long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            delegate.handle(request, response);
+            failed = false;
+        } finally {
+            admissionControl.release(System.nanoTime() - start, failed);
+        }
+    }
+}
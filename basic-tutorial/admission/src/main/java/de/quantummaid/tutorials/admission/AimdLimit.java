@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.admission;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Additive-increase/multiplicative-decrease of an in-flight limit, driven by latency instead of by errors.
+ *
+ * <p>Completed requests are collected into windows of at least {@code windowNanos} and
+ * {@value #MINIMUM_WINDOW_SAMPLES} samples. The lowest window average seen so far is taken as the latency
+ * of the service without queueing. A window whose average exceeds that baseline by more than the tolerance
+ * means requests are queueing somewhere behind the handler, and the limit is multiplied by the backoff ratio.
+ * Otherwise the limit grows by one, as long as the window actually used at least half of it. A window in which
+ * requests were rejected used all of it. Rejections are only counted when they happen and read when the window
+ * closes, so rejecting a request never waits for the lock of a completing one.</p>
+ *
+ * <p>At the minimum limit the service cannot be unloaded any further, so the window average becomes the new
+ * baseline there. This lets the baseline follow a service that got slower for good, e.g. after a dependency
+ * degraded, instead of backing off forever.</p>
+ */
+final class AimdLimit {
+    static final int MINIMUM_WINDOW_SAMPLES = 10;
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private final int minimum;
+    private final int maximum;
+    private final double tolerance;
+    private final double backoffRatio;
+    private final long windowNanos;
+
+    private final LongAdder rejections = new LongAdder();
+
+    private volatile int limit;
+
+    private long windowStart;
+    private int samples;
+    private long sumNanos;
+    private int maxInFlight;
+    private double baselineNanos = Double.MAX_VALUE;
+
+    AimdLimit(final int initial,
+              final int minimum,
+              final int maximum,
+              final double tolerance,
+              final double backoffRatio,
+              final long windowNanos) {
+        if (minimum < 1 || initial < minimum || maximum < initial) {
+            throw new IllegalArgumentException("limits must satisfy 1 <= minimum <= initial <= maximum, got "
+                    + minimum + ", " + initial + ", " + maximum);
+        }
+        this.limit = initial;
+        this.minimum = minimum;
+        this.maximum = maximum;
+        this.tolerance = tolerance;
+        this.backoffRatio = backoffRatio;
+        this.windowNanos = windowNanos;
+        this.windowStart = System.nanoTime();
+    }
+
+    int limit() {
+        return limit;
+    }
+
+    synchronized void onSample(final long latencyNanos, final int inFlight, final long now) {
+        samples++;
+        sumNanos += latencyNanos;
+        maxInFlight = Math.max(maxInFlight, inFlight);
+        if (samples >= MINIMUM_WINDOW_SAMPLES && now - windowStart >= windowNanos) {
+            closeWindow(now);
+        }
+    }
+
+    void onRejected() {
+        rejections.increment();
+    }
+
+    synchronized double baselineMillis() {
+        return baselineNanos / NANOS_PER_MILLI;
+    }
+
+    private void closeWindow(final long now) {
+        final double averageNanos = (double) sumNanos / samples;
+        final int current = limit;
+        if (rejections.sumThenReset() > 0) {
+            maxInFlight = Math.max(maxInFlight, current);
+        }
+        if (current == minimum || averageNanos < baselineNanos) {
+            baselineNanos = averageNanos;
+        }
+        if (averageNanos > baselineNanos * tolerance) {
+            limit = Math.max(minimum, (int) (current * backoffRatio));
+        } else if (maxInFlight * 2 >= current) {
+            limit = Math.min(maximum, current + 1);
+        }
+        windowStart = now;
+        samples = 0;
+        sumNanos = 0;
+        maxInFlight = 0;
+    }
+}
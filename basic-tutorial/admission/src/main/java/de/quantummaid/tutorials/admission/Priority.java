@@ -0,0 +1,43 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.admission;
+
+/**
+ * How much of the current {@link AdmissionControl} limit the requests of a route may occupy.
+ * When the limit shrinks under overload, {@link #SHEDDABLE} routes are rejected first and
+ * {@link #CRITICAL} routes last.
+ */
+public enum Priority {
+    CRITICAL(1.0),
+    NORMAL(0.8),
+    SHEDDABLE(0.5);
+
+    private final double share;
+
+    Priority(final double share) {
+        this.share = share;
+    }
+
+    int allowance(final int limit) {
+        return Math.max(1, (int) Math.ceil(limit * share));
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.admission;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class AimdLimitTest {
+    private static final long WINDOW_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    private static final long FAST_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+    private static final long SLOW_NANOS = TimeUnit.MILLISECONDS.toNanos(5);
+
+    private AimdLimit limit;
+    private long now;
+
+    @BeforeEach
+    public void createLimit() {
+        limit = new AimdLimit(10, 2, 12, 1.5, 0.5, WINDOW_NANOS);
+        now = System.nanoTime();
+    }
+
+    @Test
+    public void testLimitGrowsByOneWhenLatencyStaysAtTheBaseline() {
+        window(FAST_NANOS, 10);
+        assertEquals(11, limit.limit());
+        window(FAST_NANOS, 11);
+        assertEquals(12, limit.limit());
+        assertEquals(1.0, limit.baselineMillis(), 1e-9);
+    }
+
+    @Test
+    public void testLimitDoesNotGrowBeyondTheMaximum() {
+        for (int i = 0; i < 5; ++i) {
+            window(FAST_NANOS, 12);
+        }
+        assertEquals(12, limit.limit());
+    }
+
+    @Test
+    public void testLimitDoesNotGrowWhenLessThanHalfOfItWasUsed() {
+        window(FAST_NANOS, 4);
+        assertEquals(10, limit.limit());
+        window(FAST_NANOS, 5);
+        assertEquals(11, limit.limit());
+    }
+
+    @Test
+    public void testRejectionsCountAsUsingTheWholeLimit() {
+        for (int i = 0; i < AimdLimit.MINIMUM_WINDOW_SAMPLES - 1; ++i) {
+            limit.onSample(FAST_NANOS, 1, now);
+        }
+        limit.onRejected();
+        now += WINDOW_NANOS;
+        limit.onSample(FAST_NANOS, 1, now);
+        assertEquals(11, limit.limit());
+    }
+
+    @Test
+    public void testLimitBacksOffWhenLatencyExceedsTheBaselineByMoreThanTheTolerance() {
+        window(FAST_NANOS, 10);
+        assertEquals(11, limit.limit());
+        window(SLOW_NANOS, 11);
+        assertEquals(5, limit.limit());
+        assertEquals(1.0, limit.baselineMillis(), 1e-9);
+    }
+
+    @Test
+    public void testLatencyWithinTheToleranceDoesNotBackOff() {
+        window(FAST_NANOS, 10);
+        window(FAST_NANOS * 3 / 2, 11);
+        assertEquals(12, limit.limit());
+    }
+
+    @Test
+    public void testLimitDoesNotBackOffBelowTheMinimum() {
+        window(FAST_NANOS, 10);
+        window(SLOW_NANOS, 11);
+        window(SLOW_NANOS, 5);
+        assertEquals(2, limit.limit());
+    }
+
+    @Test
+    public void testBaselineIsResetAtTheMinimumLimit() {
+        window(FAST_NANOS, 10);
+        window(SLOW_NANOS, 11);
+        window(SLOW_NANOS, 5);
+        assertEquals(2, limit.limit());
+        assertEquals(1.0, limit.baselineMillis(), 1e-9);
+
+        window(SLOW_NANOS, 2);
+        assertEquals(5.0, limit.baselineMillis(), 1e-9);
+        assertEquals(3, limit.limit());
+        window(SLOW_NANOS, 3);
+        assertEquals(4, limit.limit());
+    }
+
+    @Test
+    public void testWindowNeedsTheMinimumNumberOfSamples() {
+        for (int i = 0; i < AimdLimit.MINIMUM_WINDOW_SAMPLES - 1; ++i) {
+            now += WINDOW_NANOS;
+            limit.onSample(SLOW_NANOS, 10, now);
+        }
+        assertEquals(10, limit.limit());
+        limit.onSample(SLOW_NANOS, 10, now);
+        assertEquals(11, limit.limit());
+    }
+
+    @Test
+    public void testWindowNeedsTheMinimumDuration() {
+        window(FAST_NANOS, 10);
+        for (int i = 0; i < AimdLimit.MINIMUM_WINDOW_SAMPLES * 3; ++i) {
+            limit.onSample(SLOW_NANOS, 11, now + WINDOW_NANOS - 1);
+        }
+        assertEquals(11, limit.limit());
+        limit.onSample(SLOW_NANOS, 11, now + WINDOW_NANOS);
+        assertEquals(5, limit.limit());
+    }
+
+    @Test
+    public void testInvalidLimitsAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new AimdLimit(1, 0, 10, 1.5, 0.5, WINDOW_NANOS));
+        assertThrows(IllegalArgumentException.class, () -> new AimdLimit(1, 2, 10, 1.5, 0.5, WINDOW_NANOS));
+        assertThrows(IllegalArgumentException.class, () -> new AimdLimit(11, 2, 10, 1.5, 0.5, WINDOW_NANOS));
+    }
+
+    private void window(final long latencyNanos, final int inFlight) {
+        now += WINDOW_NANOS;
+        for (int i = 0; i < AimdLimit.MINIMUM_WINDOW_SAMPLES; ++i) {
+            limit.onSample(latencyNanos, inFlight, now);
+        }
+    }
+}
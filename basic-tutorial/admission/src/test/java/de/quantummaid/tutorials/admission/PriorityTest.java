@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.admission;
+
+import org.junit.jupiter.api.Test;
+
+import static de.quantummaid.tutorials.admission.Priority.CRITICAL;
+import static de.quantummaid.tutorials.admission.Priority.NORMAL;
+import static de.quantummaid.tutorials.admission.Priority.SHEDDABLE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class PriorityTest {
+
+    @Test
+    public void testAllowanceIsTheShareOfTheLimitRoundedUp() {
+        assertEquals(10, CRITICAL.allowance(10));
+        assertEquals(8, NORMAL.allowance(10));
+        assertEquals(5, SHEDDABLE.allowance(10));
+        assertEquals(3, NORMAL.allowance(3));
+        assertEquals(2, SHEDDABLE.allowance(3));
+    }
+
+    @Test
+    public void testEveryPriorityIsAllowedOneRequestAtTheSmallestLimit() {
+        for (final Priority priority : Priority.values()) {
+            assertEquals(1, priority.allowance(1));
+        }
+    }
+
+    @Test
+    public void testLowerPrioritiesAreNeverAllowedMore() {
+        for (int limit = 1; limit <= 1000; ++limit) {
+            assertEquals(limit, CRITICAL.allowance(limit));
+            assertTrue(NORMAL.allowance(limit) <= CRITICAL.allowance(limit));
+            assertTrue(SHEDDABLE.allowance(limit) <= NORMAL.allowance(limit));
+        }
+    }
+}
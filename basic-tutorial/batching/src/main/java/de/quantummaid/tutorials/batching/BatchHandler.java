@@ -0,0 +1,136 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.batching;
+
+import de.quantummaid.httpmaid.handler.http.HttpHandler;
+import de.quantummaid.httpmaid.handler.http.HttpRequest;
+import de.quantummaid.httpmaid.handler.http.HttpResponse;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+
+import static de.quantummaid.tutorials.batching.JsonValues.appendJson;
+import static de.quantummaid.tutorials.batching.JsonValues.appendString;
+import static de.quantummaid.tutorials.batching.JsonValues.parseJson;
+
+/**
+ * Serves a batch of use case invocations with a single request. The body is a JSON array with one input per
+ * element; it is decoded once, the invocation runs for every element, and the response is an array of the same
+ * length holding either {@code {"result": ...}} or {@code {"error": "..."}} per element:
+ *
+ * <pre>{@code
+ * .post("/hello:batch", batchHandler(input -> greetingUseCase.hello(String.valueOf(input))))
+ * }</pre>
+ *
+ * <p>A failing element does not fail the batch. Batches with at least {@link #inParallelFrom(int)} elements are
+ * spread over the common {@code ForkJoinPool}, so the invocation has to be thread-safe. Batches with more than
+ * {@link #limitedTo(int)} elements, 1000 by default, are rejected with {@code 413 Payload Too Large} before any
+ * element is invoked. The response is assembled in memory once every element is done; it is not streamed.</p>
+ */
+public final class BatchHandler implements HttpHandler {
+    private static final int BAD_REQUEST = 400;
+    private static final int PAYLOAD_TOO_LARGE = 413;
+    private static final int SEQUENTIAL_ONLY = Integer.MAX_VALUE;
+    private static final int DEFAULT_MAX_BATCH_SIZE = 1000;
+    private static final int ESTIMATED_RESULT_LENGTH = 32;
+
+    private final Function<Object, Object> invocation;
+    private final int parallelBatchSize;
+    private final int maxBatchSize;
+
+    private BatchHandler(final Function<Object, Object> invocation,
+                         final int parallelBatchSize,
+                         final int maxBatchSize) {
+        this.invocation = invocation;
+        this.parallelBatchSize = parallelBatchSize;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    public static BatchHandler batchHandler(final Function<Object, Object> invocation) {
+        return new BatchHandler(invocation, SEQUENTIAL_ONLY, DEFAULT_MAX_BATCH_SIZE);
+    }
+
+    public BatchHandler inParallelFrom(final int batchSize) {
+        return new BatchHandler(invocation, batchSize, maxBatchSize);
+    }
+
+    public BatchHandler limitedTo(final int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("the maximum batch size must be positive but was " + batchSize);
+        }
+        return new BatchHandler(invocation, parallelBatchSize, batchSize);
+    }
+
+    @Override
+    public void handle(final HttpRequest request, final HttpResponse response) {
+        final List<?> inputs;
+        try {
+            final Object body = parseJson(request.bodyString());
+            if (!(body instanceof List)) {
+                throw new IllegalArgumentException("the body of a batch request must be a JSON array");
+            }
+            inputs = (List<?>) body;
+        } catch (final IllegalArgumentException e) {
+            response.setStatus(BAD_REQUEST);
+            response.setBody(errorObject(e));
+            return;
+        }
+        if (inputs.size() > maxBatchSize) {
+            response.setStatus(PAYLOAD_TOO_LARGE);
+            response.setBody(errorObject(new IllegalArgumentException(
+                    "a batch holds at most " + maxBatchSize + " elements but got " + inputs.size())));
+            return;
+        }
+
+        final String[] results = new String[inputs.size()];
+        final IntStream indices = IntStream.range(0, results.length);
+        (results.length >= parallelBatchSize ? indices.parallel() : indices)
+                .forEach(index -> results[index] = invoke(inputs.get(index)));
+
+        final StringBuilder json = new StringBuilder(results.length * ESTIMATED_RESULT_LENGTH + 2).append('[');
+        for (int i = 0; i < results.length; ++i) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append(results[i]);
+        }
+        response.addHeader("Content-Type", "application/json");
+        response.setBody(json.append(']').toString());
+    }
+
+    private String invoke(final Object input) {
+        try {
+            final StringBuilder result = new StringBuilder("{\"result\":");
+            appendJson(invocation.apply(input), result);
+            return result.append('}').toString();
+        } catch (final RuntimeException e) {
+            return errorObject(e);
+        }
+    }
+
+    private static String errorObject(final RuntimeException e) {
+        final StringBuilder error = new StringBuilder("{\"error\":");
+        appendString(e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage(), error);
+        return error.append('}').toString();
+    }
+}
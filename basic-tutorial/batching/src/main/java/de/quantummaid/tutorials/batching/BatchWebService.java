@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+//Showcase start batchwebservice
+
+package de.quantummaid.tutorials.batching;
+
+import de.quantummaid.quantummaid.QuantumMaid;
+import de.quantummaid.tutorials.GreetingUseCase;
+
+import java.util.Map;
+
+import static de.quantummaid.tutorials.batching.BatchHandler.batchHandler;
+
+public final class BatchWebService {
+    private static final int PORT = 8080;
+    private static final int PARALLEL_BATCH_SIZE = 64;
+
+    public static void main(final String[] args) {
+        createQuantumMaid(PORT).run();
+    }
+
+    public static QuantumMaid createQuantumMaid(final int port) {
+        final GreetingUseCase greetingUseCase = new GreetingUseCase();
+        return QuantumMaid.quantumMaid()
+                .get("/hello/<name>", GreetingUseCase.class)
+                .post("/hello", GreetingUseCase.class)
+                .post("/hello:batch", batchHandler(input -> greetingUseCase.hello(nameOf(input)))
+                        .inParallelFrom(PARALLEL_BATCH_SIZE))
+                .withLocalHostEndpointOnPort(port);
+    }
+
+    private static String nameOf(final Object input) {
+        if (input instanceof Map) {
+            final Object name = ((Map<?, ?>) input).get("name");
+            if (name == null) {
+                throw new IllegalArgumentException("missing name");
+            }
+            return name.toString();
+        }
+        if (input instanceof String) {
+            return (String) input;
+        }
+        throw new IllegalArgumentException("expected a name or { \"name\": ... } but got " + input);
+    }
+}
+//Showcase end batchwebservice
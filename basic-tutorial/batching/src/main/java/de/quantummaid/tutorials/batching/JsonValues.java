@@ -0,0 +1,250 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.batching;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Just enough JSON for batch bodies: parses any JSON text into {@code List}, {@code Map}, {@code String},
+ * {@code BigDecimal}, {@code Boolean} and {@code null}, and writes strings and scalar values.
+ */
+final class JsonValues {
+    private final String text;
+    private int position;
+
+    private JsonValues(final String text) {
+        this.text = text;
+    }
+
+    static Object parseJson(final String text) {
+        if (text == null) {
+            throw new IllegalArgumentException("missing body");
+        }
+        final JsonValues parser = new JsonValues(text);
+        final Object value = parser.readValue();
+        parser.skipWhitespace();
+        if (parser.position != text.length()) {
+            throw parser.error("unexpected trailing content");
+        }
+        return value;
+    }
+
+    static void appendJson(final Object value, final StringBuilder json) {
+        if (value == null) {
+            json.append("null");
+        } else if (value instanceof Number || value instanceof Boolean) {
+            json.append(value);
+        } else {
+            appendString(value.toString(), json);
+        }
+    }
+
+    static void appendString(final String value, final StringBuilder json) {
+        json.append('"');
+        for (int i = 0; i < value.length(); ++i) {
+            final char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    json.append("\\\"");
+                    break;
+                case '\\':
+                    json.append("\\\\");
+                    break;
+                case '\n':
+                    json.append("\\n");
+                    break;
+                case '\r':
+                    json.append("\\r");
+                    break;
+                case '\t':
+                    json.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        json.append(String.format(Locale.ROOT, "\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+            }
+        }
+        json.append('"');
+    }
+
+    private Object readValue() {
+        skipWhitespace();
+        if (position >= text.length()) {
+            throw error("unexpected end of input");
+        }
+        final char c = text.charAt(position);
+        switch (c) {
+            case '[':
+                return readArray();
+            case '{':
+                return readObject();
+            case '"':
+                return readString();
+            case 't':
+                return readLiteral("true", Boolean.TRUE);
+            case 'f':
+                return readLiteral("false", Boolean.FALSE);
+            case 'n':
+                return readLiteral("null", null);
+            default:
+                return readNumber();
+        }
+    }
+
+    private List<Object> readArray() {
+        ++position;
+        final List<Object> values = new ArrayList<>();
+        skipWhitespace();
+        if (consume(']')) {
+            return values;
+        }
+        do {
+            values.add(readValue());
+            skipWhitespace();
+        } while (consume(','));
+        expect(']');
+        return values;
+    }
+
+    private Map<String, Object> readObject() {
+        ++position;
+        final Map<String, Object> values = new LinkedHashMap<>();
+        skipWhitespace();
+        if (consume('}')) {
+            return values;
+        }
+        do {
+            skipWhitespace();
+            if (position >= text.length() || text.charAt(position) != '"') {
+                throw error("expected a member name");
+            }
+            final String name = readString();
+            skipWhitespace();
+            expect(':');
+            values.put(name, readValue());
+            skipWhitespace();
+        } while (consume(','));
+        expect('}');
+        return values;
+    }
+
+    private String readString() {
+        ++position;
+        final StringBuilder value = new StringBuilder();
+        while (position < text.length()) {
+            final char c = text.charAt(position++);
+            if (c == '"') {
+                return value.toString();
+            }
+            if (c != '\\') {
+                value.append(c);
+                continue;
+            }
+            if (position >= text.length()) {
+                break;
+            }
+            final char escaped = text.charAt(position++);
+            switch (escaped) {
+                case 'b':
+                    value.append('\b');
+                    break;
+                case 'f':
+                    value.append('\f');
+                    break;
+                case 'n':
+                    value.append('\n');
+                    break;
+                case 'r':
+                    value.append('\r');
+                    break;
+                case 't':
+                    value.append('\t');
+                    break;
+                case 'u':
+                    if (position + 4 > text.length()) {
+                        throw error("incomplete unicode escape");
+                    }
+                    value.append((char) Integer.parseInt(text.substring(position, position + 4), 16));
+                    position += 4;
+                    break;
+                default:
+                    value.append(escaped);
+            }
+        }
+        throw error("unterminated string");
+    }
+
+    private Object readLiteral(final String literal, final Object value) {
+        if (!text.startsWith(literal, position)) {
+            throw error("unexpected character");
+        }
+        position += literal.length();
+        return value;
+    }
+
+    private BigDecimal readNumber() {
+        final int start = position;
+        while (position < text.length() && "+-0123456789.eE".indexOf(text.charAt(position)) >= 0) {
+            ++position;
+        }
+        if (start == position) {
+            throw error("unexpected character");
+        }
+        try {
+            return new BigDecimal(text.substring(start, position));
+        } catch (final NumberFormatException e) {
+            throw error("malformed number");
+        }
+    }
+
+    private void skipWhitespace() {
+        while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+            ++position;
+        }
+    }
+
+    private boolean consume(final char c) {
+        if (position < text.length() && text.charAt(position) == c) {
+            ++position;
+            return true;
+        }
+        return false;
+    }
+
+    private void expect(final char c) {
+        if (!consume(c)) {
+            throw error("expected '" + c + "'");
+        }
+    }
+
+    private IllegalArgumentException error(final String message) {
+        return new IllegalArgumentException(message + " at position " + position);
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.batching;
+
+import de.quantummaid.httpmaid.awslambda.AwsLambdaEndpoint;
+import de.quantummaid.quantummaid.QuantumMaid;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static de.quantummaid.httpmaid.awslambda.AwsLambdaEndpoint.awsLambdaEndpointFor;
+import static de.quantummaid.tutorials.batching.BatchHandler.batchHandler;
+import static de.quantummaid.tutorials.events.ApiGatewayEvents.restApiPostEvent;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Requests are dispatched in-process through the Lambda endpoint, so every test can register its own invocation.
+ */
+public final class BatchHandlerTest {
+
+    @Test
+    public void testMalformedJsonIsBadRequest() {
+        final AwsLambdaEndpoint endpoint = endpointFor(batchHandler(input -> input));
+        for (final String body : new String[]{"", "[1,", "[1 2]", "{not json}", "[\"unterminated]", "[1] 2"}) {
+            assertEquals("400", statusCode(endpoint, body), body);
+        }
+    }
+
+    @Test
+    public void testBodiesOtherThanArraysAreBadRequest() {
+        final AwsLambdaEndpoint endpoint = endpointFor(batchHandler(input -> input));
+        for (final String body : new String[]{"{\"name\": \"quantummaid\"}", "\"quantummaid\"", "42", "null"}) {
+            final Map<String, Object> response = endpoint.delegate(restApiPostEvent("/batch", body));
+            assertEquals("400", String.valueOf(response.get("statusCode")), body);
+            assertEquals("{\"error\":\"the body of a batch request must be a JSON array\"}", response.get("body"));
+        }
+    }
+
+    @Test
+    public void testFailingElementsGetAnErrorOfTheirOwn() {
+        final AwsLambdaEndpoint endpoint = endpointFor(batchHandler(input -> {
+            if (input == null) {
+                throw new IllegalStateException();
+            }
+            if (!(input instanceof String)) {
+                throw new IllegalArgumentException("not a name: " + input);
+            }
+            return "hello " + input;
+        }));
+        assertResponse(endpoint, "[\"a\", 1, null, \"b\"]", "200",
+                "[{\"result\":\"hello a\"},{\"error\":\"not a name: 1\"},{\"error\":\"IllegalStateException\"},"
+                        + "{\"result\":\"hello b\"}]");
+        assertResponse(endpoint, "[]", "200", "[]");
+    }
+
+    @Test
+    public void testParallelBatchesKeepTheOrderOfTheElements() {
+        final int batchSize = 500;
+        final AwsLambdaEndpoint endpoint = endpointFor(batchHandler(input -> input).inParallelFrom(2));
+        final String inputs = IntStream.range(0, batchSize)
+                .mapToObj(String::valueOf)
+                .collect(Collectors.joining(",", "[", "]"));
+        final String results = IntStream.range(0, batchSize)
+                .mapToObj(index -> "{\"result\":" + index + "}")
+                .collect(Collectors.joining(",", "[", "]"));
+        assertResponse(endpoint, inputs, "200", results);
+    }
+
+    @Test
+    public void testResultsAndErrorsAreEscaped() {
+        final AwsLambdaEndpoint endpoint = endpointFor(batchHandler(input -> {
+            if ("fail".equals(input)) {
+                throw new IllegalArgumentException("bad \"input\"\n");
+            }
+            return "say \"hi\"\\\t\n" + (char) 1;
+        }));
+        assertResponse(endpoint, "[\"greet\", \"fail\"]", "200",
+                "[{\"result\":\"say \\\"hi\\\"\\\\\\t\\n\\u0001\"},{\"error\":\"bad \\\"input\\\"\\n\"}]");
+    }
+
+    @Test
+    public void testBatchesAboveTheLimitArePayloadTooLarge() {
+        final AtomicInteger invocations = new AtomicInteger();
+        final AwsLambdaEndpoint endpoint = endpointFor(batchHandler(input -> invocations.incrementAndGet())
+                .limitedTo(3));
+        assertResponse(endpoint, "[1, 2, 3, 4]", "413", "{\"error\":\"a batch holds at most 3 elements but got 4\"}");
+        assertEquals(0, invocations.get());
+        assertEquals("200", statusCode(endpoint, "[1, 2, 3]"));
+        assertEquals(3, invocations.get());
+    }
+
+    @Test
+    public void testTheLimitMustBePositive() {
+        assertThrows(IllegalArgumentException.class, () -> batchHandler(input -> input).limitedTo(0));
+    }
+
+    private static AwsLambdaEndpoint endpointFor(final BatchHandler handler) {
+        return awsLambdaEndpointFor(QuantumMaid.quantumMaid()
+                .post("/batch", handler)
+                .httpMaid());
+    }
+
+    private static String statusCode(final AwsLambdaEndpoint endpoint, final String body) {
+        return String.valueOf(endpoint.delegate(restApiPostEvent("/batch", body)).get("statusCode"));
+    }
+
+    private static void assertResponse(final AwsLambdaEndpoint endpoint,
+                                       final String body,
+                                       final String statusCode,
+                                       final String responseBody) {
+        final Map<String, Object> response = endpoint.delegate(restApiPostEvent("/batch", body));
+        assertEquals(statusCode, String.valueOf(response.get("statusCode")), String.valueOf(response));
+        assertEquals(responseBody, response.get("body"));
+    }
+}
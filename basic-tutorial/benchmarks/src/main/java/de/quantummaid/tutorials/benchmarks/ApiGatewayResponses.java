@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.benchmarks;
+
+import java.util.Map;
+
+/**
+ * Reads the API Gateway proxy responses HttpMaid answers the events from
+ * {@code de.quantummaid.tutorials.events.ApiGatewayEvents} with.
+ * Together with {@code AwsLambdaEndpoint.delegate} those events are the cheapest way to push a request through
+ * the complete HttpMaid pipeline (routing, path parameters, body mapping, use case, serialization)
+ * without opening a socket.
+ */
+final class ApiGatewayResponses {
+
+    private ApiGatewayResponses() {
+    }
+
+    static String statusCodeOf(final Map<String, Object> response) {
+        return String.valueOf(response.get("statusCode"));
+    }
+
+    static String bodyOf(final Map<String, Object> response) {
+        return String.valueOf(response.get("body"));
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.benchmarks;
+
+import de.quantummaid.tutorials.batching.BatchWebService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static de.quantummaid.tutorials.benchmarks.LocalGreetingService.startLocalGreetingService;
+
+/**
+ * {@code batchSize} greetings fetched with as many {@code GET /hello/<name>} requests, compared with a single
+ * {@code POST /hello:batch} served by {@code BatchWebService} of the batching module. Both run over a keep-alive HTTP/1.1 connection
+ * to the local endpoint; batches of 64 and more are invoked in parallel.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BatchingBenchmark {
+
+    @Param({"1", "10", "100", "1000"})
+    public int batchSize;
+
+    private LocalGreetingService service;
+    private String[] paths;
+    private String batch;
+
+    @Setup
+    public void setUp() throws IOException, InterruptedException {
+        service = startLocalGreetingService(BatchWebService::createQuantumMaid);
+        paths = IntStream.range(0, batchSize).mapToObj(i -> "/hello/name" + i).toArray(String[]::new);
+        batch = IntStream.range(0, batchSize).mapToObj(i -> "\"name" + i + "\"")
+                .collect(Collectors.joining(",", "[", "]"));
+
+        final String expected = IntStream.range(0, batchSize).mapToObj(i -> "{\"result\":\"hello name" + i + "\"}")
+                .collect(Collectors.joining(",", "[", "]"));
+        final HttpResponse<String> response = oneBatch();
+        if (response.statusCode() != 200 || !expected.equals(response.body())) {
+            throw new IllegalStateException("unexpected batch response: " + response.statusCode() + " " + response.body());
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        service.close();
+    }
+
+    @Benchmark
+    public void singleRequests(final Blackhole blackhole) throws IOException, InterruptedException {
+        for (final String path : paths) {
+            blackhole.consume(service.get(path));
+        }
+    }
+
+    @Benchmark
+    public HttpResponse<String> oneBatch() throws IOException, InterruptedException {
+        return service.post("/hello:batch", batch);
+    }
+}
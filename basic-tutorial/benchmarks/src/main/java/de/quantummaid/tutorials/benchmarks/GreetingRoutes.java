@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.benchmarks;
+
+import de.quantummaid.httpmaid.awslambda.AwsLambdaEndpoint;
+import de.quantummaid.quantummaid.QuantumMaid;
+import de.quantummaid.tutorials.GreetingUseCase;
+import de.quantummaid.tutorials.codegen.SpecializeUseCases;
+
+import static de.quantummaid.httpmaid.awslambda.AwsLambdaEndpoint.awsLambdaEndpointFor;
+import static de.quantummaid.tutorials.benchmarks.GreetingUseCaseMappers.helloFromBody;
+import static de.quantummaid.tutorials.benchmarks.GreetingUseCaseMappers.helloFromPath;
+
+/**
+ * The routes of {@code WebService.createQuantumMaid(port)} from step5, without the local endpoint,
+ * so they can be dispatched in-process.
+ */
+@SpecializeUseCases(GreetingUseCase.class)
+final class GreetingRoutes {
+
+    private GreetingRoutes() {
+    }
+
+    static QuantumMaid greetingRoutes() {
+        return QuantumMaid.quantumMaid()
+                .get("/hello/<name>", GreetingUseCase.class)
+                .post("/hello", GreetingUseCase.class);
+    }
+
+    static QuantumMaid generatedGreetingRoutes() {
+        final GreetingUseCase greetingUseCase = new GreetingUseCase();
+        return QuantumMaid.quantumMaid()
+                .get("/hello/<name>", helloFromPath(greetingUseCase))
+                .post("/hello", helloFromBody(greetingUseCase));
+    }
+
+    static AwsLambdaEndpoint inProcessEndpointFor(final QuantumMaid quantumMaid) {
+        return awsLambdaEndpointFor(quantumMaid.httpMaid());
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.benchmarks;
+
+import de.quantummaid.httpmaid.awslambda.AwsLambdaEndpoint;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static de.quantummaid.tutorials.benchmarks.ApiGatewayResponses.bodyOf;
+import static de.quantummaid.tutorials.benchmarks.ApiGatewayResponses.statusCodeOf;
+import static de.quantummaid.tutorials.benchmarks.GreetingRoutes.greetingRoutes;
+import static de.quantummaid.tutorials.benchmarks.GreetingRoutes.inProcessEndpointFor;
+import static de.quantummaid.tutorials.events.ApiGatewayEvents.restApiGetEvent;
+import static de.quantummaid.tutorials.events.ApiGatewayEvents.restApiPostEvent;
+
+/**
+ * Cost of the framework itself: routing, path parameter extraction, JSON body mapping,
+ * invocation of {@code GreetingUseCase.hello} and response serialization, without sockets.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InProcessDispatchBenchmark {
+    private static final String EXPECTED_BODY = "\"hello quantummaid\"";
+
+    private AwsLambdaEndpoint endpoint;
+    private Map<String, Object> getRequest;
+    private Map<String, Object> postRequest;
+
+    @Setup
+    public void setUp() {
+        endpoint = inProcessEndpointFor(greetingRoutes());
+        getRequest = restApiGetEvent("/hello/quantummaid");
+        postRequest = restApiPostEvent("/hello", "{ \"name\": \"quantummaid\" }");
+        verify(endpoint.delegate(getRequest));
+        verify(endpoint.delegate(postRequest));
+    }
+
+    @Benchmark
+    public Map<String, Object> getHelloName() {
+        return endpoint.delegate(getRequest);
+    }
+
+    @Benchmark
+    public Map<String, Object> postHello() {
+        return endpoint.delegate(postRequest);
+    }
+
+    private static void verify(final Map<String, Object> response) {
+        if (!"200".equals(statusCodeOf(response)) || !EXPECTED_BODY.equals(bodyOf(response))) {
+            throw new IllegalStateException("unexpected response " + response);
+        }
+    }
+}
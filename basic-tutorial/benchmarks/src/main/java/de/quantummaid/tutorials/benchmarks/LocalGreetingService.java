@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.benchmarks;
+
+import de.quantummaid.quantummaid.QuantumMaid;
+import de.quantummaid.tutorials.WebService;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.function.IntFunction;
+
+import static java.net.http.HttpClient.Version.HTTP_1_1;
+
+/**
+ * Runs {@code WebService.createQuantumMaid(port)} from step5 (or another web service with the same routes)
+ * on a free local port and talks to it over a keep-alive HTTP/1.1 connection.
+ */
+final class LocalGreetingService implements AutoCloseable {
+    private static final int STARTUP_ATTEMPTS = 100;
+    private static final long STARTUP_POLL_MILLIS = 50;
+
+    private final QuantumMaid quantumMaid;
+    private final HttpClient client;
+    private final int port;
+    private final String baseUrl;
+
+    private LocalGreetingService(final QuantumMaid quantumMaid, final HttpClient client, final int port) {
+        this.quantumMaid = quantumMaid;
+        this.client = client;
+        this.port = port;
+        this.baseUrl = "http://localhost:" + port;
+    }
+
+    static LocalGreetingService startLocalGreetingService() throws IOException, InterruptedException {
+        return startLocalGreetingService(WebService::createQuantumMaid);
+    }
+
+    static LocalGreetingService startLocalGreetingService(final IntFunction<QuantumMaid> webService)
+            throws IOException, InterruptedException {
+        final int port = freePort();
+        final QuantumMaid quantumMaid = webService.apply(port);
+        quantumMaid.runAsynchronously();
+        final HttpClient client = HttpClient.newBuilder()
+                .version(HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(1))
+                .build();
+        final LocalGreetingService service = new LocalGreetingService(quantumMaid, client, port);
+        service.awaitStartup();
+        return service;
+    }
+
+    HttpResponse<String> get(final String path) throws IOException, InterruptedException {
+        final HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .GET()
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    HttpResponse<String> post(final String path, final String body) throws IOException, InterruptedException {
+        final HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    int port() {
+        return port;
+    }
+
+    @Override
+    public void close() {
+        quantumMaid.close();
+    }
+
+    private void awaitStartup() throws IOException, InterruptedException {
+        for (int attempt = 1; attempt < STARTUP_ATTEMPTS; ++attempt) {
+            try {
+                get("/hello/startup");
+                return;
+            } catch (final ConnectException e) {
+                Thread.sleep(STARTUP_POLL_MILLIS);
+            }
+        }
+        get("/hello/startup");
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.benchmarks;
+
+import de.quantummaid.tutorials.metrics.RouteMetrics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import static de.quantummaid.tutorials.metrics.InMemoryMetricsRegistry.inMemoryMetricsRegistry;
+
+/**
+ * What {@code TimedHandler} adds to every request: the in-flight gauge, two clock reads, the counters
+ * and the histogram, recorded from several threads into the same route. The budget is one microsecond;
+ * {@code clockOnly} shows how much of it the two {@code System.nanoTime()} calls take.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(4)
+@Fork(1)
+public class MetricsRecordingBenchmark {
+    private static final int OK = 200;
+
+    private RouteMetrics metrics;
+
+    @Setup
+    public void setUp() {
+        metrics = inMemoryMetricsRegistry().routeMetrics("/hello/<name>");
+    }
+
+    @Benchmark
+    public long clockOnly() {
+        final long start = System.nanoTime();
+        return System.nanoTime() - start;
+    }
+
+    @Benchmark
+    public void recordRequest() {
+        metrics.requestStarted();
+        final long start = System.nanoTime();
+        metrics.requestFinished(System.nanoTime() - start, OK);
+    }
+}
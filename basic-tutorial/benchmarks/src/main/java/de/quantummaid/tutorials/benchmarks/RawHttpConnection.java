@@ -0,0 +1,162 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.benchmarks;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+/**
+ * A keep-alive HTTP/1.1 connection that sends pre-encoded requests and reads responses into a reused buffer.
+ * It does not allocate per exchange, so what the gc profiler reports per operation is allocated by the server.
+ */
+final class RawHttpConnection implements AutoCloseable {
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final byte[] HEADER_END = {'\r', '\n', '\r', '\n'};
+    private static final byte[] CONTENT_LENGTH = "content-length:".getBytes(US_ASCII);
+    private static final int STATUS_OFFSET = "HTTP/1.1 ".length();
+    private static final int STATUS_DIGITS = 3;
+    private static final int CASE_BIT = 0x20;
+
+    private final Socket socket;
+    private final OutputStream output;
+    private final InputStream input;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int bodyStart;
+    private int bodyLength;
+
+    private RawHttpConnection(final Socket socket) throws IOException {
+        this.socket = socket;
+        this.output = socket.getOutputStream();
+        this.input = socket.getInputStream();
+    }
+
+    static RawHttpConnection connectTo(final int port) throws IOException {
+        final Socket socket = new Socket("localhost", port);
+        socket.setTcpNoDelay(true);
+        return new RawHttpConnection(socket);
+    }
+
+    static byte[] getRequest(final String path) {
+        return ("GET " + path + " HTTP/1.1\r\nHost: localhost\r\nConnection: keep-alive\r\n\r\n").getBytes(US_ASCII);
+    }
+
+    /**
+     * Sends the request and reads the complete response, returning its status code.
+     */
+    int exchange(final byte[] request) throws IOException {
+        output.write(request);
+        output.flush();
+        int length = 0;
+        int headerEnd = -1;
+        while (headerEnd < 0) {
+            length = read(length);
+            headerEnd = indexOf(HEADER_END, 0, length);
+        }
+        bodyStart = headerEnd + HEADER_END.length;
+        bodyLength = contentLength(bodyStart);
+        while (length < bodyStart + bodyLength) {
+            length = read(length);
+        }
+        int status = 0;
+        for (int i = STATUS_OFFSET; i < STATUS_OFFSET + STATUS_DIGITS; ++i) {
+            status = status * 10 + buffer[i] - '0';
+        }
+        return status;
+    }
+
+    /**
+     * The body of the last response; allocates, so only meant for verification.
+     */
+    String body() {
+        return new String(buffer, bodyStart, bodyLength, US_ASCII);
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+
+    private int read(final int length) throws IOException {
+        if (length == buffer.length) {
+            throw new IllegalStateException("response does not fit into " + BUFFER_SIZE + " bytes");
+        }
+        final int read = input.read(buffer, length, buffer.length - length);
+        if (read < 0) {
+            throw new IOException("connection closed by server");
+        }
+        return length + read;
+    }
+
+    private int contentLength(final int headerEnd) {
+        int start = 0;
+        while (start < headerEnd) {
+            if (startsWithIgnoringCase(start, CONTENT_LENGTH)) {
+                int position = start + CONTENT_LENGTH.length;
+                while (buffer[position] == ' ') {
+                    ++position;
+                }
+                int value = 0;
+                while (buffer[position] >= '0' && buffer[position] <= '9') {
+                    value = value * 10 + buffer[position++] - '0';
+                }
+                return value;
+            }
+            start = nextLine(start, headerEnd);
+        }
+        throw new IllegalStateException("response without Content-Length");
+    }
+
+    private int nextLine(final int start, final int end) {
+        for (int i = start; i < end - 1; ++i) {
+            if (buffer[i] == '\r' && buffer[i + 1] == '\n') {
+                return i + 2;
+            }
+        }
+        return end;
+    }
+
+    private boolean startsWithIgnoringCase(final int start, final byte[] lowerCase) {
+        for (int i = 0; i < lowerCase.length; ++i) {
+            if ((buffer[start + i] | CASE_BIT) != lowerCase[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int indexOf(final byte[] pattern, final int from, final int to) {
+        for (int i = from; i <= to - pattern.length; ++i) {
+            int matched = 0;
+            while (matched < pattern.length && buffer[i + matched] == pattern[matched]) {
+                ++matched;
+            }
+            if (matched == pattern.length) {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
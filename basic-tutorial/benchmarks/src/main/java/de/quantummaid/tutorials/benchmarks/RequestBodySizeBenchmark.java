@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.benchmarks;
+
+import de.quantummaid.httpmaid.awslambda.AwsLambdaEndpoint;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static de.quantummaid.tutorials.benchmarks.ApiGatewayResponses.bodyOf;
+import static de.quantummaid.tutorials.benchmarks.GreetingRoutes.greetingRoutes;
+import static de.quantummaid.tutorials.benchmarks.GreetingRoutes.inProcessEndpointFor;
+import static de.quantummaid.tutorials.benchmarks.LocalGreetingService.startLocalGreetingService;
+import static de.quantummaid.tutorials.events.ApiGatewayEvents.restApiPostEvent;
+
+/**
+ * {@code POST /hello} as in {@code GreetingTest.testGreetingPost}, with a {@code name} that makes the body
+ * 1 KB to 10 MB large. Dividing the average time and the normalized allocation ({@code -prof gc}) by the
+ * body size gives the per-byte overhead of the body mapping. The use case echoes the name,
+ * so the response grows with the request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx512m")
+public class RequestBodySizeBenchmark {
+    private static final int KILOBYTE = 1024;
+    private static final String BODY_PREFIX = "{ \"name\": \"";
+    private static final String BODY_SUFFIX = "\" }";
+
+    @Param({"1", "16", "256", "1024", "10240"})
+    public int bodyKilobytes;
+
+    private String body;
+    private AwsLambdaEndpoint endpoint;
+    private Map<String, Object> request;
+    private LocalGreetingService service;
+
+    @Setup
+    public void setUp() throws IOException, InterruptedException {
+        final int nameLength = bodyKilobytes * KILOBYTE - BODY_PREFIX.length() - BODY_SUFFIX.length();
+        final String name = "q".repeat(nameLength);
+        body = BODY_PREFIX + name + BODY_SUFFIX;
+        final String expectedResponse = "\"hello " + name + "\"";
+
+        endpoint = inProcessEndpointFor(greetingRoutes());
+        request = restApiPostEvent("/hello", body);
+        if (!expectedResponse.equals(bodyOf(endpoint.delegate(request)))) {
+            throw new IllegalStateException("unexpected in-process response for " + bodyKilobytes + " KB");
+        }
+
+        service = startLocalGreetingService();
+        if (!expectedResponse.equals(service.post("/hello", body).body())) {
+            throw new IllegalStateException("unexpected response over socket for " + bodyKilobytes + " KB");
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        service.close();
+    }
+
+    @Benchmark
+    public Map<String, Object> inProcess() {
+        return endpoint.delegate(request);
+    }
+
+    @Benchmark
+    public HttpResponse<String> overSocket() throws IOException, InterruptedException {
+        return service.post("/hello", body);
+    }
+}
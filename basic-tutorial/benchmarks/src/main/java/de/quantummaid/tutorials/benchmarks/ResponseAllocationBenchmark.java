@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.benchmarks;
+
+import de.quantummaid.quantummaid.QuantumMaid;
+import de.quantummaid.tutorials.GreetingUseCase;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static de.quantummaid.tutorials.benchmarks.LocalGreetingService.startLocalGreetingService;
+import static de.quantummaid.tutorials.benchmarks.RawHttpConnection.connectTo;
+import static de.quantummaid.tutorials.benchmarks.RawHttpConnection.getRequest;
+
+/**
+ * Garbage produced by the local endpoint per small response. Requests are sent over a {@link RawHttpConnection},
+ * which does not allocate, so {@code gc.alloc.rate.norm} of {@code -prof gc} is what the server allocates to
+ * receive, dispatch and write a response: for the 19 byte {@code "hello quantummaid"} of the use case route,
+ * and for a constant 12 byte body set by a plain handler, which leaves out the use case mapping.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-XX:+UseParallelGC")
+public class ResponseAllocationBenchmark {
+    private static final byte[] USE_CASE_REQUEST = getRequest("/hello/quantummaid");
+    private static final byte[] HANDLER_REQUEST = getRequest("/helloworld");
+
+    private LocalGreetingService service;
+    private RawHttpConnection connection;
+
+    @Setup
+    public void setUp() throws IOException, InterruptedException {
+        service = startLocalGreetingService(port -> QuantumMaid.quantumMaid()
+                .get("/hello/<name>", GreetingUseCase.class)
+                .post("/hello", GreetingUseCase.class)
+                .get("/helloworld", (request, response) -> response.setBody("Hello World!"))
+                .withLocalHostEndpointOnPort(port));
+        connection = connectTo(service.port());
+        verify(useCaseResponse(), "\"hello quantummaid\"");
+        verify(handlerResponse(), "Hello World!");
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        connection.close();
+        service.close();
+    }
+
+    @Benchmark
+    public int useCaseResponse() throws IOException {
+        return connection.exchange(USE_CASE_REQUEST);
+    }
+
+    @Benchmark
+    public int handlerResponse() throws IOException {
+        return connection.exchange(HANDLER_REQUEST);
+    }
+
+    private void verify(final int status, final String expectedBody) {
+        if (status != 200 || !expectedBody.equals(connection.body())) {
+            throw new IllegalStateException("unexpected response: " + status + " " + connection.body());
+        }
+    }
+}
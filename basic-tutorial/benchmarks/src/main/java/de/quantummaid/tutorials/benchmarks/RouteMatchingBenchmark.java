@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.benchmarks;
+
+import de.quantummaid.httpmaid.awslambda.AwsLambdaEndpoint;
+import de.quantummaid.quantummaid.QuantumMaid;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static de.quantummaid.tutorials.benchmarks.ApiGatewayResponses.bodyOf;
+import static de.quantummaid.tutorials.benchmarks.GreetingRoutes.inProcessEndpointFor;
+import static de.quantummaid.tutorials.events.ApiGatewayEvents.restApiGetEvent;
+
+/**
+ * How the cost of dispatching a request depends on the number of registered path templates.
+ * Every route looks like {@code /service<i>/hello/<name>}, and requests go to the first, the middle
+ * and the last registered route. With matching that scales, all three stay flat from 5 to 5,000 routes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RouteMatchingBenchmark {
+
+    @Param({"5", "50", "500", "5000"})
+    public int routes;
+
+    private AwsLambdaEndpoint endpoint;
+    private Map<String, Object> firstRouteRequest;
+    private Map<String, Object> middleRouteRequest;
+    private Map<String, Object> lastRouteRequest;
+
+    @Setup
+    public void setUp() {
+        QuantumMaid quantumMaid = QuantumMaid.quantumMaid();
+        for (int i = 0; i < routes; ++i) {
+            final String service = "service" + i;
+            quantumMaid = quantumMaid.get("/" + service + "/hello/<name>", (request, response) ->
+                    response.setBody(service + " greets " + request.pathParameters().getPathParameter("name")));
+        }
+        endpoint = inProcessEndpointFor(quantumMaid);
+        firstRouteRequest = requestTo(0);
+        middleRouteRequest = requestTo(routes / 2);
+        lastRouteRequest = requestTo(routes - 1);
+    }
+
+    @Benchmark
+    public Map<String, Object> firstRoute() {
+        return endpoint.delegate(firstRouteRequest);
+    }
+
+    @Benchmark
+    public Map<String, Object> middleRoute() {
+        return endpoint.delegate(middleRouteRequest);
+    }
+
+    @Benchmark
+    public Map<String, Object> lastRoute() {
+        return endpoint.delegate(lastRouteRequest);
+    }
+
+    private Map<String, Object> requestTo(final int route) {
+        final Map<String, Object> request = restApiGetEvent("/service" + route + "/hello/quantummaid");
+        final String expectedBody = "service" + route + " greets quantummaid";
+        final String actualBody = bodyOf(endpoint.delegate(request));
+        if (!expectedBody.equals(actualBody)) {
+            throw new IllegalStateException("expected '" + expectedBody + "' but got '" + actualBody + "'");
+        }
+        return request;
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.benchmarks;
+
+import de.quantummaid.tutorials.sharding.ShardedEndpoint;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static de.quantummaid.tutorials.benchmarks.RawHttpConnection.connectTo;
+import static de.quantummaid.tutorials.benchmarks.RawHttpConnection.getRequest;
+import static de.quantummaid.tutorials.sharding.ShardedWebService.createShardedEndpoint;
+
+/**
+ * Requests per second for {@code GET /hello/<name>} served by the {@code ShardedEndpoint} of the
+ * <a href="../sharding">sharding</a> module with 1 to 16 shards. Every benchmark thread keeps its own
+ * keep-alive connection, and {@code SO_REUSEPORT} assigns each connection to one shard. The clients run in
+ * the same JVM, so use {@code -t} to leave cores for the shards on smaller machines.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(Threads.MAX)
+@Fork(1)
+public class ShardScalingBenchmark {
+    private static final String EXPECTED_BODY = "\"hello quantummaid\"";
+
+    @Param({"1", "2", "4", "8", "16"})
+    public int shards;
+
+    private ShardedEndpoint endpoint;
+
+    @Setup
+    public void setUp() {
+        endpoint = createShardedEndpoint(0, shards);
+    }
+
+    @TearDown
+    public void tearDown() {
+        endpoint.close();
+    }
+
+    @State(Scope.Thread)
+    public static class Client {
+        private final byte[] request = getRequest("/hello/quantummaid");
+        private RawHttpConnection connection;
+
+        @Setup
+        public void connect(final ShardScalingBenchmark benchmark) throws IOException {
+            connection = connectTo(benchmark.endpoint.port());
+            if (connection.exchange(request) != 200 || !EXPECTED_BODY.equals(connection.body())) {
+                throw new IllegalStateException("unexpected response " + connection.body());
+            }
+        }
+
+        @TearDown
+        public void disconnect() throws IOException {
+            connection.close();
+        }
+    }
+
+    @Benchmark
+    public int getHelloName(final Client client) throws IOException {
+        return client.connection.exchange(client.request);
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+import static de.quantummaid.tutorials.benchmarks.LocalGreetingService.startLocalGreetingService;
+
+/**
+ * The same routes as {@link InProcessDispatchBenchmark}, but served by {@code withLocalHostEndpointOnPort}
+ * and called over a keep-alive HTTP/1.1 connection. The difference between both benchmarks is the cost
+ * of the endpoint and the network stack. Note that the client shares the JVM, so the gc profiler
+ * attributes its allocations to the benchmark as well.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SocketDispatchBenchmark {
+    private static final String EXPECTED_BODY = "\"hello quantummaid\"";
+
+    private LocalGreetingService service;
+
+    @Setup
+    public void setUp() throws IOException, InterruptedException {
+        service = startLocalGreetingService();
+        verify(getHelloName());
+        verify(postHello());
+    }
+
+    @TearDown
+    public void tearDown() {
+        service.close();
+    }
+
+    @Benchmark
+    public HttpResponse<String> getHelloName() throws IOException, InterruptedException {
+        return service.get("/hello/quantummaid");
+    }
+
+    @Benchmark
+    public HttpResponse<String> postHello() throws IOException, InterruptedException {
+        return service.post("/hello", "{ \"name\": \"quantummaid\" }");
+    }
+
+    private static void verify(final HttpResponse<String> response) {
+        if (response.statusCode() != 200 || !EXPECTED_BODY.equals(response.body())) {
+            throw new IllegalStateException("unexpected response " + response + ": " + response.body());
+        }
+    }
+}
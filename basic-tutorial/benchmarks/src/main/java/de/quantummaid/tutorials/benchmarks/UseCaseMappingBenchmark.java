@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.benchmarks;
+
+import de.quantummaid.httpmaid.awslambda.AwsLambdaEndpoint;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static de.quantummaid.tutorials.benchmarks.ApiGatewayResponses.bodyOf;
+import static de.quantummaid.tutorials.benchmarks.ApiGatewayResponses.statusCodeOf;
+import static de.quantummaid.tutorials.benchmarks.GreetingRoutes.generatedGreetingRoutes;
+import static de.quantummaid.tutorials.benchmarks.GreetingRoutes.greetingRoutes;
+import static de.quantummaid.tutorials.benchmarks.GreetingRoutes.inProcessEndpointFor;
+import static de.quantummaid.tutorials.events.ApiGatewayEvents.restApiGetEvent;
+import static de.quantummaid.tutorials.events.ApiGatewayEvents.restApiPostEvent;
+
+/**
+ * Routing and the Lambda event translation are the same for both variants, so the difference is what
+ * QuantumMaid's reflective use case mapping costs over the generated {@code GreetingUseCaseMappers}.
+ * The setup doubles as the parity check: both variants must answer every request identically.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UseCaseMappingBenchmark {
+    private static final String EXPECTED_BODY = "\"hello quantummaid\"";
+
+    private AwsLambdaEndpoint reflective;
+    private AwsLambdaEndpoint generated;
+    private Map<String, Object> getRequest;
+    private Map<String, Object> postRequest;
+
+    @Setup
+    public void setUp() {
+        reflective = inProcessEndpointFor(greetingRoutes());
+        generated = inProcessEndpointFor(generatedGreetingRoutes());
+        getRequest = restApiGetEvent("/hello/quantummaid");
+        postRequest = restApiPostEvent("/hello", "{ \"name\": \"quantummaid\" }");
+        verifyBody(verifyParity(getRequest));
+        verifyBody(verifyParity(postRequest));
+        verifyParity(restApiPostEvent("/hello", "{ \"name\": \"quantum \\\"maid\\\" \\u00e9\" }"));
+    }
+
+    @Benchmark
+    public Map<String, Object> reflectiveGet() {
+        return reflective.delegate(getRequest);
+    }
+
+    @Benchmark
+    public Map<String, Object> generatedGet() {
+        return generated.delegate(getRequest);
+    }
+
+    @Benchmark
+    public Map<String, Object> reflectivePost() {
+        return reflective.delegate(postRequest);
+    }
+
+    @Benchmark
+    public Map<String, Object> generatedPost() {
+        return generated.delegate(postRequest);
+    }
+
+    private Map<String, Object> verifyParity(final Map<String, Object> request) {
+        final Map<String, Object> expected = reflective.delegate(request);
+        final Map<String, Object> actual = generated.delegate(request);
+        if (!"200".equals(statusCodeOf(expected))
+                || !statusCodeOf(expected).equals(statusCodeOf(actual))
+                || !bodyOf(expected).equals(bodyOf(actual))) {
+            throw new IllegalStateException("generated mapping answered " + actual + " instead of " + expected);
+        }
+        return actual;
+    }
+
+    private static void verifyBody(final Map<String, Object> response) {
+        if (!EXPECTED_BODY.equals(bodyOf(response))) {
+            throw new IllegalStateException("unexpected response " + response);
+        }
+    }
+}
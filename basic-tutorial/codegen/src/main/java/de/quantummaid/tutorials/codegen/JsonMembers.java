@@ -0,0 +1,262 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.codegen;
+
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * The runtime half of the generated mappers: reads single members out of a JSON object and writes
+ * JSON strings, without building a tree or going through reflection.
+ */
+public final class JsonMembers {
+    private static final int HEX = 16;
+    private static final String HEX_DIGITS = "0123456789abcdef";
+    private static final int UNICODE_ESCAPE_LENGTH = 4;
+    private static final int FIRST_PRINTABLE = 0x20;
+    private static final Pattern NUMBER = Pattern.compile("-?(0|[1-9][0-9]*)(\\.[0-9]+)?([eE][+-]?[0-9]+)?");
+
+    private JsonMembers() {
+    }
+
+    /**
+     * Returns the value of the top-level member {@code name} of the JSON object {@code json}: strings are
+     * unescaped, numbers and booleans are returned as written, and {@code null} is returned for a JSON
+     * {@code null} or a missing member. A missing value, an object or array, or any other unquoted literal is
+     * rejected with an {@link IllegalArgumentException}.
+     */
+    public static String member(final String json, final String name) {
+        final Reader reader = new Reader(json);
+        reader.expect('{');
+        if (reader.consume('}')) {
+            return null;
+        }
+        do {
+            final String key = reader.string();
+            reader.expect(':');
+            if (key.equals(name)) {
+                return reader.scalar();
+            }
+            reader.skipValue();
+        } while (reader.consume(','));
+        reader.expect('}');
+        return null;
+    }
+
+    /**
+     * Returns {@code value}, or rejects a missing parameter {@code name} that a primitive type cannot represent.
+     */
+    public static String required(final String value, final String name) {
+        if (value == null) {
+            throw new IllegalArgumentException("missing " + name);
+        }
+        return value;
+    }
+
+    /**
+     * Parses {@code true} or {@code false} and rejects anything else, unlike {@link Boolean#parseBoolean(String)}.
+     */
+    public static boolean parseBoolean(final String value) {
+        if ("true".equals(value)) {
+            return true;
+        }
+        if ("false".equals(value)) {
+            return false;
+        }
+        throw new IllegalArgumentException("expected true or false but got " + value);
+    }
+
+    public static String quote(final String value) {
+        if (value == null) {
+            return "null";
+        }
+        final StringBuilder json = new StringBuilder(value.length() + 2).append('"');
+        for (int i = 0; i < value.length(); ++i) {
+            final char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    json.append("\\\"");
+                    break;
+                case '\\':
+                    json.append("\\\\");
+                    break;
+                case '\n':
+                    json.append("\\n");
+                    break;
+                case '\r':
+                    json.append("\\r");
+                    break;
+                case '\t':
+                    json.append("\\t");
+                    break;
+                default:
+                    if (c < FIRST_PRINTABLE) {
+                        json.append(String.format(Locale.ROOT, "\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+            }
+        }
+        return json.append('"').toString();
+    }
+
+    private static final class Reader {
+        private final String json;
+        private int position;
+
+        private Reader(final String json) {
+            if (json == null) {
+                throw new IllegalArgumentException("missing JSON body");
+            }
+            this.json = json;
+        }
+
+        private boolean consume(final char expected) {
+            skipWhitespace();
+            if (position < json.length() && json.charAt(position) == expected) {
+                ++position;
+                return true;
+            }
+            return false;
+        }
+
+        private void expect(final char expected) {
+            if (!consume(expected)) {
+                throw new IllegalArgumentException("expected '" + expected + "' at position " + position);
+            }
+        }
+
+        private String scalar() {
+            skipWhitespace();
+            if (position < json.length() && json.charAt(position) == '"') {
+                return string();
+            }
+            final int start = position;
+            skipValue();
+            final String literal = json.substring(start, position);
+            if ("null".equals(literal)) {
+                return null;
+            }
+            if (!"true".equals(literal) && !"false".equals(literal) && !NUMBER.matcher(literal).matches()) {
+                throw new IllegalArgumentException("expected a string, number, boolean or null at position " + start);
+            }
+            return literal;
+        }
+
+        private String string() {
+            expect('"');
+            final StringBuilder value = new StringBuilder();
+            while (true) {
+                final char c = next();
+                if (c == '"') {
+                    return value.toString();
+                }
+                if (c != '\\') {
+                    value.append(c);
+                    continue;
+                }
+                final char escaped = next();
+                switch (escaped) {
+                    case 'b':
+                        value.append('\b');
+                        break;
+                    case 'f':
+                        value.append('\f');
+                        break;
+                    case 'n':
+                        value.append('\n');
+                        break;
+                    case 'r':
+                        value.append('\r');
+                        break;
+                    case 't':
+                        value.append('\t');
+                        break;
+                    case 'u':
+                        value.append(unicodeEscape());
+                        break;
+                    case '"':
+                    case '\\':
+                    case '/':
+                        value.append(escaped);
+                        break;
+                    default:
+                        throw new IllegalArgumentException("invalid escape at position " + (position - 1));
+                }
+            }
+        }
+
+        private char unicodeEscape() {
+            int code = 0;
+            for (int i = 0; i < UNICODE_ESCAPE_LENGTH; ++i) {
+                final int digit = HEX_DIGITS.indexOf(Character.toLowerCase(next()));
+                if (digit < 0) {
+                    throw new IllegalArgumentException("invalid unicode escape at position " + (position - 1));
+                }
+                code = code * HEX + digit;
+            }
+            return (char) code;
+        }
+
+        private void skipValue() {
+            skipWhitespace();
+            if (position >= json.length()) {
+                throw new IllegalArgumentException("unexpected end of JSON");
+            }
+            final char first = json.charAt(position);
+            if (first == '"') {
+                string();
+            } else if (first == '{' || first == '[') {
+                final char close = first == '{' ? '}' : ']';
+                ++position;
+                if (consume(close)) {
+                    return;
+                }
+                do {
+                    if (first == '{') {
+                        string();
+                        expect(':');
+                    }
+                    skipValue();
+                } while (consume(','));
+                expect(close);
+            } else {
+                while (position < json.length() && ",}] \t\r\n".indexOf(json.charAt(position)) < 0) {
+                    ++position;
+                }
+            }
+        }
+
+        private char next() {
+            if (position >= json.length()) {
+                throw new IllegalArgumentException("unexpected end of JSON");
+            }
+            return json.charAt(position++);
+        }
+
+        private void skipWhitespace() {
+            while (position < json.length() && Character.isWhitespace(json.charAt(position))) {
+                ++position;
+            }
+        }
+    }
+}
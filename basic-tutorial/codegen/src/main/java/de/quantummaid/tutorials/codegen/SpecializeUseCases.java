@@ -0,0 +1,47 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.codegen;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Asks {@link UseCaseMapperProcessor} to generate a {@code <UseCase>Mappers} class next to the annotated type
+ * for every listed use case:
+ *
+ * <pre>{@code
+ * @SpecializeUseCases(GreetingUseCase.class)
+ * final class GreetingRoutes {
+ *     ...
+ *         .get("/hello/<name>", GreetingUseCaseMappers.helloFromPath(new GreetingUseCase()))
+ * }</pre>
+ *
+ * <p>The use cases do not have to be part of the compilation - they are read from the classpath, but have to
+ * be compiled with {@code -parameters} so that their parameter names are known.</p>
+ */
+@Retention(RetentionPolicy.SOURCE)
+@Target(ElementType.TYPE)
+public @interface SpecializeUseCases {
+    Class<?>[] value();
+}
@@ -0,0 +1,285 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.codegen;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Generates a {@code <UseCase>Mappers} class for every use case listed in a {@link SpecializeUseCases}
+ * annotation. For each public method of the use case it emits two {@code HttpHandler} factories:
+ * {@code <method>FromPath} takes the parameters from the path parameters of the same names, and
+ * {@code <method>FromBody} takes them from the members of the JSON object in the request body.
+ * Both invoke the use case directly and write its return value as JSON.
+ *
+ * <p>Only {@code String}, {@code int}, {@code long}, {@code double} and {@code boolean} (or their boxed types) and
+ * custom primitives are mapped this way. A custom primitive is a class with a public
+ * {@code static T fromStringValue(String)} factory and a public {@code String stringValue()} method, which is how
+ * MapMaid recognizes value types by default; it is read from and written as a JSON string. A parameter that cannot
+ * be converted, including a boolean other than {@code true} or {@code false} and a factory that throws an
+ * {@link IllegalArgumentException}, is answered with {@code 400 Bad Request}.</p>
+ *
+ * <p>Methods with any other parameter or return type, such as records or other classes that are serialized as JSON
+ * objects, as well as overloaded methods, are reported with a note and get no factory; their routes stay
+ * registered with the use case class, which keeps them on QuantumMaid's regular reflective mapping.</p>
+ */
+@SupportedAnnotationTypes("de.quantummaid.tutorials.codegen.SpecializeUseCases")
+public final class UseCaseMapperProcessor extends AbstractProcessor {
+    private static final String SUFFIX = "Mappers";
+    private static final Pattern SYNTHETIC_NAME = Pattern.compile("arg\\d+");
+    private static final String STRING = "java.lang.String";
+    private static final String FACTORY = "fromStringValue";
+    private static final String STRING_VALUE = "stringValue";
+    private static final Map<String, String> CONVERSIONS = conversions();
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(final Set<? extends TypeElement> annotations, final RoundEnvironment roundEnv) {
+        for (final TypeElement annotation : annotations) {
+            for (final Element annotated : roundEnv.getElementsAnnotatedWith(annotation)) {
+                final String targetPackage = processingEnv.getElementUtils().getPackageOf(annotated)
+                        .getQualifiedName().toString();
+                useCasesOf(annotated, annotation).forEach(useCase -> generate(useCase, targetPackage, annotated));
+            }
+        }
+        return true;
+    }
+
+    private static List<TypeElement> useCasesOf(final Element annotated, final TypeElement annotation) {
+        return annotated.getAnnotationMirrors().stream()
+                .filter(mirror -> mirror.getAnnotationType().asElement().equals(annotation))
+                .flatMap(mirror -> mirror.getElementValues().values().stream())
+                .flatMap(value -> ((List<?>) value.getValue()).stream())
+                .map(value -> ((AnnotationValue) value).getValue())
+                // a class that cannot be resolved is already reported by the compiler
+                .filter(DeclaredType.class::isInstance)
+                .map(value -> (TypeElement) ((DeclaredType) value).asElement())
+                .collect(Collectors.toList());
+    }
+
+    private void generate(final TypeElement useCase, final String targetPackage, final Element origin) {
+        final String useCaseName = useCase.getQualifiedName().toString();
+        final String mappersName = useCase.getSimpleName() + SUFFIX;
+        final List<ExecutableElement> methods = ElementFilter.methodsIn(useCase.getEnclosedElements()).stream()
+                .filter(method -> method.getModifiers().contains(Modifier.PUBLIC))
+                .filter(method -> !method.getModifiers().contains(Modifier.STATIC))
+                .collect(Collectors.toList());
+        final Map<String, Long> overloads = methods.stream()
+                .collect(Collectors.groupingBy(method -> method.getSimpleName().toString(), Collectors.counting()));
+        final Set<String> customPrimitives = new HashSet<>();
+        for (final ExecutableElement method : methods) {
+            Stream.concat(Stream.of(method.getReturnType()), method.getParameters().stream().map(Element::asType))
+                    .filter(UseCaseMapperProcessor::isCustomPrimitive)
+                    .forEach(type -> customPrimitives.add(type.toString()));
+        }
+
+        final StringBuilder source = new StringBuilder();
+        if (!targetPackage.isEmpty()) {
+            source.append("package ").append(targetPackage).append(";\n\n");
+        }
+        source.append("import de.quantummaid.httpmaid.handler.http.HttpHandler;\n")
+                .append("import de.quantummaid.tutorials.codegen.JsonMembers;\n\n")
+                .append("/**\n * Generated by ").append(getClass().getName()).append(" from ").append(useCaseName)
+                .append(".\n */\n")
+                .append("public final class ").append(mappersName).append(" {\n\n")
+                .append("    private ").append(mappersName).append("() {\n    }\n");
+        for (final ExecutableElement method : methods) {
+            final String reason = unsupportedBecause(method, overloads, customPrimitives);
+            if (reason != null) {
+                processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE, useCaseName + "."
+                        + method + " keeps the reflective mapping: " + reason, origin);
+                continue;
+            }
+            appendFactory(source, useCaseName, method, false, customPrimitives);
+            appendFactory(source, useCaseName, method, true, customPrimitives);
+        }
+        source.append("}\n");
+
+        final String qualifiedName = targetPackage.isEmpty() ? mappersName : targetPackage + "." + mappersName;
+        try (Writer writer = processingEnv.getFiler().createSourceFile(qualifiedName, origin).openWriter()) {
+            writer.write(source.toString());
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static String unsupportedBecause(final ExecutableElement method,
+                                             final Map<String, Long> overloads,
+                                             final Set<String> customPrimitives) {
+        if (overloads.get(method.getSimpleName().toString()) > 1) {
+            return "it is overloaded";
+        }
+        if (conversionOf(method.getReturnType().toString(), customPrimitives) == null) {
+            return "unsupported return type " + method.getReturnType();
+        }
+        if (!method.getParameters().isEmpty() && method.getParameters().stream()
+                .allMatch(parameter -> SYNTHETIC_NAME.matcher(parameter.getSimpleName()).matches())) {
+            return "its parameter names are missing from the class file, compile it with -parameters";
+        }
+        for (final VariableElement parameter : method.getParameters()) {
+            if (conversionOf(parameter.asType().toString(), customPrimitives) == null) {
+                return "unsupported type " + parameter.asType() + " of parameter " + parameter.getSimpleName();
+            }
+        }
+        return null;
+    }
+
+    private static void appendFactory(final StringBuilder source,
+                                      final String useCaseName,
+                                      final ExecutableElement method,
+                                      final boolean fromBody,
+                                      final Set<String> customPrimitives) {
+        final String methodName = method.getSimpleName().toString();
+        source.append("\n    public static HttpHandler ").append(methodName).append(fromBody ? "FromBody" : "FromPath")
+                .append("(final ").append(useCaseName).append(" useCase) {\n")
+                .append("        return ($request, $response) -> {\n");
+        final List<? extends VariableElement> parameters = method.getParameters();
+        for (final VariableElement parameter : parameters) {
+            source.append("            final ").append(parameter.asType()).append(' ')
+                    .append(parameter.getSimpleName()).append(";\n");
+        }
+        if (!parameters.isEmpty()) {
+            source.append("            try {\n");
+            if (fromBody) {
+                source.append("                final String $body = $request.bodyString();\n");
+            }
+            for (final VariableElement parameter : parameters) {
+                final String name = parameter.getSimpleName().toString();
+                final String raw = fromBody
+                        ? "JsonMembers.member($body, \"" + name + "\")"
+                        : "$request.pathParameters().getPathParameter(\"" + name + "\")";
+                final String conversion = conversionOf(parameter.asType().toString(), customPrimitives);
+                source.append("                ").append(name).append(" = ")
+                        .append(String.format(Locale.ROOT, conversion, raw, name)).append(";\n");
+            }
+            source.append("            } catch (final IllegalArgumentException $e) {\n")
+                    .append("                $response.setStatus(400);\n")
+                    .append("                $response.addHeader(\"Content-Type\", \"application/json\");\n")
+                    .append("                $response.setBody(\"{\\\"message\\\":\"\n")
+                    .append("                        + JsonMembers.quote($e.getMessage()) + \"}\");\n")
+                    .append("                return;\n")
+                    .append("            }\n");
+        }
+        final String arguments = parameters.stream()
+                .map(parameter -> parameter.getSimpleName().toString())
+                .collect(Collectors.joining(", "));
+        final String invocation = "useCase." + methodName + "(" + arguments + ")";
+        final String returnType = method.getReturnType().toString();
+        final String body;
+        if (STRING.equals(returnType)) {
+            body = "JsonMembers.quote(" + invocation + ")";
+        } else if (customPrimitives.contains(returnType)) {
+            body = "JsonMembers.quote(java.util.Optional.ofNullable(" + invocation + ").map(" + returnType + "::"
+                    + STRING_VALUE + ").orElse(null))";
+        } else {
+            body = "String.valueOf(" + invocation + ")";
+        }
+        source.append("            $response.addHeader(\"Content-Type\", \"application/json\");\n")
+                .append("            $response.setBody(").append(body).append(");\n")
+                .append("        };\n")
+                .append("    }\n");
+    }
+
+    /**
+     * The format that converts the raw string {@code %1$s} of the parameter named {@code %2$s} into {@code type},
+     * or {@code null} if it is not mapped.
+     */
+    private static String conversionOf(final String type, final Set<String> customPrimitives) {
+        if (customPrimitives.contains(type)) {
+            return "java.util.Optional.ofNullable(%s).map(" + type + "::" + FACTORY + ").orElse(null)";
+        }
+        return CONVERSIONS.get(type);
+    }
+
+    private static boolean isCustomPrimitive(final TypeMirror type) {
+        if (type.getKind() != TypeKind.DECLARED || STRING.equals(type.toString())
+                || CONVERSIONS.containsKey(type.toString())) {
+            return false;
+        }
+        final TypeElement element = (TypeElement) ((DeclaredType) type).asElement();
+        if (element.getKind() != ElementKind.CLASS || !((DeclaredType) type).getTypeArguments().isEmpty()) {
+            return false;
+        }
+        final List<ExecutableElement> methods = ElementFilter.methodsIn(element.getEnclosedElements());
+        final boolean hasFactory = methods.stream().anyMatch(method -> isPublic(method)
+                && method.getModifiers().contains(Modifier.STATIC)
+                && method.getSimpleName().contentEquals(FACTORY)
+                && method.getParameters().size() == 1
+                && STRING.equals(method.getParameters().get(0).asType().toString())
+                && method.getReturnType().toString().equals(type.toString()));
+        final boolean hasStringValue = methods.stream().anyMatch(method -> isPublic(method)
+                && !method.getModifiers().contains(Modifier.STATIC)
+                && method.getSimpleName().contentEquals(STRING_VALUE)
+                && method.getParameters().isEmpty()
+                && STRING.equals(method.getReturnType().toString()));
+        return isPublic(element) && hasFactory && hasStringValue;
+    }
+
+    private static boolean isPublic(final Element element) {
+        return element.getModifiers().contains(Modifier.PUBLIC);
+    }
+
+    private static Map<String, String> conversions() {
+        final Map<String, String> conversions = new HashMap<>();
+        conversions.put(STRING, "%s");
+        conversions.put("int", "Integer.parseInt(JsonMembers.required(%1$s, \"%2$s\"))");
+        conversions.put("long", "Long.parseLong(JsonMembers.required(%1$s, \"%2$s\"))");
+        conversions.put("double", "Double.parseDouble(JsonMembers.required(%1$s, \"%2$s\"))");
+        conversions.put("boolean", "JsonMembers.parseBoolean(JsonMembers.required(%1$s, \"%2$s\"))");
+        conversions.put("java.lang.Integer", "java.util.Optional.ofNullable(%s).map(Integer::valueOf).orElse(null)");
+        conversions.put("java.lang.Long", "java.util.Optional.ofNullable(%s).map(Long::valueOf).orElse(null)");
+        conversions.put("java.lang.Double", "java.util.Optional.ofNullable(%s).map(Double::valueOf).orElse(null)");
+        conversions.put("java.lang.Boolean",
+                "java.util.Optional.ofNullable(%s).map(JsonMembers::parseBoolean).orElse(null)");
+        return conversions;
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.codegen;
+
+import org.junit.jupiter.api.Test;
+
+import static de.quantummaid.tutorials.codegen.JsonMembers.member;
+import static de.quantummaid.tutorials.codegen.JsonMembers.required;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public final class JsonMembersTest {
+
+    @Test
+    public void testScalarMembersAreReturnedAsWritten() {
+        assertEquals("quantummaid", member("{\"other\": [1, {}], \"name\": \"quantummaid\"}", "name"));
+        assertEquals("-1.5e3", member("{\"value\": -1.5e3}", "value"));
+        assertEquals("true", member("{\"value\":true}", "value"));
+        assertNull(member("{\"value\": null}", "value"));
+        assertNull(member("{\"other\": 1}", "value"));
+    }
+
+    @Test
+    public void testMissingValueIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> member("{\"name\": }", "name"));
+        assertThrows(IllegalArgumentException.class, () -> member("{\"name\": , \"other\": 1}", "name"));
+        assertThrows(IllegalArgumentException.class, () -> member("{\"name\":", "name"));
+    }
+
+    @Test
+    public void testUnquotedLiteralsOtherThanNumbersBooleansAndNullAreRejected() {
+        assertThrows(IllegalArgumentException.class, () -> member("{\"name\": quantummaid}", "name"));
+        assertThrows(IllegalArgumentException.class, () -> member("{\"name\": TRUE}", "name"));
+        assertThrows(IllegalArgumentException.class, () -> member("{\"name\": 01}", "name"));
+        assertThrows(IllegalArgumentException.class, () -> member("{\"name\": 1.}", "name"));
+        assertThrows(IllegalArgumentException.class, () -> member("{\"name\": {}}", "name"));
+    }
+
+    @Test
+    public void testUnicodeEscapesTakeExactlyFourHexDigits() {
+        assertEquals("\u00e9", member("{\"name\": \"\\u00E9\"}", "name"));
+        assertThrows(IllegalArgumentException.class, () -> member("{\"name\": \"\\u+0e9\"}", "name"));
+        assertThrows(IllegalArgumentException.class, () -> member("{\"name\": \"\\u00e\"}", "name"));
+        assertThrows(IllegalArgumentException.class, () -> member("{\"name\": \"\\x\"}", "name"));
+    }
+
+    @Test
+    public void testRequiredRejectsMissingValues() {
+        assertEquals("1", required("1", "value"));
+        assertEquals("missing value",
+                assertThrows(IllegalArgumentException.class, () -> required(null, "value")).getMessage());
+    }
+}
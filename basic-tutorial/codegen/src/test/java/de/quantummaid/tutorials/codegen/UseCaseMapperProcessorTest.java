@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.codegen;
+
+import de.quantummaid.httpmaid.awslambda.AwsLambdaEndpoint;
+import de.quantummaid.quantummaid.QuantumMaid;
+import de.quantummaid.tutorials.GreetingUseCase;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static de.quantummaid.httpmaid.awslambda.AwsLambdaEndpoint.awsLambdaEndpointFor;
+import static de.quantummaid.tutorials.codegen.ConversionUseCaseMappers.addFromPath;
+import static de.quantummaid.tutorials.codegen.ConversionUseCaseMappers.greetFromBody;
+import static de.quantummaid.tutorials.codegen.ConversionUseCaseMappers.greetFromPath;
+import static de.quantummaid.tutorials.codegen.ConversionUseCaseMappers.halfFromBody;
+import static de.quantummaid.tutorials.codegen.ConversionUseCaseMappers.notFromBody;
+import static de.quantummaid.tutorials.codegen.ConversionUseCaseMappers.notFromPath;
+import static de.quantummaid.tutorials.codegen.GreetingUseCaseMappers.helloFromBody;
+import static de.quantummaid.tutorials.codegen.GreetingUseCaseMappers.helloFromPath;
+import static de.quantummaid.tutorials.events.ApiGatewayEvents.restApiGetEvent;
+import static de.quantummaid.tutorials.events.ApiGatewayEvents.restApiPostEvent;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * The test sources are compiled with the processor, which generates {@code GreetingUseCaseMappers} for step5's
+ * use case and {@code ConversionUseCaseMappers} from the annotation on this class. Requests are dispatched
+ * in-process, so the generated routes can be compared with the reflective ones response by response.
+ */
+@SpecializeUseCases({GreetingUseCase.class, ConversionUseCase.class})
+public final class UseCaseMapperProcessorTest {
+    private final AwsLambdaEndpoint reflective = awsLambdaEndpointFor(QuantumMaid.quantumMaid()
+            .get("/hello/<name>", GreetingUseCase.class)
+            .post("/hello", GreetingUseCase.class)
+            .httpMaid());
+    private final AwsLambdaEndpoint generated = awsLambdaEndpointFor(generatedRoutes().httpMaid());
+
+    @Test
+    public void testGreetingRoutesAnswerLikeTheReflectiveMapping() {
+        final List<Map<String, Object>> requests = List.of(
+                restApiGetEvent("/hello/quantummaid"),
+                restApiGetEvent("/hello/quantum%20maid"),
+                restApiPostEvent("/hello", "{ \"name\": \"quantummaid\" }"),
+                restApiPostEvent("/hello", "{ \"name\": \"quantum \\\"maid\\\"\" }"),
+                restApiPostEvent("/hello", "{ \"name\": \"\\u00e9\\n\" }"));
+        for (final Map<String, Object> request : requests) {
+            final Map<String, Object> expected = reflective.delegate(request);
+            final Map<String, Object> actual = generated.delegate(request);
+            assertEquals(String.valueOf(expected.get("statusCode")), String.valueOf(actual.get("statusCode")));
+            assertEquals(expected.get("body"), actual.get("body"), String.valueOf(request));
+        }
+        assertEquals("\"hello quantummaid\"", generated.delegate(restApiGetEvent("/hello/quantummaid")).get("body"));
+    }
+
+    @Test
+    public void testNumbersAreConverted() {
+        assertResponse(200, "5", restApiGetEvent("/add/2/3"));
+    }
+
+    @Test
+    public void testUnparsablePathParameterIsBadRequest() {
+        assertStatus(400, restApiGetEvent("/add/two/3"));
+        assertStatus(400, restApiGetEvent("/add/2/9999999999999999999999"));
+    }
+
+    @Test
+    public void testMissingDoubleIsBadRequest() {
+        assertResponse(200, "1.5", restApiPostEvent("/half", "{\"value\": 3}"));
+        assertStatus(400, restApiPostEvent("/half", "{}"));
+        assertStatus(400, restApiPostEvent("/half", "{\"value\": null}"));
+    }
+
+    @Test
+    public void testMissingAndUnquotedMemberValuesAreBadRequest() {
+        assertStatus(400, restApiPostEvent("/half", "{\"value\": }"));
+        assertStatus(400, restApiPostEvent("/half", "{\"value\": three}"));
+        assertStatus(400, restApiPostEvent("/greet", "{\"name\": }"));
+        assertStatus(400, restApiPostEvent("/greet", "{\"name\": quantummaid}"));
+    }
+
+    @Test
+    public void testBooleansAreParsedStrictly() {
+        assertResponse(200, "false", restApiGetEvent("/not/true"));
+        assertResponse(200, "true", restApiPostEvent("/not", "{\"value\": false}"));
+        assertStatus(400, restApiGetEvent("/not/yes"));
+        assertStatus(400, restApiGetEvent("/not/TRUE"));
+        assertStatus(400, restApiPostEvent("/not", "{}"));
+    }
+
+    @Test
+    public void testCustomPrimitivesAreMappedAsStrings() {
+        assertResponse(200, "\"hello quantummaid\"", restApiGetEvent("/greet/quantummaid"));
+        assertResponse(200, "\"hello quantummaid\"", restApiPostEvent("/greet", "{\"name\": \"quantummaid\"}"));
+        assertStatus(400, restApiPostEvent("/greet", "{\"name\": \" \"}"));
+    }
+
+    @Test
+    public void testUnsupportedMethodsKeepTheReflectiveMapping() {
+        assertThrows(NoSuchMethodException.class,
+                () -> ConversionUseCaseMappers.class.getMethod("splitFromPath", ConversionUseCase.class));
+        assertThrows(NoSuchMethodException.class,
+                () -> ConversionUseCaseMappers.class.getMethod("splitFromBody", ConversionUseCase.class));
+    }
+
+    private static QuantumMaid generatedRoutes() {
+        final GreetingUseCase greetingUseCase = new GreetingUseCase();
+        final ConversionUseCase conversionUseCase = new ConversionUseCase();
+        return QuantumMaid.quantumMaid()
+                .get("/hello/<name>", helloFromPath(greetingUseCase))
+                .post("/hello", helloFromBody(greetingUseCase))
+                .get("/add/<augend>/<addend>", addFromPath(conversionUseCase))
+                .post("/half", halfFromBody(conversionUseCase))
+                .get("/not/<value>", notFromPath(conversionUseCase))
+                .post("/not", notFromBody(conversionUseCase))
+                .get("/greet/<name>", greetFromPath(conversionUseCase))
+                .post("/greet", greetFromBody(conversionUseCase));
+    }
+
+    private void assertResponse(final int statusCode, final String body, final Map<String, Object> request) {
+        final Map<String, Object> response = generated.delegate(request);
+        assertEquals(String.valueOf(statusCode), String.valueOf(response.get("statusCode")), String.valueOf(response));
+        assertEquals(body, response.get("body"));
+    }
+
+    private void assertStatus(final int statusCode, final Map<String, Object> request) {
+        final Map<String, Object> response = generated.delegate(request);
+        assertEquals(String.valueOf(statusCode), String.valueOf(response.get("statusCode")), String.valueOf(response));
+    }
+}
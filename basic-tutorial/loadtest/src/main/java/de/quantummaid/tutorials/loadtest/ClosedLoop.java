@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.net.http.HttpClient.Version.HTTP_1_1;
+
+/**
+ * A fixed number of virtual users, each sending its next request as soon as the previous response arrived.
+ */
+final class ClosedLoop {
+    private static final int OK = 200;
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+    private ClosedLoop() {
+    }
+
+    static ClosedLoopResult runClosedLoop(final URI uri,
+                                          final int concurrency,
+                                          final Duration duration) throws InterruptedException {
+        final HttpClient client = HttpClient.newBuilder()
+                .version(HTTP_1_1)
+                .build();
+        final HttpRequest request = HttpRequest.newBuilder(uri).GET().build();
+        final LongAdder completed = new LongAdder();
+        final LongAdder failed = new LongAdder();
+        final ExecutorService users = Executors.newFixedThreadPool(concurrency);
+        final long start = System.nanoTime();
+        final long deadline = start + duration.toNanos();
+        final List<Future<?>> futures = new ArrayList<>();
+        for (int user = 0; user < concurrency; ++user) {
+            futures.add(users.submit(() -> {
+                while (System.nanoTime() < deadline) {
+                    try {
+                        final HttpResponse<Void> response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() == OK) {
+                            completed.increment();
+                        } else {
+                            failed.increment();
+                        }
+                    } catch (final IOException e) {
+                        failed.increment();
+                    } catch (final InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                }
+            }));
+        }
+        users.shutdown();
+        users.awaitTermination(duration.toMillis() * 2, TimeUnit.MILLISECONDS);
+        final double seconds = (System.nanoTime() - start) / NANOS_PER_SECOND;
+        futures.forEach(future -> future.cancel(true));
+        return new ClosedLoopResult(concurrency, completed.sum(), failed.sum(), seconds);
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.loadtest;
+
+import java.util.Locale;
+
+/**
+ * Outcome of one {@link ClosedLoop} stage.
+ */
+final class ClosedLoopResult {
+    private final int concurrency;
+    private final long completed;
+    private final long failed;
+    private final double seconds;
+
+    ClosedLoopResult(final int concurrency, final long completed, final long failed, final double seconds) {
+        this.concurrency = concurrency;
+        this.completed = completed;
+        this.failed = failed;
+        this.seconds = seconds;
+    }
+
+    int concurrency() {
+        return concurrency;
+    }
+
+    long failed() {
+        return failed;
+    }
+
+    double throughput() {
+        return completed / seconds;
+    }
+
+    String toJson(final double idealThroughput) {
+        return String.format(Locale.ROOT,
+                "{\"concurrency\":%d,\"completed\":%d,\"failed\":%d,\"requestsPerSecond\":%.1f,\"efficiency\":%.3f}",
+                concurrency, completed, failed, throughput(), throughput() / idealThroughput);
+    }
+}
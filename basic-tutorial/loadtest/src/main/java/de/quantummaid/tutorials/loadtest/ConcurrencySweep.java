@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static de.quantummaid.tutorials.loadtest.ClosedLoop.runClosedLoop;
+import static de.quantummaid.tutorials.loadtest.LoadTestService.startLoadTestService;
+import static java.lang.Long.parseLong;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Drives {@code /slow/<name>} with an increasing number of concurrent users.
+ *
+ * <p>Every request blocks for {@link SlowGreetingUseCase#BLOCKING_MILLIS}, so as long as the endpoint can hand
+ * each request its own thread, throughput grows linearly with concurrency. The efficiency column shows
+ * achieved throughput relative to that ideal; where it drops, the endpoint's request threads are exhausted
+ * while the CPU is still idle.</p>
+ */
+public final class ConcurrencySweep {
+    private static final int[] CONCURRENCY_LEVELS = {1, 2, 4, 8, 16, 32, 64, 128, 256, 512};
+    private static final double MILLIS_PER_SECOND = 1000.0;
+
+    private ConcurrencySweep() {
+    }
+
+    public static void main(final String[] args) throws IOException, InterruptedException {
+        final Duration stage = Duration.ofSeconds(parseLong(args[0]));
+        final Path results = Paths.get(args[1]);
+        final List<String> stages = new ArrayList<>();
+        try (LoadTestService service = startLoadTestService()) {
+            final URI uri = service.uri("/slow/quantummaid");
+            runClosedLoop(uri, CONCURRENCY_LEVELS[CONCURRENCY_LEVELS.length - 1], stage);
+            System.out.println("concurrency | requests/s | ideal requests/s | efficiency | failed");
+            for (final int concurrency : CONCURRENCY_LEVELS) {
+                final ClosedLoopResult result = runClosedLoop(uri, concurrency, stage);
+                final double ideal = concurrency * MILLIS_PER_SECOND / SlowGreetingUseCase.BLOCKING_MILLIS;
+                System.out.printf(Locale.ROOT, "%11d | %10.1f | %16.1f | %10.3f | %d%n",
+                        concurrency, result.throughput(), ideal, result.throughput() / ideal, result.failed());
+                stages.add(result.toJson(ideal));
+            }
+        }
+        Files.createDirectories(results.toAbsolutePath().getParent());
+        Files.writeString(results, String.format(Locale.ROOT,
+                "{\"blockingMillis\":%d,\"stageSeconds\":%d,\"stages\":[%s]}%n",
+                SlowGreetingUseCase.BLOCKING_MILLIS, stage.getSeconds(), String.join(",", stages)), UTF_8);
+        System.out.println("results written to " + results);
+    }
+}
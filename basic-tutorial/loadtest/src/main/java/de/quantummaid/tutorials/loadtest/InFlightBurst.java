@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static de.quantummaid.tutorials.loadtest.LoadTestService.startLoadTestService;
+import static java.lang.Integer.parseInt;
+import static java.net.http.HttpClient.Version.HTTP_1_1;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Puts a burst of requests to {@code /slow/<name>} in flight at once from a handful of non-blocking client threads.
+ *
+ * <p>The client never limits concurrency here, so the highest number of simultaneous {@link SlowGreetingUseCase}
+ * invocations is the number of requests the service can keep in flight. As long as use cases block their
+ * request thread, that number equals the endpoint's thread count and the burst takes
+ * {@code burst / threads * 50 ms}. With non-blocking use cases it would approach the burst size.</p>
+ */
+public final class InFlightBurst {
+    private static final int CLIENT_THREADS = 4;
+    private static final int OK = 200;
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private InFlightBurst() {
+    }
+
+    public static void main(final String[] args) throws IOException, InterruptedException {
+        final int burst = parseInt(args[0]);
+        final Path results = Paths.get(args[1]);
+        final ExecutorService clientThreads = Executors.newFixedThreadPool(CLIENT_THREADS);
+        final HttpClient client = HttpClient.newBuilder()
+                .version(HTTP_1_1)
+                .executor(clientThreads)
+                .build();
+        try (LoadTestService service = startLoadTestService()) {
+            final URI uri = service.uri("/slow/quantummaid");
+            final HttpRequest request = HttpRequest.newBuilder(uri).GET().build();
+            client.send(request, HttpResponse.BodyHandlers.discarding());
+            SlowGreetingUseCase.resetMaxInFlight();
+
+            final long start = System.nanoTime();
+            final CompletableFuture<?>[] responses = new CompletableFuture<?>[burst];
+            for (int i = 0; i < burst; ++i) {
+                responses[i] = client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                        .thenAccept(response -> {
+                            if (response.statusCode() != OK) {
+                                throw new IllegalStateException("request failed with status " + response.statusCode());
+                            }
+                        });
+            }
+            CompletableFuture.allOf(responses).join();
+            final double millis = (System.nanoTime() - start) / NANOS_PER_MILLI;
+            final int maxInFlight = SlowGreetingUseCase.resetMaxInFlight();
+
+            final String summary = String.format(Locale.ROOT,
+                    "{\"burst\":%d,\"clientThreads\":%d,\"blockingMillis\":%d,\"maxInFlight\":%d,\"durationMillis\":%.1f}%n",
+                    burst, CLIENT_THREADS, SlowGreetingUseCase.BLOCKING_MILLIS, maxInFlight, millis);
+            System.out.print(summary);
+            Files.createDirectories(results.toAbsolutePath().getParent());
+            Files.writeString(results, summary, UTF_8);
+        } finally {
+            clientThreads.shutdownNow();
+        }
+    }
+}
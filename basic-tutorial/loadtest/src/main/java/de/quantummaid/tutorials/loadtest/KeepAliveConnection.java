@@ -0,0 +1,262 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+import java.util.Arrays;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+/**
+ * A blocking keep-alive HTTP/1.1 connection that may have several requests in flight (pipelining).
+ * Responses are read in request order; bytes of the next response that arrive together with the current one
+ * stay in the buffer for the next {@link #awaitResponse()}.
+ *
+ * <p>A response body is delimited by its {@code Content-Length} or by chunked transfer encoding. A response with
+ * neither ends only when the server closes the connection, which would take the pipelined responses behind it
+ * along, so it is reported as an {@link IOException} and the connection has to be replaced.</p>
+ */
+final class KeepAliveConnection implements AutoCloseable {
+    private static final int INITIAL_BUFFER_SIZE = 16 * 1024;
+    private static final byte[] HEADER_END = {'\r', '\n', '\r', '\n'};
+    private static final byte[] CONTENT_LENGTH = "content-length:".getBytes(US_ASCII);
+    private static final byte[] TRANSFER_ENCODING = "transfer-encoding:".getBytes(US_ASCII);
+    private static final byte[] CHUNKED = "chunked".getBytes(US_ASCII);
+    private static final int CRLF_LENGTH = 2;
+    private static final int STATUS_OFFSET = "HTTP/1.1 ".length();
+    private static final int STATUS_DIGITS = 3;
+    private static final int CASE_BIT = 0x20;
+    private static final int DECIMAL = 10;
+    private static final int HEXADECIMAL = 16;
+    private static final int HEX_LETTER_OFFSET = 10;
+
+    private final Socket socket;
+    private final OutputStream output;
+    private final InputStream input;
+    private byte[] buffer = new byte[INITIAL_BUFFER_SIZE];
+    private int start;
+    private int end;
+
+    private KeepAliveConnection(final Socket socket) throws IOException {
+        this.socket = socket;
+        this.output = socket.getOutputStream();
+        this.input = socket.getInputStream();
+    }
+
+    static KeepAliveConnection openConnection(final int port) throws IOException {
+        final Socket socket = new Socket("localhost", port);
+        socket.setTcpNoDelay(true);
+        return new KeepAliveConnection(socket);
+    }
+
+    static byte[] getRequest(final String path) {
+        return ("GET " + path + " HTTP/1.1\r\nHost: localhost\r\n\r\n").getBytes(US_ASCII);
+    }
+
+    void send(final byte[] request) throws IOException {
+        output.write(request);
+    }
+
+    void flush() throws IOException {
+        output.flush();
+    }
+
+    /**
+     * Reads the next complete response and returns its status code.
+     */
+    int awaitResponse() throws IOException {
+        int headerEnd = indexOfHeaderEnd(start);
+        while (headerEnd < 0) {
+            fill();
+            headerEnd = indexOfHeaderEnd(start);
+        }
+        final int bodyOffset = headerEnd + HEADER_END.length - start;
+        int status = 0;
+        for (int i = start + STATUS_OFFSET; i < start + STATUS_OFFSET + STATUS_DIGITS; ++i) {
+            status = status * DECIMAL + buffer[i] - '0';
+        }
+        final int responseLength = bodyOffset + bodyLength(bodyOffset);
+        while (end - start < responseLength) {
+            fill();
+        }
+        start += responseLength;
+        if (start == end) {
+            start = 0;
+            end = 0;
+        }
+        return status;
+    }
+
+    @Override
+    public void close() throws IOException {
+        socket.close();
+    }
+
+    private void fill() throws IOException {
+        if (end == buffer.length) {
+            if (start > 0) {
+                System.arraycopy(buffer, start, buffer, 0, end - start);
+                end -= start;
+                start = 0;
+            } else {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+        }
+        final int read = input.read(buffer, end, buffer.length - end);
+        if (read < 0) {
+            throw new IOException("connection closed by server");
+        }
+        end += read;
+    }
+
+    private int indexOfHeaderEnd(final int from) {
+        for (int i = from; i <= end - HEADER_END.length; ++i) {
+            if (buffer[i] == '\r' && buffer[i + 1] == '\n' && buffer[i + 2] == '\r' && buffer[i + 3] == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int bodyLength(final int bodyOffset) throws IOException {
+        final int contentLength = headerValue(bodyOffset, CONTENT_LENGTH);
+        if (contentLength >= 0) {
+            int position = start + contentLength;
+            int value = 0;
+            while (buffer[position] >= '0' && buffer[position] <= '9') {
+                value = value * DECIMAL + buffer[position++] - '0';
+            }
+            return value;
+        }
+        final int transferEncoding = headerValue(bodyOffset, TRANSFER_ENCODING);
+        if (transferEncoding >= 0 && endsWithIgnoringCase(start + transferEncoding, CHUNKED)) {
+            return chunkedBodyLength(bodyOffset);
+        }
+        throw new IOException("response without Content-Length or chunked Transfer-Encoding");
+    }
+
+    /**
+     * Returns the offset from {@code start} of the value of the header {@code lowerCaseName}, or {@code -1}.
+     */
+    private int headerValue(final int bodyOffset, final byte[] lowerCaseName) {
+        final int bodyStart = start + bodyOffset;
+        int line = start;
+        while (line < bodyStart) {
+            if (startsWithIgnoringCase(line, bodyStart, lowerCaseName)) {
+                int position = line + lowerCaseName.length;
+                while (buffer[position] == ' ') {
+                    ++position;
+                }
+                return position - start;
+            }
+            while (line < bodyStart && buffer[line] != '\n') {
+                ++line;
+            }
+            ++line;
+        }
+        return -1;
+    }
+
+    /**
+     * Reads the chunks after {@code bodyOffset} up to the last one and its trailers, and returns their length.
+     */
+    private int chunkedBodyLength(final int bodyOffset) throws IOException {
+        int offset = bodyOffset;
+        while (true) {
+            final int sizeLineEnd = awaitLineEnd(offset);
+            final int chunkSize = chunkSize(start + offset, start + sizeLineEnd);
+            offset = sizeLineEnd + CRLF_LENGTH;
+            if (chunkSize == 0) {
+                break;
+            }
+            offset += chunkSize + CRLF_LENGTH;
+        }
+        for (int trailerEnd = awaitLineEnd(offset); trailerEnd != offset; trailerEnd = awaitLineEnd(offset)) {
+            offset = trailerEnd + CRLF_LENGTH;
+        }
+        return offset + CRLF_LENGTH - bodyOffset;
+    }
+
+    /**
+     * Returns the offset from {@code start} of the next CRLF at or after {@code offset}, reading until it arrived.
+     */
+    private int awaitLineEnd(final int offset) throws IOException {
+        for (int i = offset; ; ++i) {
+            while (start + i + 1 >= end) {
+                fill();
+            }
+            if (buffer[start + i] == '\r' && buffer[start + i + 1] == '\n') {
+                return i;
+            }
+        }
+    }
+
+    private int chunkSize(final int from, final int to) throws IOException {
+        int size = 0;
+        for (int i = from; i < to && buffer[i] != ';'; ++i) {
+            final int digit = hexDigit(buffer[i]);
+            if (digit < 0 || size > (Integer.MAX_VALUE - digit) / HEXADECIMAL) {
+                throw new IOException("invalid chunk size in response");
+            }
+            size = size * HEXADECIMAL + digit;
+        }
+        return size;
+    }
+
+    private static int hexDigit(final byte character) {
+        if (character >= '0' && character <= '9') {
+            return character - '0';
+        }
+        final int lowerCase = character | CASE_BIT;
+        if (lowerCase >= 'a' && lowerCase <= 'f') {
+            return lowerCase - 'a' + HEX_LETTER_OFFSET;
+        }
+        return -1;
+    }
+
+    private boolean endsWithIgnoringCase(final int valueStart, final byte[] lowerCase) {
+        int valueEnd = valueStart;
+        while (buffer[valueEnd] != '\r') {
+            ++valueEnd;
+        }
+        while (valueEnd > valueStart && buffer[valueEnd - 1] == ' ') {
+            --valueEnd;
+        }
+        return valueEnd - valueStart >= lowerCase.length
+                && startsWithIgnoringCase(valueEnd - lowerCase.length, valueEnd, lowerCase);
+    }
+
+    private boolean startsWithIgnoringCase(final int position, final int limit, final byte[] lowerCase) {
+        if (limit - position < lowerCase.length) {
+            return false;
+        }
+        for (int i = 0; i < lowerCase.length; ++i) {
+            if ((buffer[position + i] | CASE_BIT) != lowerCase[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.loadtest;
+
+import de.quantummaid.quantummaid.QuantumMaid;
+import de.quantummaid.tutorials.GreetingUseCase;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URI;
+
+/**
+ * The step5 service on a free local port, extended by {@code /slow/<name>}, which blocks in {@link SlowGreetingUseCase}.
+ */
+final class LoadTestService implements AutoCloseable {
+    private static final int STARTUP_ATTEMPTS = 100;
+    private static final long STARTUP_POLL_MILLIS = 50;
+
+    private final QuantumMaid quantumMaid;
+    private final int port;
+
+    private LoadTestService(final QuantumMaid quantumMaid, final int port) {
+        this.quantumMaid = quantumMaid;
+        this.port = port;
+    }
+
+    static LoadTestService startLoadTestService() throws IOException, InterruptedException {
+        final int port = freePort();
+        final QuantumMaid quantumMaid = QuantumMaid.quantumMaid()
+                .get("/hello/<name>", GreetingUseCase.class)
+                .post("/hello", GreetingUseCase.class)
+                .get("/slow/<name>", SlowGreetingUseCase.class)
+                .withLocalHostEndpointOnPort(port);
+        quantumMaid.runAsynchronously();
+        awaitPort(port);
+        return new LoadTestService(quantumMaid, port);
+    }
+
+    URI uri(final String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    int port() {
+        return port;
+    }
+
+    @Override
+    public void close() {
+        quantumMaid.close();
+    }
+
+    private static void awaitPort(final int port) throws IOException, InterruptedException {
+        for (int attempt = 1; attempt < STARTUP_ATTEMPTS; ++attempt) {
+            try (Socket ignored = new Socket("localhost", port)) {
+                return;
+            } catch (final ConnectException e) {
+                Thread.sleep(STARTUP_POLL_MILLIS);
+            }
+        }
+        throw new IOException("service did not start listening on port " + port);
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
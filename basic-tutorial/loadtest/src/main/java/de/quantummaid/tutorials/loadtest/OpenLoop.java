@@ -0,0 +1,224 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import static de.quantummaid.tutorials.loadtest.KeepAliveConnection.openConnection;
+
+/**
+ * Sends requests at a constant arrival rate, no matter how fast responses come back (an open model).
+ *
+ * <p>A scheduler thread releases one request every {@code 1 / rate} seconds into a queue, tagged with the time it
+ * was meant to be sent. A fixed number of keep-alive connections take requests from that queue, each writing up to
+ * {@code pipelineDepth} due requests before reading their responses. Latency is measured from the intended send
+ * time, so a stalled server is charged for every request that had to wait behind it, instead of the generator
+ * simply sending fewer requests (coordinated omission). The time from the actual send is recorded as well, to
+ * show how much the uncorrected numbers would hide.</p>
+ *
+ * <p>{@code 503} responses are counted as rejected rather than failed and are not recorded in the histograms,
+ * so a service that sheds load is measured by the latency of the requests it accepted.</p>
+ */
+final class OpenLoop {
+    private static final int OK = 200;
+    private static final int SERVICE_UNAVAILABLE = 503;
+    private static final int NO_RESPONSE = -1;
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.MINUTES.toNanos(1);
+    private static final int SIGNIFICANT_DIGITS = 3;
+    private static final long STOP = Long.MIN_VALUE;
+
+    private OpenLoop() {
+    }
+
+    static OpenLoopResult runOpenLoop(final int port,
+                                      final byte[] request,
+                                      final int requestsPerSecond,
+                                      final Duration warmup,
+                                      final Duration duration,
+                                      final int connections,
+                                      final int pipelineDepth) throws IOException, InterruptedException {
+        final BlockingQueue<Long> due = new LinkedBlockingQueue<>();
+        final long start = System.nanoTime();
+        final long measurementStart = start + warmup.toNanos();
+        final LongAdder failed = new LongAdder();
+        final LongAdder rejected = new LongAdder();
+        final List<Worker> workers = new ArrayList<>();
+        for (int i = 0; i < connections; ++i) {
+            final Worker worker = new Worker(port, request, pipelineDepth, due, measurementStart, failed, rejected);
+            workers.add(worker);
+            worker.start();
+        }
+
+        final long interval = TimeUnit.SECONDS.toNanos(1) / requestsPerSecond;
+        final long total = (warmup.toNanos() + duration.toNanos()) / interval;
+        for (long i = 0; i < total; ++i) {
+            final long intended = start + i * interval;
+            long wait = intended - System.nanoTime();
+            while (wait > 0) {
+                LockSupport.parkNanos(wait);
+                wait = intended - System.nanoTime();
+            }
+            due.add(intended);
+        }
+        for (int i = 0; i < connections; ++i) {
+            due.add(STOP);
+        }
+
+        final Histogram corrected = new Histogram(HIGHEST_TRACKABLE_NANOS, SIGNIFICANT_DIGITS);
+        final Histogram uncorrected = new Histogram(HIGHEST_TRACKABLE_NANOS, SIGNIFICANT_DIGITS);
+        for (final Worker worker : workers) {
+            worker.join();
+            corrected.add(worker.corrected);
+            uncorrected.add(worker.uncorrected);
+        }
+        final double seconds = (System.nanoTime() - measurementStart) / (double) TimeUnit.SECONDS.toNanos(1);
+        return new OpenLoopResult(requestsPerSecond, failed.sum(), rejected.sum(), seconds, corrected, uncorrected);
+    }
+
+    private static final class Worker extends Thread {
+        private final int port;
+        private final byte[] request;
+        private final int pipelineDepth;
+        private final BlockingQueue<Long> due;
+        private final long measurementStart;
+        private final LongAdder failed;
+        private final LongAdder rejected;
+        private final Histogram corrected = new Histogram(HIGHEST_TRACKABLE_NANOS, SIGNIFICANT_DIGITS);
+        private final Histogram uncorrected = new Histogram(HIGHEST_TRACKABLE_NANOS, SIGNIFICANT_DIGITS);
+
+        private Worker(final int port,
+                       final byte[] request,
+                       final int pipelineDepth,
+                       final BlockingQueue<Long> due,
+                       final long measurementStart,
+                       final LongAdder failed,
+                       final LongAdder rejected) {
+            super("open-loop-connection");
+            setDaemon(true);
+            this.port = port;
+            this.request = request;
+            this.pipelineDepth = pipelineDepth;
+            this.due = due;
+            this.measurementStart = measurementStart;
+            this.failed = failed;
+            this.rejected = rejected;
+        }
+
+        @Override
+        public void run() {
+            final long[] intended = new long[pipelineDepth];
+            KeepAliveConnection connection = null;
+            try {
+                while (true) {
+                    intended[0] = due.take();
+                    if (intended[0] == STOP) {
+                        return;
+                    }
+                    int batch = 1;
+                    while (batch < pipelineDepth) {
+                        final Long next = due.poll();
+                        if (next == null) {
+                            break;
+                        }
+                        if (next == STOP) {
+                            due.add(STOP);
+                            break;
+                        }
+                        intended[batch++] = next;
+                    }
+                    connection = exchange(connection, intended, batch);
+                }
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                closeQuietly(connection);
+            }
+        }
+
+        private KeepAliveConnection exchange(final KeepAliveConnection existingConnection,
+                                             final long[] intended,
+                                             final int batch) {
+            KeepAliveConnection connection = existingConnection;
+            int answered = 0;
+            try {
+                if (connection == null) {
+                    connection = openConnection(port);
+                }
+                final long sent = System.nanoTime();
+                for (int i = 0; i < batch; ++i) {
+                    connection.send(request);
+                }
+                connection.flush();
+                for (; answered < batch; ++answered) {
+                    final int status = connection.awaitResponse();
+                    record(intended[answered], sent, status);
+                }
+                return connection;
+            } catch (final IOException e) {
+                // the requests that were not answered yet fail, the next batch goes out on a new connection
+                for (int i = answered; i < batch; ++i) {
+                    record(intended[i], System.nanoTime(), NO_RESPONSE);
+                }
+                closeQuietly(connection);
+                return null;
+            }
+        }
+
+        private void record(final long intended, final long sent, final int status) {
+            if (intended < measurementStart) {
+                return;
+            }
+            if (status == SERVICE_UNAVAILABLE) {
+                rejected.increment();
+                return;
+            }
+            if (status != OK) {
+                failed.increment();
+                return;
+            }
+            final long now = System.nanoTime();
+            corrected.recordValue(Math.min(now - intended, HIGHEST_TRACKABLE_NANOS));
+            uncorrected.recordValue(Math.min(now - sent, HIGHEST_TRACKABLE_NANOS));
+        }
+
+        private static void closeQuietly(final KeepAliveConnection connection) {
+            if (connection == null) {
+                return;
+            }
+            try {
+                connection.close();
+            } catch (final IOException e) {
+                // the connection is discarded either way
+            }
+        }
+    }
+}
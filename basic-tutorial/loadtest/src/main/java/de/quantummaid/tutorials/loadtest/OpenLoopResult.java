@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.loadtest;
+
+import org.HdrHistogram.Histogram;
+
+import java.util.Locale;
+
+/**
+ * Outcome of an {@link OpenLoop} run after warm-up: the latency from the intended send time (corrected for
+ * coordinated omission) and from the actual send time (uncorrected), in nanoseconds. Only successful
+ * responses are recorded; failed requests and {@code 503} rejections are counted separately.
+ */
+final class OpenLoopResult {
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+    private static final double P50 = 50.0;
+    private static final double P90 = 90.0;
+    private static final double P99 = 99.0;
+    private static final double P999 = 99.9;
+
+    private final int requestsPerSecond;
+    private final long failed;
+    private final long rejected;
+    private final double seconds;
+    private final Histogram corrected;
+    private final Histogram uncorrected;
+
+    OpenLoopResult(final int requestsPerSecond,
+                   final long failed,
+                   final long rejected,
+                   final double seconds,
+                   final Histogram corrected,
+                   final Histogram uncorrected) {
+        this.requestsPerSecond = requestsPerSecond;
+        this.failed = failed;
+        this.rejected = rejected;
+        this.seconds = seconds;
+        this.corrected = corrected;
+        this.uncorrected = uncorrected;
+    }
+
+    long completed() {
+        return corrected.getTotalCount();
+    }
+
+    long failed() {
+        return failed;
+    }
+
+    long rejected() {
+        return rejected;
+    }
+
+    double rejectedShare() {
+        final long offered = completed() + failed + rejected;
+        return offered == 0 ? 0.0 : (double) rejected / offered;
+    }
+
+    double throughput() {
+        return completed() / seconds;
+    }
+
+    double p99Millis() {
+        return millisAt(corrected, P99);
+    }
+
+    double p999Millis() {
+        return millisAt(corrected, P999);
+    }
+
+    String summary() {
+        return String.format(Locale.ROOT,
+                "%d requests/s offered, %.1f achieved, %d failed, %d rejected%n"
+                        + "corrected   p50 %8.2f ms  p90 %8.2f ms  p99 %8.2f ms  p99.9 %8.2f ms  max %8.2f ms%n"
+                        + "uncorrected p50 %8.2f ms  p90 %8.2f ms  p99 %8.2f ms  p99.9 %8.2f ms  max %8.2f ms",
+                requestsPerSecond, throughput(), failed, rejected,
+                millisAt(corrected, P50), millisAt(corrected, P90), p99Millis(), p999Millis(),
+                corrected.getMaxValue() / NANOS_PER_MILLI,
+                millisAt(uncorrected, P50), millisAt(uncorrected, P90), millisAt(uncorrected, P99),
+                millisAt(uncorrected, P999), uncorrected.getMaxValue() / NANOS_PER_MILLI);
+    }
+
+    String toJson() {
+        return String.format(Locale.ROOT,
+                "{\"requestsPerSecond\":%d,\"achievedRequestsPerSecond\":%.1f,\"completed\":%d,\"failed\":%d,"
+                        + "\"rejected\":%d,"
+                        + "\"correctedMillis\":%s,\"uncorrectedMillis\":%s}",
+                requestsPerSecond, throughput(), completed(), failed, rejected, percentilesJson(corrected),
+                percentilesJson(uncorrected));
+    }
+
+    private static String percentilesJson(final Histogram histogram) {
+        return String.format(Locale.ROOT,
+                "{\"p50\":%.3f,\"p90\":%.3f,\"p99\":%.3f,\"p999\":%.3f,\"max\":%.3f}",
+                millisAt(histogram, P50), millisAt(histogram, P90), millisAt(histogram, P99),
+                millisAt(histogram, P999), histogram.getMaxValue() / NANOS_PER_MILLI);
+    }
+
+    private static double millisAt(final Histogram histogram, final double percentile) {
+        return histogram.getValueAtPercentile(percentile) / NANOS_PER_MILLI;
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.loadtest;
+
+import de.quantummaid.quantummaid.QuantumMaid;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static de.quantummaid.tutorials.WebService.createQuantumMaid;
+import static de.quantummaid.tutorials.loadtest.KeepAliveConnection.getRequest;
+import static de.quantummaid.tutorials.loadtest.OpenLoop.runOpenLoop;
+import static java.lang.Double.parseDouble;
+import static java.lang.Integer.parseInt;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Drives {@code GET /hello/quantummaid} of {@code WebService.createQuantumMaid(port)} from step5 at a constant
+ * arrival rate and fails if the coordinated-omission-corrected p99 or p99.9 latency exceeds its budget,
+ * or if any request fails.
+ */
+public final class OpenModelLoadTest {
+    private static final int STARTUP_ATTEMPTS = 100;
+    private static final long STARTUP_POLL_MILLIS = 50;
+
+    private OpenModelLoadTest() {
+    }
+
+    public static void main(final String[] args) throws IOException, InterruptedException {
+        final int requestsPerSecond = parseInt(args[0]);
+        final Duration warmup = Duration.ofSeconds(parseInt(args[1]));
+        final Duration duration = Duration.ofSeconds(parseInt(args[2]));
+        final int connections = parseInt(args[3]);
+        final int pipelineDepth = parseInt(args[4]);
+        final double budgetP99Millis = parseDouble(args[5]);
+        final double budgetP999Millis = parseDouble(args[6]);
+        final Path results = Paths.get(args[7]);
+
+        final int port = freePort();
+        final QuantumMaid quantumMaid = createQuantumMaid(port);
+        final OpenLoopResult result;
+        try {
+            quantumMaid.runAsynchronously();
+            awaitPort(port);
+            result = runOpenLoop(port, getRequest("/hello/quantummaid"),
+                    requestsPerSecond, warmup, duration, connections, pipelineDepth);
+        } finally {
+            quantumMaid.close();
+        }
+        System.out.println(result.summary());
+
+        final List<String> violations = new ArrayList<>();
+        if (result.failed() > 0) {
+            violations.add(result.failed() + " requests failed");
+        }
+        if (result.rejected() > 0) {
+            violations.add(result.rejected() + " requests rejected");
+        }
+        if (result.p99Millis() > budgetP99Millis) {
+            violations.add(String.format(Locale.ROOT, "p99 %.2f ms > %.2f ms", result.p99Millis(), budgetP99Millis));
+        }
+        if (result.p999Millis() > budgetP999Millis) {
+            violations.add(String.format(Locale.ROOT, "p99.9 %.2f ms > %.2f ms", result.p999Millis(), budgetP999Millis));
+        }
+
+        Files.createDirectories(results.toAbsolutePath().getParent());
+        Files.writeString(results, String.format(Locale.ROOT,
+                "{\"connections\":%d,\"pipelineDepth\":%d,\"warmupSeconds\":%d,\"durationSeconds\":%d,"
+                        + "\"budgets\":{\"p99Millis\":%.3f,\"p999Millis\":%.3f},\"result\":%s}%n",
+                connections, pipelineDepth, warmup.getSeconds(), duration.getSeconds(),
+                budgetP99Millis, budgetP999Millis, result.toJson()), UTF_8);
+        System.out.println("results written to " + results);
+
+        if (!violations.isEmpty()) {
+            violations.forEach(violation -> System.out.println("latency SLO violated - " + violation));
+            System.exit(1);
+        }
+    }
+
+    private static void awaitPort(final int port) throws IOException, InterruptedException {
+        for (int attempt = 1; attempt < STARTUP_ATTEMPTS; ++attempt) {
+            try (Socket ignored = new Socket("localhost", port)) {
+                return;
+            } catch (final IOException e) {
+                Thread.sleep(STARTUP_POLL_MILLIS);
+            }
+        }
+        throw new IOException("service did not start listening on port " + port);
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
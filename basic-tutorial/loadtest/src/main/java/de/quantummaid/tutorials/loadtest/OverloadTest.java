@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.loadtest;
+
+import de.quantummaid.quantummaid.QuantumMaid;
+import de.quantummaid.tutorials.admission.AdmissionControl;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static de.quantummaid.tutorials.admission.AdmissionControl.admissionControl;
+import static de.quantummaid.tutorials.admission.Priority.CRITICAL;
+import static de.quantummaid.tutorials.admission.Priority.SHEDDABLE;
+import static de.quantummaid.tutorials.loadtest.KeepAliveConnection.getRequest;
+import static de.quantummaid.tutorials.loadtest.OpenLoop.runOpenLoop;
+import static de.quantummaid.tutorials.loadtest.SimulatedDownstream.simulatedDownstream;
+import static java.lang.Double.parseDouble;
+import static java.lang.Integer.parseInt;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Offers a {@link SimulatedDownstream} of known capacity increasing multiples of that capacity, half through a
+ * {@link de.quantummaid.tutorials.admission.Priority#CRITICAL} route and half through a
+ * {@link de.quantummaid.tutorials.admission.Priority#SHEDDABLE} one, both behind the same {@link AdmissionControl}.
+ *
+ * <p>Fails if, at any stage, a request fails or the coordinated-omission-corrected p99 of the admitted requests of
+ * either route exceeds the budget, or if at the last stage the critical route lost a larger share of its requests
+ * than the sheddable one.</p>
+ */
+public final class OverloadTest {
+    private static final int STARTUP_ATTEMPTS = 100;
+    private static final long STARTUP_POLL_MILLIS = 50;
+    private static final double MILLIS_PER_SECOND = 1000.0;
+    private static final double PERCENT = 100.0;
+
+    private OverloadTest() {
+    }
+
+    public static void main(final String[] args) throws IOException, InterruptedException, ExecutionException {
+        final int permits = parseInt(args[0]);
+        final long serviceMillis = parseInt(args[1]);
+        final Duration warmup = Duration.ofSeconds(parseInt(args[2]));
+        final Duration duration = Duration.ofSeconds(parseInt(args[3]));
+        final int connections = parseInt(args[4]);
+        final double budgetP99Millis = parseDouble(args[5]);
+        final String[] loadFactors = args[6].split(",");
+        final Path results = Paths.get(args[7]);
+
+        final double capacity = permits * MILLIS_PER_SECOND / serviceMillis;
+        System.out.printf(Locale.ROOT, "downstream capacity %.0f requests/s (%d permits, %d ms each)%n",
+                capacity, permits, serviceMillis);
+
+        final int port = freePort();
+        final AdmissionControl admissionControl = admissionControl();
+        final SimulatedDownstream downstream = simulatedDownstream(permits, serviceMillis);
+        final QuantumMaid quantumMaid = QuantumMaid.quantumMaid()
+                .get("/critical/<name>", admissionControl.admit(CRITICAL, downstream))
+                .get("/sheddable/<name>", admissionControl.admit(SHEDDABLE, downstream))
+                .withLocalHostEndpointOnPort(port);
+        final ExecutorService sheddableLoop = Executors.newSingleThreadExecutor();
+        final List<String> violations = new ArrayList<>();
+        final List<String> stages = new ArrayList<>();
+        try {
+            quantumMaid.runAsynchronously();
+            awaitPort(port);
+            OpenLoopResult critical = null;
+            OpenLoopResult sheddable = null;
+            for (final String loadFactor : loadFactors) {
+                final double factor = parseDouble(loadFactor);
+                final int perRoute = (int) Math.round(factor * capacity / 2);
+                final Future<OpenLoopResult> sheddableResult = sheddableLoop.submit(() -> runOpenLoop(port,
+                        getRequest("/sheddable/quantummaid"), perRoute, warmup, duration, connections, 1));
+                critical = runOpenLoop(port, getRequest("/critical/quantummaid"),
+                        perRoute, warmup, duration, connections, 1);
+                sheddable = sheddableResult.get();
+
+                System.out.printf(Locale.ROOT, "%.1fx capacity: limit %d, baseline %.2f ms%n",
+                        factor, admissionControl.limit(), admissionControl.baselineMillis());
+                System.out.println("critical:  " + critical.summary());
+                System.out.println("sheddable: " + sheddable.summary());
+                stages.add(String.format(Locale.ROOT,
+                        "{\"loadFactor\":%.2f,\"limit\":%d,\"baselineMillis\":%.3f,\"critical\":%s,\"sheddable\":%s}",
+                        factor, admissionControl.limit(), admissionControl.baselineMillis(),
+                        critical.toJson(), sheddable.toJson()));
+                check("critical", factor, critical, budgetP99Millis, violations);
+                check("sheddable", factor, sheddable, budgetP99Millis, violations);
+            }
+            if (critical != null && critical.rejectedShare() > sheddable.rejectedShare()) {
+                violations.add(String.format(Locale.ROOT,
+                        "critical route rejected %.1f%% of its requests, sheddable route only %.1f%%",
+                        critical.rejectedShare() * PERCENT, sheddable.rejectedShare() * PERCENT));
+            }
+        } finally {
+            sheddableLoop.shutdownNow();
+            quantumMaid.close();
+        }
+
+        Files.createDirectories(results.toAbsolutePath().getParent());
+        Files.writeString(results, String.format(Locale.ROOT,
+                "{\"capacityRequestsPerSecond\":%.1f,\"connections\":%d,\"warmupSeconds\":%d,\"durationSeconds\":%d,"
+                        + "\"budgets\":{\"p99Millis\":%.3f},\"stages\":[%s]}%n",
+                capacity, connections, warmup.getSeconds(), duration.getSeconds(), budgetP99Millis,
+                String.join(",", stages)), UTF_8);
+        System.out.println("results written to " + results);
+
+        if (!violations.isEmpty()) {
+            violations.forEach(violation -> System.out.println("overload test failed - " + violation));
+            System.exit(1);
+        }
+    }
+
+    private static void check(final String route,
+                              final double factor,
+                              final OpenLoopResult result,
+                              final double budgetP99Millis,
+                              final List<String> violations) {
+        if (result.failed() > 0) {
+            violations.add(String.format(Locale.ROOT, "%s at %.1fx: %d requests failed",
+                    route, factor, result.failed()));
+        }
+        if (result.completed() > 0 && result.p99Millis() > budgetP99Millis) {
+            violations.add(String.format(Locale.ROOT, "%s at %.1fx: p99 %.2f ms > %.2f ms",
+                    route, factor, result.p99Millis(), budgetP99Millis));
+        }
+    }
+
+    private static void awaitPort(final int port) throws IOException, InterruptedException {
+        for (int attempt = 1; attempt < STARTUP_ATTEMPTS; ++attempt) {
+            try (Socket ignored = new Socket("localhost", port)) {
+                return;
+            } catch (final IOException e) {
+                Thread.sleep(STARTUP_POLL_MILLIS);
+            }
+        }
+        throw new IOException("service did not start listening on port " + port);
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
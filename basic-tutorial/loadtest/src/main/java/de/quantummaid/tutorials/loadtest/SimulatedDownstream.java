@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.loadtest;
+
+import de.quantummaid.httpmaid.handler.http.HttpHandler;
+import de.quantummaid.httpmaid.handler.http.HttpRequest;
+import de.quantummaid.httpmaid.handler.http.HttpResponse;
+
+import java.util.concurrent.Semaphore;
+
+/**
+ * A dependency with a fixed capacity, like a connection pool in front of a database: at most {@code permits}
+ * calls are served at once, each taking {@code serviceMillis}, and the rest wait in line. Its capacity is
+ * therefore exactly {@code permits * 1000 / serviceMillis} requests per second, and above that the latency of
+ * every caller grows with the line.
+ */
+final class SimulatedDownstream implements HttpHandler {
+    private final Semaphore permits;
+    private final long serviceMillis;
+
+    private SimulatedDownstream(final int permits, final long serviceMillis) {
+        this.permits = new Semaphore(permits, true);
+        this.serviceMillis = serviceMillis;
+    }
+
+    static SimulatedDownstream simulatedDownstream(final int permits, final long serviceMillis) {
+        return new SimulatedDownstream(permits, serviceMillis);
+    }
+
+    @Override
+    public void handle(final HttpRequest request, final HttpResponse response) {
+        try {
+            permits.acquire();
+            try {
+                Thread.sleep(serviceMillis);
+            } finally {
+                permits.release();
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while waiting for the downstream", e);
+        }
+        response.setBody("hello " + request.pathParameters().getPathParameter("name"));
+    }
+}
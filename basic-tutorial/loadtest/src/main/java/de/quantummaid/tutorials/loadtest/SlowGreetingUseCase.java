@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.loadtest;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@code GreetingUseCase} with a blocking call in the middle, standing in for the database access
+ * of a real use case. It keeps track of how many invocations were running at the same time.
+ */
+public final class SlowGreetingUseCase {
+    static final long BLOCKING_MILLIS = 50;
+    private static final AtomicInteger IN_FLIGHT = new AtomicInteger();
+    private static final AtomicInteger MAX_IN_FLIGHT = new AtomicInteger();
+
+    public String hello(final String name) throws InterruptedException {
+        MAX_IN_FLIGHT.accumulateAndGet(IN_FLIGHT.incrementAndGet(), Math::max);
+        try {
+            Thread.sleep(BLOCKING_MILLIS);
+        } finally {
+            IN_FLIGHT.decrementAndGet();
+        }
+        return "hello " + name;
+    }
+
+    static int resetMaxInFlight() {
+        return MAX_IN_FLIGHT.getAndSet(0);
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+
+/**
+ * Keeps request counters, error counters, in-flight gauges and a {@link LatencyHistogram} per route.
+ */
+public final class InMemoryMetricsRegistry implements MetricsRegistry {
+    private final Map<String, InMemoryRouteMetrics> routes = new ConcurrentHashMap<>();
+
+    public static InMemoryMetricsRegistry inMemoryMetricsRegistry() {
+        return new InMemoryMetricsRegistry();
+    }
+
+    @Override
+    public RouteMetrics routeMetrics(final String route) {
+        return routes.computeIfAbsent(route, ignored -> new InMemoryRouteMetrics());
+    }
+
+    void forEachRoute(final BiConsumer<String, InMemoryRouteMetrics> consumer) {
+        routes.forEach(consumer);
+    }
+
+    static final class InMemoryRouteMetrics implements RouteMetrics {
+        private static final int FIRST_ERROR_STATUS = 400;
+
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder inFlight = new LongAdder();
+        private final LatencyHistogram latency = new LatencyHistogram();
+
+        @Override
+        public void requestStarted() {
+            inFlight.increment();
+        }
+
+        @Override
+        public void requestFinished(final long durationNanos, final int status) {
+            inFlight.decrement();
+            requests.increment();
+            if (status >= FIRST_ERROR_STATUS) {
+                errors.increment();
+            }
+            latency.record(durationNanos);
+        }
+
+        long requests() {
+            return requests.sum();
+        }
+
+        long errors() {
+            return errors.sum();
+        }
+
+        long inFlight() {
+            return inFlight.sum();
+        }
+
+        LatencyHistogram latency() {
+            return latency;
+        }
+    }
+}
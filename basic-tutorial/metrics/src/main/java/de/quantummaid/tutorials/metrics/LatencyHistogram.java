@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.metrics;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram backed by an HdrHistogram {@link ConcurrentHistogram} with two significant digits from 1 ns
+ * to one minute, so every recorded latency keeps a relative error below 1%. Recording is wait-free and does not
+ * allocate; longer latencies are recorded as one minute.
+ *
+ * <p>For the Prometheus exposition, the recorded values are counted against fixed bucket boundaries in steps of
+ * 1, 2.5 and 5 per decade from 1 microsecond to 10 s, taken from a consistent {@link #snapshot()}.</p>
+ */
+public final class LatencyHistogram {
+    private static final long HIGHEST_TRACKABLE_NANOS = 60_000_000_000L;
+    private static final int SIGNIFICANT_DIGITS = 2;
+    private static final long[] UPPER_BOUNDS_NANOS = {
+            1_000L, 2_500L, 5_000L,
+            10_000L, 25_000L, 50_000L,
+            100_000L, 250_000L, 500_000L,
+            1_000_000L, 2_500_000L, 5_000_000L,
+            10_000_000L, 25_000_000L, 50_000_000L,
+            100_000_000L, 250_000_000L, 500_000_000L,
+            1_000_000_000L, 2_500_000_000L, 5_000_000_000L,
+            10_000_000_000L,
+    };
+
+    private final ConcurrentHistogram histogram = new ConcurrentHistogram(HIGHEST_TRACKABLE_NANOS, SIGNIFICANT_DIGITS);
+    private final LongAdder sumNanos = new LongAdder();
+
+    public void record(final long durationNanos) {
+        final long nanos = Math.min(Math.max(0, durationNanos), HIGHEST_TRACKABLE_NANOS);
+        histogram.recordValue(nanos);
+        sumNanos.add(nanos);
+    }
+
+    public Snapshot snapshot() {
+        return new Snapshot(histogram.copy(), sumNanos.sum());
+    }
+
+    /**
+     * The recorded latencies at one point in time.
+     */
+    public static final class Snapshot {
+        private final Histogram histogram;
+        private final long sumNanos;
+
+        private Snapshot(final Histogram histogram, final long sumNanos) {
+            this.histogram = histogram;
+            this.sumNanos = sumNanos;
+        }
+
+        public int bucketCount() {
+            return UPPER_BOUNDS_NANOS.length;
+        }
+
+        public long upperBoundNanos(final int bucket) {
+            return UPPER_BOUNDS_NANOS[bucket];
+        }
+
+        /**
+         * The number of latencies up to and including the upper bound of {@code bucket}, to the precision of the
+         * histogram.
+         */
+        public long cumulativeCount(final int bucket) {
+            return histogram.getCountBetweenValues(0, UPPER_BOUNDS_NANOS[bucket]);
+        }
+
+        public long count() {
+            return histogram.getTotalCount();
+        }
+
+        public long sumNanos() {
+            return sumNanos;
+        }
+    }
+}
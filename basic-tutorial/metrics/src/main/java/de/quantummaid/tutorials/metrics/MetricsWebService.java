@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+//Showcase start metricswebservice
+
+package de.quantummaid.tutorials.metrics;
+
+import de.quantummaid.quantummaid.QuantumMaid;
+import de.quantummaid.tutorials.GreetingUseCase;
+import de.quantummaid.tutorials.codegen.SpecializeUseCases;
+
+import static de.quantummaid.tutorials.metrics.GreetingUseCaseMappers.helloFromBody;
+import static de.quantummaid.tutorials.metrics.GreetingUseCaseMappers.helloFromPath;
+import static de.quantummaid.tutorials.metrics.InMemoryMetricsRegistry.inMemoryMetricsRegistry;
+import static de.quantummaid.tutorials.metrics.PrometheusMetricsHandler.prometheusMetricsHandler;
+import static de.quantummaid.tutorials.metrics.TimedHandler.timed;
+
+@SpecializeUseCases(GreetingUseCase.class)
+public final class MetricsWebService {
+    private static final int PORT = 8080;
+
+    public static void main(final String[] args) {
+        createQuantumMaid(PORT).run();
+    }
+
+    public static QuantumMaid createQuantumMaid(final int port) {
+        final InMemoryMetricsRegistry registry = inMemoryMetricsRegistry();
+        final GreetingUseCase greetingUseCase = new GreetingUseCase();
+        return QuantumMaid.quantumMaid()
+                .get("/helloworld", timed("/helloworld",
+                        (request, response) -> response.setBody("Hello World!"), registry))
+                .get("/hello/<name>", timed("/hello/<name>", helloFromPath(greetingUseCase), registry))
+                .post("/hello", timed("/hello", helloFromBody(greetingUseCase), registry))
+                .get("/metrics", prometheusMetricsHandler(registry))
+                .withLocalHostEndpointOnPort(port);
+    }
+}
+//Showcase end metricswebservice
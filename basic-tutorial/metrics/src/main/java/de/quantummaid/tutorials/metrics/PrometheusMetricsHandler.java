@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.metrics;
+
+import de.quantummaid.httpmaid.handler.http.HttpHandler;
+import de.quantummaid.httpmaid.handler.http.HttpRequest;
+import de.quantummaid.httpmaid.handler.http.HttpResponse;
+
+/**
+ * Serves the contents of an {@link InMemoryMetricsRegistry} in the Prometheus text exposition format:
+ *
+ * <pre>{@code
+ * .get("/metrics", prometheusMetricsHandler(registry))
+ * }</pre>
+ */
+public final class PrometheusMetricsHandler implements HttpHandler {
+    private static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+    private final InMemoryMetricsRegistry registry;
+
+    private PrometheusMetricsHandler(final InMemoryMetricsRegistry registry) {
+        this.registry = registry;
+    }
+
+    public static HttpHandler prometheusMetricsHandler(final InMemoryMetricsRegistry registry) {
+        return new PrometheusMetricsHandler(registry);
+    }
+
+    @Override
+    public void handle(final HttpRequest request, final HttpResponse response) {
+        response.addHeader("Content-Type", CONTENT_TYPE);
+        response.setBody(exposition());
+    }
+
+    String exposition() {
+        final StringBuilder requests = header("http_requests_total", "counter",
+                "Completed requests per route.");
+        final StringBuilder errors = header("http_request_errors_total", "counter",
+                "Requests per route answered with a 4xx or 5xx status.");
+        final StringBuilder inFlight = header("http_requests_in_flight", "gauge",
+                "Requests per route currently being handled.");
+        final StringBuilder durations = header("http_request_duration_seconds", "histogram",
+                "Handler latency per route.");
+        registry.forEachRoute((route, metrics) -> {
+            final String label = "route=\"" + escapeLabelValue(route) + "\"";
+            sample(requests, "http_requests_total", label, metrics.requests());
+            sample(errors, "http_request_errors_total", label, metrics.errors());
+            sample(inFlight, "http_requests_in_flight", label, metrics.inFlight());
+            final LatencyHistogram.Snapshot latency = metrics.latency().snapshot();
+            final long count = latency.count();
+            for (int bucket = 0; bucket < latency.bucketCount(); ++bucket) {
+                final String le = Double.toString(latency.upperBoundNanos(bucket) / NANOS_PER_SECOND);
+                sample(durations, "http_request_duration_seconds_bucket", label + ",le=\"" + le + "\"",
+                        latency.cumulativeCount(bucket));
+            }
+            sample(durations, "http_request_duration_seconds_bucket", label + ",le=\"+Inf\"", count);
+            durations.append("http_request_duration_seconds_sum{").append(label).append("} ")
+                    .append(latency.sumNanos() / NANOS_PER_SECOND).append('\n');
+            sample(durations, "http_request_duration_seconds_count", label, count);
+        });
+        return requests.append(errors).append(inFlight).append(durations).toString();
+    }
+
+    private static StringBuilder header(final String name, final String type, final String help) {
+        return new StringBuilder()
+                .append("# HELP ").append(name).append(' ').append(help).append('\n')
+                .append("# TYPE ").append(name).append(' ').append(type).append('\n');
+    }
+
+    private static void sample(final StringBuilder builder, final String name, final String labels, final long value) {
+        builder.append(name).append('{').append(labels).append("} ").append(value).append('\n');
+    }
+
+    private static String escapeLabelValue(final String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.metrics;
+
+import de.quantummaid.httpmaid.handler.http.HttpHandler;
+import de.quantummaid.httpmaid.handler.http.HttpRequest;
+import de.quantummaid.httpmaid.handler.http.HttpResponse;
+
+/**
+ * Records in-flight requests, request and error counts and latency of the wrapped handler. Errors are counted by
+ * the status of the response, so a handler that answers {@code 400} or {@code 503} counts as one just like a handler
+ * that throws, which is recorded as {@code 500}.
+ * The {@link RouteMetrics} are looked up once when the route is registered:
+ *
+ * <pre>{@code
+ * .get("/helloworld", timed("/helloworld", (request, response) -> response.setBody("Hello World!"), registry))
+ * }</pre>
+ */
+public final class TimedHandler implements HttpHandler {
+    private static final int INTERNAL_SERVER_ERROR = 500;
+
+    private final HttpHandler delegate;
+    private final RouteMetrics metrics;
+
+    private TimedHandler(final HttpHandler delegate, final RouteMetrics metrics) {
+        this.delegate = delegate;
+        this.metrics = metrics;
+    }
+
+    public static HttpHandler timed(final String route,
+                                    final HttpHandler delegate,
+                                    final MetricsRegistry registry) {
+        return new TimedHandler(delegate, registry.routeMetrics(route));
+    }
+
+    @Override
+    public void handle(final HttpRequest request, final HttpResponse response) {
+        metrics.requestStarted();
+        final long start = System.nanoTime();
+        int status = INTERNAL_SERVER_ERROR;
+        try {
+            delegate.handle(request, response);
+            status = response.status();
+        } finally {
+            metrics.requestFinished(System.nanoTime() - start, status);
+        }
+    }
+}
@@ -0,0 +1,339 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.sharding;
+
+import de.quantummaid.httpmaid.awslambda.AwsLambdaEndpoint;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static de.quantummaid.tutorials.events.ApiGatewayEvents.restApiEvent;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * A keep-alive HTTP/1.1 connection of a {@link Shard}. Requests are parsed from the connection's own input
+ * buffer, handed to HttpMaid as API Gateway events and answered in order, so pipelined requests work as well.
+ * Bodies need a {@code Content-Length} of plain digits; chunked requests are rejected. HTTP/1.0 connections are
+ * closed after each response unless the request asks for {@code Connection: keep-alive}.
+ */
+final class HttpConnection {
+    private static final int INITIAL_BUFFER_SIZE = 16 * 1024;
+    private static final int MAX_HEADER_SIZE = 64 * 1024;
+    private static final int MAX_BODY_SIZE = 16 * 1024 * 1024;
+    private static final byte[] HEADER_END = {'\r', '\n', '\r', '\n'};
+    private static final int ESTIMATED_HEAD_LENGTH = 256;
+    private static final int OK = 200;
+    private static final int NO_CONTENT = 204;
+    private static final int BAD_REQUEST = 400;
+    private static final int NOT_FOUND = 404;
+    private static final int METHOD_NOT_ALLOWED = 405;
+    private static final int PAYLOAD_TOO_LARGE = 413;
+    private static final int HEADER_FIELDS_TOO_LARGE = 431;
+    private static final int INTERNAL_SERVER_ERROR = 500;
+    private static final int NOT_IMPLEMENTED = 501;
+    private static final Map<Integer, String> REASONS = Map.of(
+            OK, "OK",
+            NO_CONTENT, "No Content",
+            BAD_REQUEST, "Bad Request",
+            NOT_FOUND, "Not Found",
+            METHOD_NOT_ALLOWED, "Method Not Allowed",
+            PAYLOAD_TOO_LARGE, "Payload Too Large",
+            HEADER_FIELDS_TOO_LARGE, "Request Header Fields Too Large",
+            INTERNAL_SERVER_ERROR, "Internal Server Error",
+            NOT_IMPLEMENTED, "Not Implemented");
+
+    private final SocketChannel channel;
+    private final AwsLambdaEndpoint endpoint;
+    private ByteBuffer input = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+    private ByteBuffer output = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+    private boolean closeAfterOutput;
+
+    private HttpConnection(final SocketChannel channel, final AwsLambdaEndpoint endpoint) {
+        this.channel = channel;
+        this.endpoint = endpoint;
+    }
+
+    static HttpConnection httpConnection(final SocketChannel channel, final AwsLambdaEndpoint endpoint) {
+        return new HttpConnection(channel, endpoint);
+    }
+
+    /**
+     * Reads what is available, serves every complete request and writes as much of the responses as the
+     * socket accepts. Returns {@code false} once the connection is done.
+     */
+    boolean read() throws IOException {
+        if (channel.read(input) < 0) {
+            return false;
+        }
+        serveCompleteRequests();
+        return write();
+    }
+
+    boolean write() throws IOException {
+        output.flip();
+        channel.write(output);
+        output.compact();
+        return !closeAfterOutput || hasPendingOutput();
+    }
+
+    boolean hasPendingOutput() {
+        return output.position() > 0;
+    }
+
+    void close() {
+        try {
+            channel.close();
+        } catch (final IOException e) {
+            // the peer is gone either way
+        }
+    }
+
+    private void serveCompleteRequests() {
+        final byte[] data = input.array();
+        final int end = input.position();
+        int start = 0;
+        while (!closeAfterOutput) {
+            final int headerEnd = indexOf(HEADER_END, data, start, end);
+            if (headerEnd < 0) {
+                if (end - start >= MAX_HEADER_SIZE) {
+                    respondAndClose(HEADER_FIELDS_TOO_LARGE);
+                }
+                break;
+            }
+            final Map<String, Object> event;
+            final Head parsed;
+            final int contentLength;
+            try {
+                final String head = new String(data, start, headerEnd - start, US_ASCII);
+                parsed = Head.parse(head);
+                if (parsed.header("Transfer-Encoding") != null) {
+                    respondAndClose(NOT_IMPLEMENTED);
+                    break;
+                }
+                contentLength = parsed.contentLength();
+                if (contentLength > MAX_BODY_SIZE) {
+                    respondAndClose(PAYLOAD_TOO_LARGE);
+                    break;
+                }
+                final int bodyStart = headerEnd + HEADER_END.length;
+                if (end - bodyStart < contentLength) {
+                    ensureInputCapacity(bodyStart - start + contentLength);
+                    break;
+                }
+                event = parsed.toEvent(contentLength == 0 ? null : new String(data, bodyStart, contentLength, UTF_8));
+            } catch (final IllegalArgumentException e) {
+                respondAndClose(BAD_REQUEST);
+                break;
+            }
+            respond(dispatch(event), parsed.keepAlive(), parsed.http10);
+            start = headerEnd + HEADER_END.length + contentLength;
+        }
+        compactInput(start);
+    }
+
+    private Map<String, Object> dispatch(final Map<String, Object> event) {
+        try {
+            return endpoint.delegate(event);
+        } catch (final RuntimeException e) {
+            return Map.of("statusCode", INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    private void respondAndClose(final int status) {
+        respond(Map.of("statusCode", status), false, false);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void respond(final Map<String, Object> response, final boolean keepAlive, final boolean http10) {
+        final int status = Integer.parseInt(String.valueOf(response.get("statusCode")));
+        final Object body = response.get("body");
+        final byte[] bodyBytes;
+        if (body == null) {
+            bodyBytes = new byte[0];
+        } else if (Boolean.TRUE.equals(response.get("isBase64Encoded"))) {
+            bodyBytes = Base64.getDecoder().decode(body.toString());
+        } else {
+            bodyBytes = body.toString().getBytes(UTF_8);
+        }
+
+        final StringBuilder head = new StringBuilder(ESTIMATED_HEAD_LENGTH)
+                .append("HTTP/1.1 ").append(status).append(' ').append(REASONS.getOrDefault(status, "")).append("\r\n");
+        final Object multiValueHeaders = response.get("multiValueHeaders");
+        if (multiValueHeaders instanceof Map && !((Map<?, ?>) multiValueHeaders).isEmpty()) {
+            ((Map<String, List<?>>) multiValueHeaders).forEach((name, values) ->
+                    values.forEach(value -> appendHeader(head, name, value)));
+        } else if (response.get("headers") instanceof Map) {
+            ((Map<String, ?>) response.get("headers")).forEach((name, value) -> appendHeader(head, name, value));
+        }
+        head.append("Content-Length: ").append(bodyBytes.length).append("\r\n");
+        if (!keepAlive) {
+            head.append("Connection: close\r\n");
+            closeAfterOutput = true;
+        } else if (http10) {
+            head.append("Connection: keep-alive\r\n");
+        }
+        final byte[] headBytes = head.append("\r\n").toString().getBytes(US_ASCII);
+
+        ensureOutputCapacity(headBytes.length + bodyBytes.length);
+        output.put(headBytes).put(bodyBytes);
+    }
+
+    private static void appendHeader(final StringBuilder head, final String name, final Object value) {
+        if ("Content-Length".equalsIgnoreCase(name) || "Connection".equalsIgnoreCase(name)
+                || "Transfer-Encoding".equalsIgnoreCase(name)) {
+            return;
+        }
+        head.append(name).append(": ").append(value).append("\r\n");
+    }
+
+    private void compactInput(final int start) {
+        final int end = input.position();
+        if (start == 0) {
+            if (end == input.capacity() && input.capacity() < MAX_HEADER_SIZE) {
+                ensureInputCapacity(input.capacity() * 2);
+            }
+            return;
+        }
+        System.arraycopy(input.array(), start, input.array(), 0, end - start);
+        input.position(end - start);
+    }
+
+    private void ensureInputCapacity(final int capacity) {
+        if (input.capacity() < capacity) {
+            final ByteBuffer larger = ByteBuffer.allocate(Math.max(capacity, input.capacity() * 2));
+            input.flip();
+            larger.put(input);
+            input = larger;
+        }
+    }
+
+    private void ensureOutputCapacity(final int additional) {
+        if (output.remaining() < additional) {
+            final ByteBuffer larger = ByteBuffer.allocate(Math.max(output.position() + additional,
+                    output.capacity() * 2));
+            output.flip();
+            larger.put(output);
+            output = larger;
+        }
+    }
+
+    private static int indexOf(final byte[] pattern, final byte[] data, final int from, final int to) {
+        for (int i = from; i <= to - pattern.length; ++i) {
+            int matched = 0;
+            while (matched < pattern.length && data[i + matched] == pattern[matched]) {
+                ++matched;
+            }
+            if (matched == pattern.length) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Request line and headers of one request.
+     */
+    private static final class Head {
+        private final String method;
+        private final String target;
+        private final boolean http10;
+        private final Map<String, String> headers;
+        private final Map<String, List<String>> multiValueHeaders;
+
+        private Head(final String method,
+                     final String target,
+                     final boolean http10,
+                     final Map<String, String> headers,
+                     final Map<String, List<String>> multiValueHeaders) {
+            this.method = method;
+            this.target = target;
+            this.http10 = http10;
+            this.headers = headers;
+            this.multiValueHeaders = multiValueHeaders;
+        }
+
+        static Head parse(final String head) {
+            final String[] lines = head.split("\r\n");
+            final String[] requestLine = lines[0].split(" ");
+            if (requestLine.length != 3 || !requestLine[2].startsWith("HTTP/1.") || !requestLine[1].startsWith("/")) {
+                throw new IllegalArgumentException("malformed request line " + lines[0]);
+            }
+            final Map<String, String> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+            final Map<String, List<String>> multiValueHeaders = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+            for (int i = 1; i < lines.length; ++i) {
+                final int colon = lines[i].indexOf(':');
+                if (colon <= 0) {
+                    throw new IllegalArgumentException("malformed header " + lines[i]);
+                }
+                final String name = lines[i].substring(0, colon).trim();
+                final String value = lines[i].substring(colon + 1).trim();
+                headers.merge(name, value, (first, second) -> first + "," + second);
+                multiValueHeaders.computeIfAbsent(name, ignored -> new ArrayList<>(1)).add(value);
+            }
+            return new Head(requestLine[0], requestLine[1], "HTTP/1.0".equals(requestLine[2]),
+                    headers, multiValueHeaders);
+        }
+
+        String header(final String name) {
+            return headers.get(name);
+        }
+
+        int contentLength() {
+            final String contentLength = header("Content-Length");
+            if (contentLength == null) {
+                return 0;
+            }
+            if (contentLength.isEmpty() || !contentLength.chars().allMatch(c -> c >= '0' && c <= '9')) {
+                throw new IllegalArgumentException("malformed Content-Length " + contentLength);
+            }
+            try {
+                return Integer.parseInt(contentLength);
+            } catch (final NumberFormatException e) {
+                // too many digits for an int, so far above the body size limit
+                return Integer.MAX_VALUE;
+            }
+        }
+
+        boolean keepAlive() {
+            final String connection = header("Connection");
+            if (http10) {
+                return "keep-alive".equalsIgnoreCase(connection);
+            }
+            return !"close".equalsIgnoreCase(connection);
+        }
+
+        Map<String, Object> toEvent(final String body) {
+            final int queryStart = target.indexOf('?');
+            final String path = URI.create(queryStart < 0 ? target : target.substring(0, queryStart)).getPath();
+            return restApiEvent(method, path, queryStart < 0 ? null : target.substring(queryStart + 1),
+                    multiValueHeaders, body);
+        }
+    }
+}
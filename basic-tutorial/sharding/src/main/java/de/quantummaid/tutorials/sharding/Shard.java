@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.sharding;
+
+import de.quantummaid.httpmaid.awslambda.AwsLambdaEndpoint;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.StandardSocketOptions;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Iterator;
+import java.util.function.Consumer;
+
+/**
+ * One acceptor and event loop. All connections it accepts are served on its own thread, without locks.
+ * If the loop itself fails, the shard logs the failure, closes its sockets and hands itself to the
+ * {@code onFailure} callback; the failure stays available through {@link #failure()}.
+ */
+final class Shard implements Runnable {
+    private final ServerSocketChannel serverChannel;
+    private final Selector selector;
+    private final AwsLambdaEndpoint endpoint;
+    private final Consumer<Shard> onFailure;
+    private volatile boolean running = true;
+    private volatile Exception failure;
+
+    private Shard(final ServerSocketChannel serverChannel,
+                  final Selector selector,
+                  final AwsLambdaEndpoint endpoint,
+                  final Consumer<Shard> onFailure) {
+        this.serverChannel = serverChannel;
+        this.selector = selector;
+        this.endpoint = endpoint;
+        this.onFailure = onFailure;
+    }
+
+    static Shard shard(final ServerSocketChannel serverChannel,
+                       final AwsLambdaEndpoint endpoint,
+                       final Consumer<Shard> onFailure) throws IOException {
+        final Selector selector = Selector.open();
+        serverChannel.register(selector, SelectionKey.OP_ACCEPT);
+        return new Shard(serverChannel, selector, endpoint, onFailure);
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (running) {
+                selector.select();
+                final Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    final SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) {
+                        continue;
+                    }
+                    if (key.isAcceptable()) {
+                        acceptAll();
+                    } else {
+                        serve(key);
+                    }
+                }
+            }
+        } catch (final IOException | RuntimeException e) {
+            failure = e;
+            System.err.println(Thread.currentThread().getName() + " stopped serving: " + e);
+        } finally {
+            closeAll();
+        }
+        if (failure != null) {
+            onFailure.accept(this);
+        }
+    }
+
+    void close() {
+        running = false;
+        selector.wakeup();
+    }
+
+    /**
+     * The exception that stopped the event loop, or {@code null} if it is running or was closed.
+     */
+    Exception failure() {
+        return failure;
+    }
+
+    private void acceptAll() throws IOException {
+        SocketChannel channel = serverChannel.accept();
+        while (channel != null) {
+            channel.configureBlocking(false);
+            channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            channel.register(selector, SelectionKey.OP_READ, HttpConnection.httpConnection(channel, endpoint));
+            channel = serverChannel.accept();
+        }
+    }
+
+    private static void serve(final SelectionKey key) {
+        final HttpConnection connection = (HttpConnection) key.attachment();
+        try {
+            final boolean open = key.isReadable() ? connection.read() : connection.write();
+            if (!open) {
+                key.cancel();
+                connection.close();
+            } else {
+                key.interestOps(connection.hasPendingOutput()
+                        ? SelectionKey.OP_READ | SelectionKey.OP_WRITE
+                        : SelectionKey.OP_READ);
+            }
+        } catch (final IOException e) {
+            key.cancel();
+            connection.close();
+        }
+    }
+
+    /**
+     * Releases the sockets of a shard whose thread never ran; a running shard does this itself.
+     */
+    void closeAll() {
+        if (selector.isOpen()) {
+            for (final SelectionKey key : selector.keys()) {
+                if (key.attachment() instanceof HttpConnection) {
+                    ((HttpConnection) key.attachment()).close();
+                }
+            }
+        }
+        closeQuietly(selector);
+        closeQuietly(serverChannel);
+    }
+
+    private static void closeQuietly(final Closeable closeable) {
+        try {
+            closeable.close();
+        } catch (final IOException e) {
+            // nothing left to do for a channel that is being shut down
+        }
+    }
+}
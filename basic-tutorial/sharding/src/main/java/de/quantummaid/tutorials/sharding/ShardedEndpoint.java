@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.sharding;
+
+import de.quantummaid.quantummaid.QuantumMaid;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.channels.ServerSocketChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static de.quantummaid.httpmaid.awslambda.AwsLambdaEndpoint.awsLambdaEndpointFor;
+
+/**
+ * Serves the routes of a QuantumMaid application from several independent shards that all listen on the
+ * same port. Every shard binds its own socket with {@code SO_REUSEPORT}, so the kernel spreads incoming
+ * connections over them, and runs its own selector thread with its own connections, buffers and QuantumMaid
+ * instance. Nothing mutable is shared between shards:
+ *
+ * <pre>{@code
+ * shardedEndpoint(() -> QuantumMaid.quantumMaid().get("/hello/<name>", GreetingUseCase.class), 8080, 16)
+ * }</pre>
+ *
+ * <p>The routes are created once per shard, so the supplier has to return a new instance on every call and
+ * must not configure an endpoint itself. A connection stays on the shard that accepted it.</p>
+ *
+ * <p>If the event loop of a shard fails, the whole endpoint is closed rather than left serving with fewer
+ * shards, and {@link #awaitTermination()} reports the failure.</p>
+ */
+public final class ShardedEndpoint implements AutoCloseable {
+    private final List<Shard> shards;
+    private final List<Thread> threads;
+    private final int port;
+
+    private ShardedEndpoint(final List<Shard> shards, final List<Thread> threads, final int port) {
+        this.shards = shards;
+        this.threads = threads;
+        this.port = port;
+    }
+
+    /**
+     * Binds all shards and starts their threads. With port {@code 0}, the first shard binds a free port and
+     * the other shards join it.
+     */
+    public static ShardedEndpoint shardedEndpoint(final Supplier<QuantumMaid> routes,
+                                                  final int port,
+                                                  final int numberOfShards) {
+        if (numberOfShards < 1) {
+            throw new IllegalArgumentException("at least one shard is needed but got " + numberOfShards);
+        }
+        final List<Shard> shards = new ArrayList<>(numberOfShards);
+        int boundPort = port;
+        try {
+            for (int i = 0; i < numberOfShards; ++i) {
+                final ServerSocketChannel serverChannel = bind(boundPort, numberOfShards);
+                boundPort = serverChannel.socket().getLocalPort();
+                shards.add(Shard.shard(serverChannel, awsLambdaEndpointFor(routes.get().httpMaid()),
+                        failed -> shards.forEach(Shard::close)));
+            }
+        } catch (final IOException | RuntimeException e) {
+            shards.forEach(Shard::closeAll);
+            throw e instanceof IOException ? new UncheckedIOException((IOException) e) : (RuntimeException) e;
+        }
+        final List<Thread> threads = new ArrayList<>(numberOfShards);
+        for (int i = 0; i < shards.size(); ++i) {
+            final Thread thread = new Thread(shards.get(i), "shard-" + i);
+            thread.start();
+            threads.add(thread);
+        }
+        return new ShardedEndpoint(shards, threads, boundPort);
+    }
+
+    public int port() {
+        return port;
+    }
+
+    public int numberOfShards() {
+        return shards.size();
+    }
+
+    /**
+     * Blocks until all shards have stopped, which happens through {@link #close()} or when a shard fails.
+     *
+     * @throws IllegalStateException if the shards stopped because one of them failed
+     */
+    public void awaitTermination() throws InterruptedException {
+        join();
+        for (int i = 0; i < shards.size(); ++i) {
+            final Exception failure = shards.get(i).failure();
+            if (failure != null) {
+                throw new IllegalStateException(threads.get(i).getName() + " failed", failure);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        shards.forEach(Shard::close);
+        try {
+            join();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void join() throws InterruptedException {
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+    }
+
+    private static ServerSocketChannel bind(final int port, final int numberOfShards) throws IOException {
+        final ServerSocketChannel serverChannel = ServerSocketChannel.open();
+        try {
+            if (numberOfShards > 1) {
+                if (!serverChannel.supportedOptions().contains(StandardSocketOptions.SO_REUSEPORT)) {
+                    throw new IllegalStateException("SO_REUSEPORT is not supported on this platform, "
+                            + "only a single shard can be used");
+                }
+                serverChannel.setOption(StandardSocketOptions.SO_REUSEPORT, true);
+            }
+            serverChannel.setOption(StandardSocketOptions.SO_REUSEADDR, true);
+            serverChannel.bind(new InetSocketAddress(port));
+            serverChannel.configureBlocking(false);
+            return serverChannel;
+        } catch (final IOException | RuntimeException e) {
+            serverChannel.close();
+            throw e;
+        }
+    }
+}
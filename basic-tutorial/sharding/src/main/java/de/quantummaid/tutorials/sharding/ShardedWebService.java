@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+//Showcase start shardedwebservice
+
+package de.quantummaid.tutorials.sharding;
+
+import de.quantummaid.quantummaid.QuantumMaid;
+import de.quantummaid.tutorials.GreetingUseCase;
+
+import static de.quantummaid.tutorials.sharding.ShardedEndpoint.shardedEndpoint;
+
+public final class ShardedWebService {
+    private static final int PORT = 8080;
+
+    public static void main(final String[] args) throws InterruptedException {
+        final int shards = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        createShardedEndpoint(PORT, shards).awaitTermination();
+    }
+
+    public static ShardedEndpoint createShardedEndpoint(final int port, final int shards) {
+        return shardedEndpoint(ShardedWebService::greetingRoutes, port, shards);
+    }
+
+    private static QuantumMaid greetingRoutes() {
+        return QuantumMaid.quantumMaid()
+                .get("/hello/<name>", GreetingUseCase.class)
+                .post("/hello", GreetingUseCase.class);
+    }
+}
+//Showcase end shardedwebservice
@@ -0,0 +1,230 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.sharding;
+
+import de.quantummaid.quantummaid.QuantumMaid;
+import de.quantummaid.tutorials.GreetingUseCase;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static de.quantummaid.tutorials.sharding.ShardedEndpoint.shardedEndpoint;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Talks raw HTTP/1.x to a single shard, so that the test controls how requests are split over the reads of
+ * the connection.
+ */
+public final class HttpConnectionTest {
+    private static final int TIMEOUT_MILLISECONDS = 5_000;
+    private static final int PAUSE_MILLISECONDS = 100;
+
+    private ShardedEndpoint endpoint;
+
+    @BeforeEach
+    public void start() {
+        endpoint = shardedEndpoint(() -> QuantumMaid.quantumMaid()
+                .get("/hello/<name>", GreetingUseCase.class)
+                .post("/echo", (request, response) -> response.setBody(request.bodyString())), 0, 1);
+    }
+
+    @AfterEach
+    public void stop() {
+        endpoint.close();
+    }
+
+    @Test
+    public void testPipelinedRequestsSplitAcrossReadsAreAnsweredInOrder() throws Exception {
+        try (Socket socket = connect()) {
+            send(socket, "GET /hello/a HTTP/1.1\r\nHost: localhost\r\n\r\nGET /hel");
+            send(socket, "lo/b HTTP/1.1\r\nHost: localhost\r");
+            send(socket, "\n\r\nGET /hello/c HTTP/1.1\r\n\r\n");
+            final InputStream input = socket.getInputStream();
+            assertEquals("\"hello a\"", readResponse(input).body);
+            assertEquals("\"hello b\"", readResponse(input).body);
+            assertEquals("\"hello c\"", readResponse(input).body);
+        }
+    }
+
+    @Test
+    public void testBodyStraddlingTheBufferGrowthIsReadCompletely() throws Exception {
+        final String body = "x".repeat(100_000);
+        final String request = "POST /echo HTTP/1.1\r\nContent-Length: " + body.length() + "\r\n\r\n" + body
+                + "GET /hello/after HTTP/1.1\r\n\r\n";
+        try (Socket socket = connect()) {
+            send(socket, request.substring(0, 10_000));
+            send(socket, request.substring(10_000, 70_000));
+            send(socket, request.substring(70_000));
+            final InputStream input = socket.getInputStream();
+            final Response echoed = readResponse(input);
+            assertEquals(200, echoed.status);
+            assertEquals(body, echoed.body);
+            assertEquals("\"hello after\"", readResponse(input).body);
+        }
+    }
+
+    @Test
+    public void testBadContentLengthIsBadRequest() throws Exception {
+        for (final String contentLength : new String[]{"abc", "-1", "+1", "1, 1", ""}) {
+            try (Socket socket = connect()) {
+                send(socket, "POST /echo HTTP/1.1\r\nContent-Length: " + contentLength + "\r\n\r\nx");
+                final InputStream input = socket.getInputStream();
+                final Response response = readResponse(input);
+                assertEquals(400, response.status, contentLength);
+                assertEquals("close", response.headers.get("Connection"));
+                assertEquals(-1, input.read());
+            }
+        }
+    }
+
+    @Test
+    public void testContentLengthAboveTheLimitIsPayloadTooLarge() throws Exception {
+        for (final String contentLength : new String[]{"16777217", "99999999999999999999"}) {
+            try (Socket socket = connect()) {
+                send(socket, "POST /echo HTTP/1.1\r\nContent-Length: " + contentLength + "\r\n\r\n");
+                assertEquals(413, readResponse(socket.getInputStream()).status, contentLength);
+            }
+        }
+    }
+
+    @Test
+    public void testTransferEncodingIsNotImplemented() throws Exception {
+        try (Socket socket = connect()) {
+            send(socket, "POST /echo HTTP/1.1\r\nTransfer-Encoding: chunked\r\n\r\n1\r\nx\r\n0\r\n\r\n");
+            final InputStream input = socket.getInputStream();
+            final Response response = readResponse(input);
+            assertEquals(501, response.status);
+            assertEquals("close", response.headers.get("Connection"));
+            assertEquals(-1, input.read());
+        }
+    }
+
+    @Test
+    public void testConnectionCloseEndsTheConnectionAfterTheResponse() throws Exception {
+        try (Socket socket = connect()) {
+            send(socket, "GET /hello/a HTTP/1.1\r\nConnection: close\r\n\r\nGET /hello/b HTTP/1.1\r\n\r\n");
+            final InputStream input = socket.getInputStream();
+            final Response response = readResponse(input);
+            assertEquals("\"hello a\"", response.body);
+            assertEquals("close", response.headers.get("Connection"));
+            assertEquals(-1, input.read());
+        }
+    }
+
+    @Test
+    public void testHttp10ConnectionsAreClosedUnlessKeepAliveIsRequested() throws Exception {
+        try (Socket socket = connect()) {
+            send(socket, "GET /hello/a HTTP/1.0\r\n\r\n");
+            final InputStream input = socket.getInputStream();
+            assertEquals("close", readResponse(input).headers.get("Connection"));
+            assertEquals(-1, input.read());
+        }
+        try (Socket socket = connect()) {
+            send(socket, "GET /hello/a HTTP/1.0\r\nConnection: keep-alive\r\n\r\nGET /hello/b HTTP/1.0\r\n\r\n");
+            final InputStream input = socket.getInputStream();
+            final Response first = readResponse(input);
+            assertEquals("\"hello a\"", first.body);
+            assertEquals("keep-alive", first.headers.get("Connection"));
+            final Response second = readResponse(input);
+            assertEquals("\"hello b\"", second.body);
+            assertEquals("close", second.headers.get("Connection"));
+            assertEquals(-1, input.read());
+        }
+    }
+
+    @Test
+    public void testHttp11ConnectionsStayOpen() throws Exception {
+        try (Socket socket = connect()) {
+            send(socket, "GET /hello/a HTTP/1.1\r\n\r\n");
+            final InputStream input = socket.getInputStream();
+            assertNull(readResponse(input).headers.get("Connection"));
+            send(socket, "GET /hello/b HTTP/1.1\r\n\r\n");
+            assertEquals("\"hello b\"", readResponse(input).body);
+        }
+    }
+
+    private Socket connect() throws IOException {
+        final Socket socket = new Socket(InetAddress.getLoopbackAddress(), endpoint.port());
+        socket.setTcpNoDelay(true);
+        socket.setSoTimeout(TIMEOUT_MILLISECONDS);
+        return socket;
+    }
+
+    private static void send(final Socket socket, final String data) throws IOException, InterruptedException {
+        final OutputStream output = socket.getOutputStream();
+        output.write(data.getBytes(UTF_8));
+        output.flush();
+        Thread.sleep(PAUSE_MILLISECONDS);
+    }
+
+    private static Response readResponse(final InputStream input) throws IOException {
+        final String statusLine = readLine(input);
+        final Map<String, String> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        String line = readLine(input);
+        while (!line.isEmpty()) {
+            final int colon = line.indexOf(':');
+            headers.put(line.substring(0, colon).trim(), line.substring(colon + 1).trim());
+            line = readLine(input);
+        }
+        final byte[] body = input.readNBytes(Integer.parseInt(headers.get("Content-Length")));
+        return new Response(Integer.parseInt(statusLine.split(" ")[1]), headers, new String(body, UTF_8));
+    }
+
+    private static String readLine(final InputStream input) throws IOException {
+        final ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int c = input.read();
+        while (c != '\n') {
+            if (c < 0) {
+                throw new IOException("connection closed in the middle of a response");
+            }
+            if (c != '\r') {
+                line.write(c);
+            }
+            c = input.read();
+        }
+        return line.toString(US_ASCII);
+    }
+
+    private static final class Response {
+        private final int status;
+        private final Map<String, String> headers;
+        private final String body;
+
+        private Response(final int status, final Map<String, String> headers, final String body) {
+            this.status = status;
+            this.headers = headers;
+            this.body = body;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.startup;
+
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static de.quantummaid.tutorials.startup.Candidate.parseCandidate;
+import static de.quantummaid.tutorials.startup.ServiceProcess.freePort;
+import static de.quantummaid.tutorials.startup.ServiceProcess.startService;
+import static java.lang.Integer.parseInt;
+
+/**
+ * Creates the dynamic AppCDS archive for step5's {@code quantummaid-app.sh} launcher.
+ *
+ * <p>The training run starts {@code quantummaid-app.jar} with {@code -XX:ArchiveClassesAtExit}, exercises both
+ * greeting routes so that every class they need gets loaded, and terminates the process, which makes the JVM
+ * write the archive. Dynamic archives need JDK 13 or newer; on older JDKs the training is skipped and the
+ * launcher falls back to the default CDS archive of the JDK.</p>
+ */
+public final class AppCdsTraining {
+    private static final int DYNAMIC_ARCHIVE_FEATURE_VERSION = 13;
+    private static final List<String> TRAINING_NAMES = List.of("quantummaid", "training", "cds");
+
+    private AppCdsTraining() {
+    }
+
+    public static void main(final String[] args) throws Exception {
+        final Map<String, String> options = new HashMap<>();
+        for (final String arg : args) {
+            final int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("arguments must be given as --key=value but got '" + arg + "'");
+            }
+            options.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+        final Path jar = Paths.get(required(options, "jar"));
+        final Path archive = Paths.get(required(options, "archive"));
+        final String fixedPort = options.get("port");
+        final int port = fixedPort == null ? freePort() : parseInt(fixedPort);
+        Files.deleteIfExists(archive);
+        if (Runtime.version().feature() < DYNAMIC_ARCHIVE_FEATURE_VERSION) {
+            System.out.println("dynamic AppCDS archives need JDK " + DYNAMIC_ARCHIVE_FEATURE_VERSION
+                    + " or newer, skipping the training run on " + Runtime.version());
+            return;
+        }
+
+        final String java = Paths.get(System.getProperty("java.home"), "bin", "java").toString();
+        final Candidate training = parseCandidate(String.format(
+                "appcds-training=%s -XX:ArchiveClassesAtExit=%s -jar %s",
+                java, archive.toAbsolutePath(), jar.toAbsolutePath()));
+        final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+        try (ServiceProcess service = startService(training, port, client)) {
+            service.awaitFirstGreeting();
+            for (final String name : TRAINING_NAMES) {
+                service.getGreeting(name);
+                service.postGreeting(name);
+            }
+            service.stop();
+        }
+        if (!Files.isRegularFile(archive)) {
+            throw new IllegalStateException("the training run did not write " + archive);
+        }
+        System.out.println("AppCDS archive written to " + archive + " (" + Files.size(archive) + " bytes)");
+    }
+
+    private static String required(final Map<String, String> options, final String key) {
+        final String value = options.get(key);
+        if (value == null) {
+            throw new IllegalArgumentException("missing required argument --" + key);
+        }
+        return value;
+    }
+}
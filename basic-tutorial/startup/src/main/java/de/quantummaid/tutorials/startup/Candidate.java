@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.startup;
+
+import java.util.List;
+
+import static java.util.Arrays.asList;
+
+/**
+ * One way of launching the step5 web service, parsed from {@code name=command line}.
+ */
+final class Candidate {
+    private final String name;
+    private final List<String> command;
+
+    private Candidate(final String name, final List<String> command) {
+        this.name = name;
+        this.command = command;
+    }
+
+    static Candidate parseCandidate(final String specification) {
+        final int separator = specification.indexOf('=');
+        if (separator <= 0 || separator == specification.length() - 1) {
+            throw new IllegalArgumentException(
+                    "candidate must be specified as name=command line but was '" + specification + "'");
+        }
+        final String commandLine = specification.substring(separator + 1).trim();
+        return new Candidate(specification.substring(0, separator), asList(commandLine.split("\\s+")));
+    }
+
+    String name() {
+        return name;
+    }
+
+    List<String> command() {
+        return command;
+    }
+}
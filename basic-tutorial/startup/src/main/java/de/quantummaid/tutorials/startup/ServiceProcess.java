@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.startup;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * A candidate's web service running as a separate process. The port is appended to the candidate's command line,
+ * which step5's {@code WebService} takes as the port to listen on.
+ * Closing it terminates the process the way a container runtime would, with {@code SIGTERM}.
+ */
+final class ServiceProcess implements AutoCloseable {
+    private static final String EXPECTED_BODY = "\"hello quantummaid\"";
+    private static final int OK = 200;
+    private static final Duration STARTUP_TIMEOUT = Duration.ofSeconds(60);
+    private static final long POLL_INTERVAL_MILLIS = 2;
+    private static final int CONNECT_TIMEOUT_MILLIS = 200;
+
+    private final Candidate candidate;
+    private final Process process;
+    private final HttpClient client;
+    private final URI base;
+    private final long startNanos;
+
+    private ServiceProcess(final Candidate candidate,
+                           final Process process,
+                           final HttpClient client,
+                           final URI base,
+                           final long startNanos) {
+        this.candidate = candidate;
+        this.process = process;
+        this.client = client;
+        this.base = base;
+        this.startNanos = startNanos;
+    }
+
+    static ServiceProcess startService(final Candidate candidate,
+                                       final int port,
+                                       final HttpClient client) throws IOException {
+        if (isListening(port)) {
+            throw new IllegalStateException("port " + port + " is already in use, cannot start " + candidate.name());
+        }
+        final List<String> command = new ArrayList<>(candidate.command());
+        command.add(String.valueOf(port));
+        final long startNanos = System.nanoTime();
+        final Process process = new ProcessBuilder(command)
+                .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                .redirectError(ProcessBuilder.Redirect.INHERIT)
+                .start();
+        return new ServiceProcess(candidate, process, client, URI.create("http://localhost:" + port), startNanos);
+    }
+
+    /**
+     * A port that nothing listened on a moment ago, for a service that is about to be started.
+     */
+    static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    /**
+     * Polls {@code GET /hello/quantummaid} until it is answered and returns the nanoseconds since the process was
+     * started.
+     */
+    long awaitFirstGreeting() throws IOException, InterruptedException {
+        final HttpRequest request = HttpRequest.newBuilder(base.resolve("/hello/quantummaid")).GET().build();
+        while (System.nanoTime() - startNanos < STARTUP_TIMEOUT.toNanos()) {
+            if (!process.isAlive()) {
+                throw new IllegalStateException(String.format(Locale.ROOT,
+                        "%s exited with %d before answering", candidate.name(), process.exitValue()));
+            }
+            try {
+                final HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+                final long timeToFirstResponse = System.nanoTime() - startNanos;
+                assertGreeting("GET /hello/quantummaid", "quantummaid", response);
+                return timeToFirstResponse;
+            } catch (final ConnectException e) {
+                Thread.sleep(POLL_INTERVAL_MILLIS);
+            }
+        }
+        throw new IllegalStateException(candidate.name() + " did not answer within " + STARTUP_TIMEOUT);
+    }
+
+    void getGreeting(final String name) throws IOException, InterruptedException {
+        assertGreeting("GET /hello/" + name, name, client.send(
+                HttpRequest.newBuilder(base.resolve("/hello/" + name)).GET().build(),
+                HttpResponse.BodyHandlers.ofString()));
+    }
+
+    void postGreeting(final String name) throws IOException, InterruptedException {
+        assertGreeting("POST /hello", name, client.send(HttpRequest.newBuilder(base.resolve("/hello"))
+                .POST(HttpRequest.BodyPublishers.ofString("{ \"name\": \"" + name + "\" }"))
+                .build(), HttpResponse.BodyHandlers.ofString()));
+    }
+
+    /**
+     * The resident memory of the process as reported by {@code /proc}, or {@code -1} where that is not available.
+     */
+    long residentKilobytes() throws IOException {
+        final Path status = Paths.get("/proc", String.valueOf(process.pid()), "status");
+        if (!Files.isReadable(status)) {
+            return -1;
+        }
+        return Files.readAllLines(status, UTF_8).stream()
+                .filter(line -> line.startsWith("VmRSS:"))
+                .map(line -> line.replaceAll("[^0-9]", ""))
+                .mapToLong(Long::parseLong)
+                .findFirst()
+                .orElse(-1);
+    }
+
+    /**
+     * Sends {@code SIGTERM} and waits for the process to exit, returning its exit code.
+     */
+    int stop() throws InterruptedException {
+        process.destroy();
+        return process.waitFor();
+    }
+
+    @Override
+    public void close() {
+        if (!process.isAlive()) {
+            return;
+        }
+        try {
+            stop();
+        } catch (final InterruptedException e) {
+            process.destroyForcibly();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void assertGreeting(final String request, final String name, final HttpResponse<String> response) {
+        final String expectedBody = EXPECTED_BODY.replace("quantummaid", name);
+        if (response.statusCode() != OK || !expectedBody.equals(response.body())) {
+            throw new IllegalStateException(String.format(Locale.ROOT, "%s answered %s with %d %s",
+                    candidate.name(), request, response.statusCode(), response.body()));
+        }
+    }
+
+    private static boolean isListening(final int port) {
+        try (Socket socket = new Socket()) {
+            socket.connect(new InetSocketAddress("localhost", port), CONNECT_TIMEOUT_MILLIS);
+            return true;
+        } catch (final IOException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.startup;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+import static de.quantummaid.tutorials.startup.Candidate.parseCandidate;
+import static de.quantummaid.tutorials.startup.ServiceProcess.freePort;
+import static de.quantummaid.tutorials.startup.ServiceProcess.startService;
+import static java.lang.Integer.parseInt;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Starts the step5 web service once per candidate and run, and measures how long it takes until
+ * {@code GET /hello/quantummaid} is answered and how much resident memory the process holds afterwards.
+ *
+ * <p>Every run also repeats the assertions of {@code GreetingTest} over HTTP, so a candidate that starts quickly
+ * but answers wrongly fails the comparison. Resident memory is read from {@code /proc} and reported as
+ * {@code -1} where that is not available. Each run listens on a free port unless {@code --port} names one.</p>
+ */
+public final class StartupComparison {
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+    private static final double KILOBYTES_PER_MEGABYTE = 1024.0;
+
+    private StartupComparison() {
+    }
+
+    public static void main(final String[] args) throws Exception {
+        final Map<String, String> options = new HashMap<>();
+        final List<Candidate> candidates = new ArrayList<>();
+        for (final String arg : args) {
+            final int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("arguments must be given as --key=value but got '" + arg + "'");
+            }
+            final String key = arg.substring(2, separator);
+            final String value = arg.substring(separator + 1);
+            if ("candidate".equals(key)) {
+                candidates.add(parseCandidate(value));
+            } else {
+                options.put(key, value);
+            }
+        }
+        final String fixedPort = options.get("port");
+        final int runs = parseInt(options.getOrDefault("runs", "3"));
+        final Path results = Paths.get(options.getOrDefault("results", "startup-comparison.json"));
+
+        final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+        final List<String> reports = new ArrayList<>();
+        System.out.printf(Locale.ROOT, "%-16s %24s %16s%n", "candidate", "time to first response", "resident memory");
+        for (final Candidate candidate : candidates) {
+            final List<StartupMeasurement> measurements = new ArrayList<>();
+            for (int run = 0; run < runs; ++run) {
+                final int port = fixedPort == null ? freePort() : parseInt(fixedPort);
+                measurements.add(measure(candidate, port, client));
+            }
+            final double millis = median(measurements, StartupMeasurement::timeToFirstResponseNanos) / NANOS_PER_MILLI;
+            final long residentKilobytes = median(measurements, StartupMeasurement::residentKilobytes);
+            System.out.printf(Locale.ROOT, "%-16s %21.1f ms %13.1f MB%n",
+                    candidate.name(), millis, residentKilobytes / KILOBYTES_PER_MEGABYTE);
+            reports.add(String.format(Locale.ROOT,
+                    "{\"candidate\":\"%s\",\"medianTimeToFirstResponseMillis\":%.3f,\"medianResidentKilobytes\":%d}",
+                    candidate.name(), millis, residentKilobytes));
+        }
+
+        final String json = String.format(Locale.ROOT, "{\"timestamp\":\"%s\",\"runs\":%d,\"candidates\":[%s]}%n",
+                Instant.now(), runs, String.join(",", reports));
+        Files.createDirectories(results.toAbsolutePath().getParent());
+        Files.writeString(results, json, UTF_8);
+        System.out.println("startup comparison written to " + results);
+    }
+
+    private static StartupMeasurement measure(final Candidate candidate,
+                                              final int port,
+                                              final HttpClient client) throws IOException, InterruptedException {
+        try (ServiceProcess service = startService(candidate, port, client)) {
+            final long timeToFirstResponse = service.awaitFirstGreeting();
+            service.postGreeting("quantummaid");
+            return new StartupMeasurement(timeToFirstResponse, service.residentKilobytes());
+        }
+    }
+
+    private static long median(final List<StartupMeasurement> measurements,
+                               final ToLongFunction<StartupMeasurement> metric) {
+        final long[] values = measurements.stream().mapToLong(metric).sorted().toArray();
+        return values[values.length / 2];
+    }
+}
@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.startup;
+
+/**
+ * Time from process start until the first successful response, and the resident memory of the process
+ * once both greeting routes have been served.
+ */
+final class StartupMeasurement {
+    private final long timeToFirstResponseNanos;
+    private final long residentKilobytes;
+
+    StartupMeasurement(final long timeToFirstResponseNanos, final long residentKilobytes) {
+        this.timeToFirstResponseNanos = timeToFirstResponseNanos;
+        this.residentKilobytes = residentKilobytes;
+    }
+
+    long timeToFirstResponseNanos() {
+        return timeToFirstResponseNanos;
+    }
+
+    long residentKilobytes() {
+        return residentKilobytes;
+    }
+}
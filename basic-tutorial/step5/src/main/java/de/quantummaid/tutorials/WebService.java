@@ -28,7 +28,8 @@ public final class WebService {
     private static final int PORT = 8080;
 
     public static void main(final String[] args) {
-        createQuantumMaid(PORT).run();
+        final int port = args.length > 0 ? Integer.parseInt(args[0]) : PORT;
+        createQuantumMaid(port).run();
     }
 
     public static QuantumMaid createQuantumMaid(final int port) {
@@ -0,0 +1,15 @@
+#!/usr/bin/env sh
+#
+# Starts quantummaid-app.jar with the AppCDS archive QUANTUMMAID_APP_JSA, by default quantummaid-app.jsa
+# next to the jar, if it exists (see basic-tutorial/startup). A JVM other than the one that created the
+# archive ignores it.
+#
+app_dir="$(dirname "$0")"
+java="${JAVA_HOME:+${JAVA_HOME}/bin/}java"
+archive="${QUANTUMMAID_APP_JSA:-${app_dir}/quantummaid-app.jsa}"
+cds_options=""
+if [ -f "${archive}" ]; then
+  cds_options="-XX:SharedArchiveFile=${archive} -Xshare:auto"
+fi
+# shellcheck disable=SC2086
+exec "${java}" ${cds_options} ${JAVA_OPTS:-} -jar "${app_dir}/quantummaid-app.jar" "$@"
@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.docker;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Locale;
+
+import static de.quantummaid.tutorials.docker.Docker.docker;
+
+/**
+ * A container of an image of the step5 web service, with its port {@code 8080} published on a local port.
+ * Closing it removes the container.
+ */
+final class Container implements AutoCloseable {
+    private static final String EXPECTED_BODY = "\"hello quantummaid\"";
+    private static final int OK = 200;
+    private static final int CONTAINER_PORT = 8080;
+    private static final Duration STARTUP_TIMEOUT = Duration.ofSeconds(60);
+    private static final long POLL_INTERVAL_MILLIS = 2;
+
+    private final String image;
+    private final String id;
+    private final HttpClient client;
+    private final URI base;
+    private final long startNanos;
+
+    private Container(final String image,
+                      final String id,
+                      final HttpClient client,
+                      final URI base,
+                      final long startNanos) {
+        this.image = image;
+        this.id = id;
+        this.client = client;
+        this.base = base;
+        this.startNanos = startNanos;
+    }
+
+    /**
+     * Starts a container of {@code image} with the given memory limit, e.g. {@code 512m}. The clock for
+     * {@link #awaitFirstGreeting()} starts before {@code docker run}, so container creation counts as well.
+     */
+    static Container startContainer(final String image,
+                                    final int port,
+                                    final String memory,
+                                    final HttpClient client) throws IOException, InterruptedException {
+        final long startNanos = System.nanoTime();
+        final String id = docker("run", "--detach", "--memory=" + memory,
+                "--publish=" + port + ":" + CONTAINER_PORT, image);
+        return new Container(image, id, client, URI.create("http://localhost:" + port), startNanos);
+    }
+
+    /**
+     * Polls {@code GET /hello/quantummaid} until it is answered and returns the nanoseconds since
+     * {@code docker run} was invoked.
+     */
+    long awaitFirstGreeting() throws IOException, InterruptedException {
+        final HttpRequest request = HttpRequest.newBuilder(base.resolve("/hello/quantummaid")).GET().build();
+        while (System.nanoTime() - startNanos < STARTUP_TIMEOUT.toNanos()) {
+            final HttpResponse<String> response;
+            try {
+                response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            } catch (final IOException e) {
+                // docker's port forwarding accepts connections before the service listens and then drops them
+                Thread.sleep(POLL_INTERVAL_MILLIS);
+                continue;
+            }
+            final long timeToFirstResponse = System.nanoTime() - startNanos;
+            if (response.statusCode() != OK || !EXPECTED_BODY.equals(response.body())) {
+                throw new IllegalStateException(String.format(Locale.ROOT,
+                        "%s answered GET /hello/quantummaid with %d %s",
+                        image, response.statusCode(), response.body()));
+            }
+            return timeToFirstResponse;
+        }
+        throw new IllegalStateException(image + " did not answer within " + STARTUP_TIMEOUT + ", logs:\n"
+                + docker("logs", id));
+    }
+
+    /**
+     * The resident memory of the container's main process, read from {@code /proc/1/status} inside the container.
+     */
+    long residentKilobytes() throws IOException, InterruptedException {
+        return Arrays.stream(docker("exec", id, "cat", "/proc/1/status").split("\n"))
+                .filter(line -> line.startsWith("VmRSS:"))
+                .map(line -> line.replaceAll("[^0-9]", ""))
+                .mapToLong(Long::parseLong)
+                .findFirst()
+                .orElse(-1);
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            docker("rm", "--force", id);
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.docker;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Arrays.asList;
+
+/**
+ * Runs the {@code docker} command line client, which has to be on the {@code PATH}.
+ */
+final class Docker {
+
+    private Docker() {
+    }
+
+    /**
+     * Returns the trimmed standard output of {@code docker <arguments>} and fails with its standard error
+     * if the command exits with anything but {@code 0}.
+     */
+    static String docker(final String... arguments) throws IOException, InterruptedException {
+        final List<String> command = new ArrayList<>();
+        command.add("docker");
+        command.addAll(asList(arguments));
+        final Process process = new ProcessBuilder(command).start();
+        final CompletableFuture<String> error = CompletableFuture.supplyAsync(
+                () -> readFully(process.getErrorStream()));
+        final String output = readFully(process.getInputStream());
+        final int exitCode = process.waitFor();
+        if (exitCode != 0) {
+            throw new IllegalStateException(String.format(Locale.ROOT, "%s exited with %d: %s",
+                    String.join(" ", command), exitCode, error.join().trim()));
+        }
+        return output.trim();
+    }
+
+    private static String readFully(final InputStream stream) {
+        try (InputStream input = stream; ByteArrayOutputStream output = new ByteArrayOutputStream()) {
+            input.transferTo(output);
+            return output.toString(UTF_8);
+        } catch (final IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
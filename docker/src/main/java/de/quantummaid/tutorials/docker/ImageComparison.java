@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.docker;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+import static de.quantummaid.tutorials.docker.Container.startContainer;
+import static de.quantummaid.tutorials.docker.Docker.docker;
+import static java.lang.Integer.parseInt;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Compares images of the step5 web service given as {@code --image=name=tag}: the image size, and, as the median
+ * over a number of container starts, the time from {@code docker run} until {@code GET /hello/quantummaid} is
+ * answered and the resident memory of the service afterwards.
+ */
+public final class ImageComparison {
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+    private static final double BYTES_PER_MEGABYTE = 1024.0 * 1024.0;
+    private static final double KILOBYTES_PER_MEGABYTE = 1024.0;
+
+    private ImageComparison() {
+    }
+
+    public static void main(final String[] args) throws Exception {
+        final Map<String, String> options = new HashMap<>();
+        final Map<String, String> images = new LinkedHashMap<>();
+        for (final String arg : args) {
+            final int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0) {
+                throw new IllegalArgumentException("arguments must be given as --key=value but got '" + arg + "'");
+            }
+            final String key = arg.substring(2, separator);
+            final String value = arg.substring(separator + 1);
+            if ("image".equals(key)) {
+                final int nameSeparator = value.indexOf('=');
+                if (nameSeparator <= 0 || nameSeparator == value.length() - 1) {
+                    throw new IllegalArgumentException("image must be specified as name=tag but was '" + value + "'");
+                }
+                images.put(value.substring(0, nameSeparator), value.substring(nameSeparator + 1));
+            } else {
+                options.put(key, value);
+            }
+        }
+        final int port = parseInt(options.getOrDefault("port", "8080"));
+        final int runs = parseInt(options.getOrDefault("runs", "3"));
+        final String memory = options.getOrDefault("memory", "512m");
+        final Path results = Paths.get(options.getOrDefault("results", "image-comparison.json"));
+
+        final HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+        final List<String> reports = new ArrayList<>();
+        System.out.printf(Locale.ROOT, "%-16s %12s %24s %16s%n",
+                "image", "size", "time to first response", "resident memory");
+        for (final Map.Entry<String, String> image : images.entrySet()) {
+            final long sizeBytes = Long.parseLong(docker("image", "inspect", "--format={{.Size}}", image.getValue()));
+            final List<ContainerMeasurement> measurements = new ArrayList<>();
+            for (int run = 0; run < runs; ++run) {
+                measurements.add(measure(image.getValue(), port, memory, client));
+            }
+            final double millis = median(measurements, ContainerMeasurement::timeToFirstResponseNanos)
+                    / NANOS_PER_MILLI;
+            final long residentKilobytes = median(measurements, ContainerMeasurement::residentKilobytes);
+            System.out.printf(Locale.ROOT, "%-16s %9.1f MB %21.1f ms %13.1f MB%n", image.getKey(),
+                    sizeBytes / BYTES_PER_MEGABYTE, millis, residentKilobytes / KILOBYTES_PER_MEGABYTE);
+            reports.add(String.format(Locale.ROOT,
+                    "{\"image\":\"%s\",\"tag\":\"%s\",\"sizeBytes\":%d,\"medianTimeToFirstResponseMillis\":%.3f,"
+                            + "\"medianResidentKilobytes\":%d}",
+                    image.getKey(), image.getValue(), sizeBytes, millis, residentKilobytes));
+        }
+
+        final String json = String.format(Locale.ROOT,
+                "{\"timestamp\":\"%s\",\"runs\":%d,\"memory\":\"%s\",\"images\":[%s]}%n",
+                Instant.now(), runs, memory, String.join(",", reports));
+        Files.createDirectories(results.toAbsolutePath().getParent());
+        Files.writeString(results, json, UTF_8);
+        System.out.println("image comparison written to " + results);
+    }
+
+    private static ContainerMeasurement measure(final String image,
+                                                final int port,
+                                                final String memory,
+                                                final HttpClient client) throws IOException, InterruptedException {
+        try (Container container = startContainer(image, port, memory, client)) {
+            final long timeToFirstResponse = container.awaitFirstGreeting();
+            return new ContainerMeasurement(timeToFirstResponse, container.residentKilobytes());
+        }
+    }
+
+    private static long median(final List<ContainerMeasurement> measurements,
+                               final ToLongFunction<ContainerMeasurement> metric) {
+        final long[] values = measurements.stream().mapToLong(metric).sorted().toArray();
+        return values[values.length / 2];
+    }
+}
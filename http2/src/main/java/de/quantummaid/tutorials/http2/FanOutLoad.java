@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.http2;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A fixed number of callers sharing one {@link HttpClient}, each sending its next lookup as soon as the previous
+ * response arrived. Over HTTP/1.1 the client keeps one connection per caller; over HTTP/2 all callers share a
+ * single connection, upgraded from HTTP/1.1 by a first request before the callers start.
+ */
+final class FanOutLoad {
+    private static final int OK = 200;
+    private static final long HIGHEST_TRACKABLE_NANOS = TimeUnit.SECONDS.toNanos(60);
+    private static final int SIGNIFICANT_DIGITS = 3;
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+    private FanOutLoad() {
+    }
+
+    static FanOutResult runFanOut(final H2cEndpoint endpoint,
+                                  final HttpClient.Version version,
+                                  final String path,
+                                  final int concurrency,
+                                  final Duration warmup,
+                                  final Duration duration) throws IOException, InterruptedException {
+        final HttpClient client = HttpClient.newBuilder()
+                .version(version)
+                .build();
+        final HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + endpoint.port() + path))
+                .GET()
+                .build();
+        final long connectionsBefore = endpoint.connectionsAccepted();
+        final HttpClient.Version negotiated = client.send(request, HttpResponse.BodyHandlers.discarding()).version();
+
+        final LongAdder failed = new LongAdder();
+        final List<Histogram> latencies = new ArrayList<>();
+        final ExecutorService callers = Executors.newFixedThreadPool(concurrency);
+        final long measureFrom = System.nanoTime() + warmup.toNanos();
+        final long deadline = measureFrom + duration.toNanos();
+        for (int caller = 0; caller < concurrency; ++caller) {
+            final Histogram histogram = new Histogram(HIGHEST_TRACKABLE_NANOS, SIGNIFICANT_DIGITS);
+            latencies.add(histogram);
+            callers.execute(() -> {
+                long now = System.nanoTime();
+                while (now < deadline) {
+                    final long start = now;
+                    boolean ok;
+                    try {
+                        ok = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == OK;
+                    } catch (final IOException e) {
+                        ok = false;
+                    } catch (final InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return;
+                    }
+                    now = System.nanoTime();
+                    if (start < measureFrom) {
+                        continue;
+                    }
+                    if (ok) {
+                        histogram.recordValue(Math.min(now - start, HIGHEST_TRACKABLE_NANOS));
+                    } else {
+                        failed.increment();
+                    }
+                }
+            });
+        }
+        callers.shutdown();
+        if (!callers.awaitTermination(warmup.plus(duration).toMillis() * 2, TimeUnit.MILLISECONDS)) {
+            callers.shutdownNow();
+            throw new IOException(version + " callers did not finish");
+        }
+
+        final Histogram merged = new Histogram(HIGHEST_TRACKABLE_NANOS, SIGNIFICANT_DIGITS);
+        latencies.forEach(merged::add);
+        return new FanOutResult(negotiated, concurrency, endpoint.connectionsAccepted() - connectionsBefore,
+                merged, failed.sum(), duration.toNanos() / NANOS_PER_SECOND);
+    }
+}
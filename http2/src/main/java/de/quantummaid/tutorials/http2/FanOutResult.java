@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.http2;
+
+import org.HdrHistogram.Histogram;
+
+import java.net.http.HttpClient;
+import java.util.Locale;
+
+/**
+ * Outcome of one {@link FanOutLoad} run.
+ */
+final class FanOutResult {
+    private static final double P50 = 50.0;
+    private static final double P99 = 99.0;
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private final HttpClient.Version version;
+    private final int concurrency;
+    private final long connections;
+    private final Histogram latencies;
+    private final long failed;
+    private final double seconds;
+
+    FanOutResult(final HttpClient.Version version,
+                 final int concurrency,
+                 final long connections,
+                 final Histogram latencies,
+                 final long failed,
+                 final double seconds) {
+        this.version = version;
+        this.concurrency = concurrency;
+        this.connections = connections;
+        this.latencies = latencies;
+        this.failed = failed;
+        this.seconds = seconds;
+    }
+
+    HttpClient.Version version() {
+        return version;
+    }
+
+    long connections() {
+        return connections;
+    }
+
+    long failed() {
+        return failed;
+    }
+
+    double throughput() {
+        return latencies.getTotalCount() / seconds;
+    }
+
+    double p50Millis() {
+        return latencies.getValueAtPercentile(P50) / NANOS_PER_MILLI;
+    }
+
+    double p99Millis() {
+        return latencies.getValueAtPercentile(P99) / NANOS_PER_MILLI;
+    }
+
+    String summary() {
+        return String.format(Locale.ROOT, "%-8s %d callers over %d connection(s): %.1f requests/s, p50 %.2f ms, "
+                        + "p99 %.2f ms, %d failed",
+                version, concurrency, connections, throughput(), p50Millis(), p99Millis(), failed);
+    }
+
+    String toJson() {
+        return String.format(Locale.ROOT, "{\"version\":\"%s\",\"concurrency\":%d,\"connections\":%d,"
+                        + "\"requestsPerSecond\":%.1f,\"p50Millis\":%.3f,\"p99Millis\":%.3f,\"failed\":%d}",
+                version, concurrency, connections, throughput(), p50Millis(), p99Millis(), failed);
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.http2;
+
+import de.quantummaid.quantummaid.QuantumMaid;
+import de.quantummaid.tutorials.war.AsyncQuantumMaidServlet;
+import org.eclipse.jetty.http2.server.HTTP2CServerConnectionFactory;
+import org.eclipse.jetty.io.Connection;
+import org.eclipse.jetty.server.HttpConfiguration;
+import org.eclipse.jetty.server.HttpConnection;
+import org.eclipse.jetty.server.HttpConnectionFactory;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.servlet.ServletContextHandler;
+import org.eclipse.jetty.servlet.ServletHolder;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Serves the routes of a {@link QuantumMaid} configuration over HTTP/1.1 and cleartext HTTP/2 (h2c) on one port.
+ * Clients may start HTTP/2 with prior knowledge, by sending the connection preface right away, or by upgrading an
+ * HTTP/1.1 request with {@code Upgrade: h2c}. Clients that do neither are served over HTTP/1.1.
+ *
+ * <p>Every stream of an HTTP/2 connection is dispatched on its own to the server's thread pool and from there,
+ * through an {@link AsyncQuantumMaidServlet}, into HttpMaid, so one connection carries many concurrent requests.
+ * HPACK and flow control are Jetty's; this class only sets their limits.</p>
+ */
+public final class H2cEndpoint implements AutoCloseable {
+    static final int MAX_CONCURRENT_STREAMS = 256;
+    static final int INITIAL_STREAM_WINDOW = 512 * 1024;
+    static final int INITIAL_SESSION_WINDOW = 8 * 1024 * 1024;
+    static final int MAX_DYNAMIC_TABLE_SIZE = 4096;
+
+    private final Server server;
+    private final ServerConnector connector;
+    private final LongAdder connectionsAccepted;
+
+    private H2cEndpoint(final Server server, final ServerConnector connector, final LongAdder connectionsAccepted) {
+        this.server = server;
+        this.connector = connector;
+        this.connectionsAccepted = connectionsAccepted;
+    }
+
+    /**
+     * Starts serving {@code quantumMaid} on {@code port}, or on a free port if it is {@code 0}. An endpoint configured
+     * on {@code quantumMaid} itself is not started.
+     */
+    public static H2cEndpoint startH2cEndpoint(final QuantumMaid quantumMaid, final int port) throws Exception {
+        final HttpConfiguration configuration = new HttpConfiguration();
+        configuration.setSendServerVersion(false);
+        final HTTP2CServerConnectionFactory http2 = new HTTP2CServerConnectionFactory(configuration);
+        http2.setMaxConcurrentStreams(MAX_CONCURRENT_STREAMS);
+        http2.setInitialStreamRecvWindow(INITIAL_STREAM_WINDOW);
+        http2.setInitialSessionRecvWindow(INITIAL_SESSION_WINDOW);
+        http2.setMaxDynamicTableSize(MAX_DYNAMIC_TABLE_SIZE);
+
+        final Server server = new Server();
+        final ServerConnector connector = new ServerConnector(server, new HttpConnectionFactory(configuration), http2);
+        connector.setPort(port);
+        final LongAdder connectionsAccepted = new LongAdder();
+        connector.addBean(new Connection.Listener.Adapter() {
+            @Override
+            public void onOpened(final Connection connection) {
+                if (connection instanceof HttpConnection) {
+                    connectionsAccepted.increment();
+                }
+            }
+        });
+        server.addConnector(connector);
+
+        final ServletContextHandler context = new ServletContextHandler();
+        context.setContextPath("/");
+        final ServletHolder holder = new ServletHolder(new AsyncQuantumMaidServlet(() -> quantumMaid));
+        holder.setAsyncSupported(true);
+        context.addServlet(holder, "/*");
+        server.setHandler(context);
+        server.start();
+        return new H2cEndpoint(server, connector, connectionsAccepted);
+    }
+
+    public int port() {
+        return connector.getLocalPort();
+    }
+
+    /**
+     * The number of TCP connections accepted since the endpoint was started. Every connection starts out as an
+     * HTTP/1.1 connection and, once the client asks for h2c, is replaced by an HTTP/2 connection on the same socket;
+     * only the former are counted.
+     */
+    public long connectionsAccepted() {
+        return connectionsAccepted.sum();
+    }
+
+    public void awaitTermination() throws InterruptedException {
+        server.join();
+    }
+
+    @Override
+    public void close() {
+        try {
+            server.stop();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (final Exception e) {
+            throw new IllegalStateException("could not stop the h2c endpoint", e);
+        }
+    }
+}
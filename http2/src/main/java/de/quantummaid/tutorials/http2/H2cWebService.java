@@ -0,0 +1,36 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+//Showcase start h2cwebservice
+
+package de.quantummaid.tutorials.http2;
+
+import static de.quantummaid.tutorials.WebService.createQuantumMaid;
+import static de.quantummaid.tutorials.http2.H2cEndpoint.startH2cEndpoint;
+
+public final class H2cWebService {
+    private static final int PORT = 8080;
+    private static final int UNUSED_PORT = 0;
+
+    public static void main(final String[] args) throws Exception {
+        startH2cEndpoint(createQuantumMaid(UNUSED_PORT), PORT).awaitTermination();
+    }
+}
+//Showcase end h2cwebservice
@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.http2;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.Locale;
+
+import static de.quantummaid.tutorials.WebService.createQuantumMaid;
+import static de.quantummaid.tutorials.http2.FanOutLoad.runFanOut;
+import static de.quantummaid.tutorials.http2.H2cEndpoint.startH2cEndpoint;
+import static java.lang.Integer.parseInt;
+import static java.net.http.HttpClient.Version.HTTP_1_1;
+import static java.net.http.HttpClient.Version.HTTP_2;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Sends {@code GET /hello/<name>} lookups from the same number of concurrent callers to one {@link H2cEndpoint},
+ * first over a pool of HTTP/1.1 connections, then multiplexed over a single HTTP/2 connection.
+ *
+ * <p>Fails if a request fails, if the HTTP/2 client was not upgraded or if it needed more than one connection.</p>
+ */
+public final class MultiplexingComparison {
+    private static final int UNUSED_PORT = 0;
+    private static final int FREE_PORT = 0;
+    private static final String PATH = "/hello/quantummaid";
+
+    private MultiplexingComparison() {
+    }
+
+    public static void main(final String[] args) throws Exception {
+        final int concurrency = parseInt(args[0]);
+        final Duration warmup = Duration.ofSeconds(parseInt(args[1]));
+        final Duration duration = Duration.ofSeconds(parseInt(args[2]));
+        final Path results = Paths.get(args[3]);
+
+        final FanOutResult pooled;
+        final FanOutResult multiplexed;
+        try (H2cEndpoint endpoint = startH2cEndpoint(createQuantumMaid(UNUSED_PORT), FREE_PORT)) {
+            pooled = runFanOut(endpoint, HTTP_1_1, PATH, concurrency, warmup, duration);
+            System.out.println(pooled.summary());
+            multiplexed = runFanOut(endpoint, HTTP_2, PATH, concurrency, warmup, duration);
+            System.out.println(multiplexed.summary());
+        }
+
+        Files.createDirectories(results.toAbsolutePath().getParent());
+        Files.writeString(results, String.format(Locale.ROOT,
+                "{\"concurrency\":%d,\"warmupSeconds\":%d,\"durationSeconds\":%d,\"runs\":[%s,%s]}%n",
+                concurrency, warmup.getSeconds(), duration.getSeconds(), pooled.toJson(), multiplexed.toJson()), UTF_8);
+        System.out.println("results written to " + results);
+
+        if (pooled.failed() > 0 || multiplexed.failed() > 0) {
+            System.out.println("multiplexing comparison failed - requests failed");
+            System.exit(1);
+        }
+        if (multiplexed.version() != HTTP_2 || multiplexed.connections() != 1) {
+            System.out.printf(Locale.ROOT, "multiplexing comparison failed - expected one HTTP/2 connection, "
+                    + "got %d %s connection(s)%n", multiplexed.connections(), multiplexed.version());
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.http2;
+
+import org.eclipse.jetty.http.HttpFields;
+import org.eclipse.jetty.http.HttpURI;
+import org.eclipse.jetty.http.HttpVersion;
+import org.eclipse.jetty.http.MetaData;
+import org.eclipse.jetty.http2.api.Session;
+import org.eclipse.jetty.http2.api.Stream;
+import org.eclipse.jetty.http2.client.HTTP2Client;
+import org.eclipse.jetty.http2.frames.DataFrame;
+import org.eclipse.jetty.http2.frames.HeadersFrame;
+import org.eclipse.jetty.http2.frames.ResetFrame;
+import org.eclipse.jetty.util.Callback;
+import org.eclipse.jetty.util.FuturePromise;
+import org.eclipse.jetty.util.Promise;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static de.quantummaid.tutorials.WebService.createQuantumMaid;
+import static de.quantummaid.tutorials.http2.H2cEndpoint.INITIAL_STREAM_WINDOW;
+import static de.quantummaid.tutorials.http2.H2cEndpoint.startH2cEndpoint;
+import static java.net.http.HttpClient.Version.HTTP_1_1;
+import static java.net.http.HttpClient.Version.HTTP_2;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public final class H2cEndpointTest {
+    private static final int UNUSED_PORT = 0;
+    private static final int FREE_PORT = 0;
+    private static final int STREAMS = 100;
+    private static final long TIMEOUT_SECONDS = 10;
+    private static H2cEndpoint endpoint;
+
+    @BeforeAll
+    public static void startEndpoint() throws Exception {
+        endpoint = startH2cEndpoint(createQuantumMaid(UNUSED_PORT), FREE_PORT);
+    }
+
+    @AfterAll
+    public static void stopEndpoint() {
+        endpoint.close();
+    }
+
+    @Test
+    public void testConcurrentStreamsWithPriorKnowledgeShareOneConnection() throws Exception {
+        final HTTP2Client client = new HTTP2Client();
+        client.start();
+        try {
+            final long connectionsBefore = endpoint.connectionsAccepted();
+            final FuturePromise<Session> session = new FuturePromise<>();
+            client.connect(new InetSocketAddress("localhost", endpoint.port()),
+                    new Session.Listener.Adapter(), session);
+            final List<CompletableFuture<String>> responses = new ArrayList<>();
+            for (int i = 0; i < STREAMS; ++i) {
+                responses.add(get(session.get(TIMEOUT_SECONDS, TimeUnit.SECONDS), "/hello/stream" + i));
+            }
+            for (int i = 0; i < STREAMS; ++i) {
+                assertEquals("200 \"hello stream" + i + "\"",
+                        responses.get(i).get(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+            }
+            assertEquals(1, endpoint.connectionsAccepted() - connectionsBefore);
+        } finally {
+            client.stop();
+        }
+    }
+
+    @Test
+    public void testUpgradeFromHttp11() throws Exception {
+        final HttpClient client = HttpClient.newBuilder().version(HTTP_2).build();
+        final HttpRequest request = HttpRequest.newBuilder(uri("/hello/quantummaid")).GET().build();
+        final long connectionsBefore = endpoint.connectionsAccepted();
+        for (int i = 0; i < 2; ++i) {
+            final HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            assertEquals(HTTP_2, response.version());
+            assertEquals(200, response.statusCode());
+            assertEquals("\"hello quantummaid\"", response.body());
+        }
+        assertEquals(1, endpoint.connectionsAccepted() - connectionsBefore);
+    }
+
+    @Test
+    public void testBodyLargerThanTheStreamWindow() throws Exception {
+        final HttpClient client = HttpClient.newBuilder().version(HTTP_2).build();
+        // the JDK client only asks for the upgrade on requests without a body
+        client.send(HttpRequest.newBuilder(uri("/hello/upgrade")).GET().build(),
+                HttpResponse.BodyHandlers.discarding());
+        final String name = "q".repeat(INITIAL_STREAM_WINDOW + INITIAL_STREAM_WINDOW / 2);
+        final HttpResponse<String> response = client.send(HttpRequest.newBuilder(uri("/hello"))
+                .POST(HttpRequest.BodyPublishers.ofString("{ \"name\": \"" + name + "\" }"))
+                .build(), HttpResponse.BodyHandlers.ofString());
+        assertEquals(HTTP_2, response.version());
+        assertEquals(200, response.statusCode());
+        assertEquals("\"hello " + name + "\"", response.body());
+    }
+
+    @Test
+    public void testHttp11() throws Exception {
+        final HttpClient client = HttpClient.newBuilder().version(HTTP_1_1).build();
+        final HttpResponse<String> response = client.send(HttpRequest.newBuilder(uri("/hello/quantummaid")).build(),
+                HttpResponse.BodyHandlers.ofString());
+        assertEquals(HTTP_1_1, response.version());
+        assertEquals(200, response.statusCode());
+        assertEquals("\"hello quantummaid\"", response.body());
+    }
+
+    private static URI uri(final String path) {
+        return URI.create("http://localhost:" + endpoint.port() + path);
+    }
+
+    private static CompletableFuture<String> get(final Session session, final String path) {
+        final CompletableFuture<String> response = new CompletableFuture<>();
+        final MetaData.Request request = new MetaData.Request("GET",
+                new HttpURI(uri(path).toString()), HttpVersion.HTTP_2, new HttpFields());
+        final HeadersFrame headers = new HeadersFrame(request, null, true);
+        session.newStream(headers, new Promise.Adapter<>(), new Stream.Listener.Adapter() {
+            private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+            private int status;
+
+            @Override
+            public void onHeaders(final Stream stream, final HeadersFrame frame) {
+                status = ((MetaData.Response) frame.getMetaData()).getStatus();
+                if (frame.isEndStream()) {
+                    response.complete(String.valueOf(status));
+                }
+            }
+
+            @Override
+            public void onData(final Stream stream, final DataFrame frame, final Callback callback) {
+                final ByteBuffer data = frame.getData();
+                final byte[] bytes = new byte[data.remaining()];
+                data.get(bytes);
+                body.write(bytes, 0, bytes.length);
+                callback.succeeded();
+                if (frame.isEndStream()) {
+                    response.complete(status + " " + body.toString(UTF_8));
+                }
+            }
+
+            @Override
+            public void onReset(final Stream stream, final ResetFrame frame) {
+                response.completeExceptionally(new IllegalStateException("stream reset: " + frame.getError()));
+            }
+        });
+        return response;
+    }
+}
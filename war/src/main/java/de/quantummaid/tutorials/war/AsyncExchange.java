@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.war;
+
+import de.quantummaid.httpmaid.awslambda.AwsLambdaEndpoint;
+
+import javax.servlet.AsyncContext;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletInputStream;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static de.quantummaid.tutorials.war.ServletExchanges.INTERNAL_SERVER_ERROR;
+import static de.quantummaid.tutorials.war.ServletExchanges.applyHead;
+import static de.quantummaid.tutorials.war.ServletExchanges.eventFor;
+
+/**
+ * One request served without blocking a container thread on the client.
+ *
+ * <p>The body is read as the container reports it available ({@link ReadListener}), HttpMaid is called once the
+ * last byte has arrived, and the response is written as far as the client accepts it ({@link WriteListener}).
+ * Between these callbacks no thread is held, however slowly the client sends or receives. Only the use case call
+ * itself runs on a container thread, the one that delivered the end of the body.</p>
+ *
+ * <p>An exchange that is not complete after the timeout ({@link AsyncListener}) is answered with {@code 408} and
+ * {@code Connection: close}, if HttpMaid's response has not been started yet; a client that stalls while sending its
+ * body is thereby told why it is cut off. A client that stalls while reading the response has already received its
+ * status, so the exchange is only completed and the container closes the connection.</p>
+ *
+ * <p>The timeout is reported on a container thread of its own, concurrently with the read and write callbacks.
+ * Whichever side sets the status first claims the response with a compare-and-set, and the other side leaves it
+ * alone; {@code AsyncContext.complete()} is likewise called only once.</p>
+ */
+final class AsyncExchange implements ReadListener, WriteListener, AsyncListener {
+    static final int MAX_BODY_SIZE = 1024 * 1024;
+    private static final int REQUEST_TIMEOUT = 408;
+    private static final int PAYLOAD_TOO_LARGE = 413;
+    private static final int CHUNK_SIZE = 8 * 1024;
+
+    private final HttpServletRequest request;
+    private final HttpServletResponse response;
+    private final AsyncContext async;
+    private final AwsLambdaEndpoint endpoint;
+    private final ServletInputStream input;
+    private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+    private final byte[] buffer = new byte[CHUNK_SIZE];
+    private final AtomicBoolean responding = new AtomicBoolean();
+    private final AtomicBoolean completed = new AtomicBoolean();
+    private ServletOutputStream output;
+    private byte[] responseBody;
+    private int written;
+
+    private AsyncExchange(final HttpServletRequest request,
+                          final HttpServletResponse response,
+                          final AsyncContext async,
+                          final AwsLambdaEndpoint endpoint,
+                          final ServletInputStream input) {
+        this.request = request;
+        this.response = response;
+        this.async = async;
+        this.endpoint = endpoint;
+        this.input = input;
+    }
+
+    static void startExchange(final HttpServletRequest request,
+                              final HttpServletResponse response,
+                              final AwsLambdaEndpoint endpoint,
+                              final long timeoutMillis) throws IOException {
+        final AsyncContext async = request.startAsync();
+        async.setTimeout(timeoutMillis);
+        final ServletInputStream input = request.getInputStream();
+        final AsyncExchange exchange = new AsyncExchange(request, response, async, endpoint, input);
+        async.addListener(exchange);
+        input.setReadListener(exchange);
+    }
+
+    @Override
+    public void onDataAvailable() throws IOException {
+        while (!completed.get() && input.isReady()) {
+            final int read = input.read(buffer);
+            if (read < 0) {
+                return;
+            }
+            body.write(buffer, 0, read);
+            if (body.size() > MAX_BODY_SIZE) {
+                if (responding.compareAndSet(false, true)) {
+                    response.setStatus(PAYLOAD_TOO_LARGE);
+                }
+                complete();
+            }
+        }
+    }
+
+    @Override
+    public void onAllDataRead() throws IOException {
+        if (!responding.compareAndSet(false, true)) {
+            return;
+        }
+        responseBody = applyHead(dispatch(eventFor(request, body.toByteArray())), response);
+        output = response.getOutputStream();
+        output.setWriteListener(this);
+    }
+
+    @Override
+    public void onWritePossible() throws IOException {
+        while (!completed.get() && output.isReady()) {
+            if (written == responseBody.length) {
+                complete();
+                return;
+            }
+            final int length = Math.min(CHUNK_SIZE, responseBody.length - written);
+            output.write(responseBody, written, length);
+            written += length;
+        }
+    }
+
+    @Override
+    public void onError(final Throwable throwable) {
+        if (responding.compareAndSet(false, true)) {
+            response.setStatus(INTERNAL_SERVER_ERROR);
+        }
+        complete();
+    }
+
+    @Override
+    public void onTimeout(final AsyncEvent event) {
+        if (responding.compareAndSet(false, true)) {
+            response.reset();
+            response.setStatus(REQUEST_TIMEOUT);
+            response.setHeader("Connection", "close");
+        }
+        complete();
+    }
+
+    @Override
+    public void onError(final AsyncEvent event) {
+        onError(event.getThrowable());
+    }
+
+    @Override
+    public void onComplete(final AsyncEvent event) {
+        // nothing to release
+    }
+
+    @Override
+    public void onStartAsync(final AsyncEvent event) {
+        // the exchange is never restarted
+    }
+
+    private Map<String, Object> dispatch(final Map<String, Object> event) {
+        try {
+            return endpoint.delegate(event);
+        } catch (final RuntimeException e) {
+            return Map.of("statusCode", INTERNAL_SERVER_ERROR);
+        }
+    }
+
+    private void complete() {
+        if (completed.compareAndSet(false, true)) {
+            async.complete();
+        }
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.war;
+
+import de.quantummaid.httpmaid.awslambda.AwsLambdaEndpoint;
+import de.quantummaid.quantummaid.QuantumMaid;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.function.Supplier;
+
+import static de.quantummaid.httpmaid.awslambda.AwsLambdaEndpoint.awsLambdaEndpointFor;
+import static de.quantummaid.tutorials.war.AsyncExchange.startExchange;
+
+/**
+ * Serves the routes of a {@link QuantumMaid} configuration from a servlet container, with asynchronous
+ * processing and non-blocking I/O (see {@link AsyncExchange}). The configuration is built once, in {@link #init()};
+ * an endpoint configured on it is never started, the servlet container takes its place.
+ *
+ * <p>Subclasses pass the configuration and are registered with {@code asyncSupported = true} under {@code /*}:</p>
+ *
+ * <pre>{@code
+ * @WebServlet(urlPatterns = "/*", asyncSupported = true)
+ * public final class GreetingServlet extends AsyncQuantumMaidServlet {
+ *     public GreetingServlet() {
+ *         super(() -> WebService.createQuantumMaid(0));
+ *     }
+ * }
+ * }</pre>
+ *
+ * <p>A request that is not answered within {@value #DEFAULT_TIMEOUT_MILLIS} ms, or the timeout passed to the
+ * constructor, is cut off; see {@link AsyncExchange}.</p>
+ */
+public class AsyncQuantumMaidServlet extends HttpServlet {
+    public static final long DEFAULT_TIMEOUT_MILLIS = 30_000;
+    private static final long serialVersionUID = 1L;
+
+    private final transient Supplier<QuantumMaid> quantumMaid;
+    private final long timeoutMillis;
+    private transient AwsLambdaEndpoint endpoint;
+
+    public AsyncQuantumMaidServlet(final Supplier<QuantumMaid> quantumMaid) {
+        this(quantumMaid, DEFAULT_TIMEOUT_MILLIS);
+    }
+
+    public AsyncQuantumMaidServlet(final Supplier<QuantumMaid> quantumMaid, final long timeoutMillis) {
+        super();
+        this.quantumMaid = quantumMaid;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    @Override
+    public void init() {
+        endpoint = awsLambdaEndpointFor(quantumMaid.get().httpMaid());
+    }
+
+    @Override
+    protected void service(final HttpServletRequest request, final HttpServletResponse response) throws IOException {
+        startExchange(request, response, endpoint, timeoutMillis);
+    }
+}
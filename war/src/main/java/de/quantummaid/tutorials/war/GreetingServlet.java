@@ -0,0 +1,38 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+//Showcase start greetingservlet
+
+package de.quantummaid.tutorials.war;
+
+import javax.servlet.annotation.WebServlet;
+
+import static de.quantummaid.tutorials.WebService.createQuantumMaid;
+
+@WebServlet(urlPatterns = "/*", asyncSupported = true)
+public final class GreetingServlet extends AsyncQuantumMaidServlet {
+    private static final long serialVersionUID = 1L;
+    private static final int UNUSED_PORT = 0;
+
+    public GreetingServlet() {
+        super(() -> createQuantumMaid(UNUSED_PORT));
+    }
+}
+//Showcase end greetingservlet
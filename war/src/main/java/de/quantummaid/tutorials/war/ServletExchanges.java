@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.war;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static de.quantummaid.tutorials.events.ApiGatewayEvents.restApiEvent;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Translates servlet requests into the API Gateway proxy events that {@code AwsLambdaEndpoint.delegate} dispatches
+ * into HttpMaid (built by {@code de.quantummaid.tutorials.events.ApiGatewayEvents}), and its response maps back
+ * onto servlet responses. The path HttpMaid routes on is the path below the servlet mapping, so the same routes
+ * work no matter under which context path the WAR is deployed.
+ */
+final class ServletExchanges {
+    static final int INTERNAL_SERVER_ERROR = 500;
+
+    private ServletExchanges() {
+    }
+
+    static Map<String, Object> eventFor(final HttpServletRequest request, final byte[] body) {
+        final String path = request.getPathInfo() == null ? "/" : request.getPathInfo();
+        final Map<String, List<String>> headers = new LinkedHashMap<>();
+        for (final String name : Collections.list(request.getHeaderNames())) {
+            headers.put(name, Collections.list(request.getHeaders(name)));
+        }
+        return restApiEvent(request.getMethod(), path, request.getQueryString(), headers,
+                body.length == 0 ? null : new String(body, UTF_8));
+    }
+
+    /**
+     * Sets status, headers and {@code Content-Length} of {@code servletResponse} and returns the body to write.
+     */
+    @SuppressWarnings("unchecked")
+    static byte[] applyHead(final Map<String, Object> response, final HttpServletResponse servletResponse) {
+        servletResponse.setStatus(Integer.parseInt(String.valueOf(response.get("statusCode"))));
+        final Object multiValueHeaders = response.get("multiValueHeaders");
+        if (multiValueHeaders instanceof Map && !((Map<?, ?>) multiValueHeaders).isEmpty()) {
+            ((Map<String, List<?>>) multiValueHeaders).forEach((name, values) ->
+                    values.forEach(value -> servletResponse.addHeader(name, String.valueOf(value))));
+        } else if (response.get("headers") instanceof Map) {
+            ((Map<String, ?>) response.get("headers")).forEach((name, value) ->
+                    servletResponse.addHeader(name, String.valueOf(value)));
+        }
+        final Object body = response.get("body");
+        final byte[] bodyBytes;
+        if (body == null) {
+            bodyBytes = new byte[0];
+        } else if (Boolean.TRUE.equals(response.get("isBase64Encoded"))) {
+            bodyBytes = Base64.getDecoder().decode(body.toString());
+        } else {
+            bodyBytes = body.toString().getBytes(UTF_8);
+        }
+        servletResponse.setContentLength(bodyBytes.length);
+        return bodyBytes;
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.war;
+
+import de.quantummaid.httpmaid.awslambda.AwsLambdaEndpoint;
+import de.quantummaid.quantummaid.QuantumMaid;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static de.quantummaid.httpmaid.awslambda.AwsLambdaEndpoint.awsLambdaEndpointFor;
+import static de.quantummaid.tutorials.war.ServletExchanges.INTERNAL_SERVER_ERROR;
+import static de.quantummaid.tutorials.war.ServletExchanges.applyHead;
+import static de.quantummaid.tutorials.war.ServletExchanges.eventFor;
+
+/**
+ * The naive bridge {@link AsyncQuantumMaidServlet} is compared with: it reads the body, calls HttpMaid and writes
+ * the response with blocking I/O, holding its container thread until the client has sent and received everything.
+ */
+final class BlockingQuantumMaidServlet extends HttpServlet {
+    private static final long serialVersionUID = 1L;
+
+    private final transient Supplier<QuantumMaid> quantumMaid;
+    private transient AwsLambdaEndpoint endpoint;
+
+    BlockingQuantumMaidServlet(final Supplier<QuantumMaid> quantumMaid) {
+        super();
+        this.quantumMaid = quantumMaid;
+    }
+
+    @Override
+    public void init() {
+        endpoint = awsLambdaEndpointFor(quantumMaid.get().httpMaid());
+    }
+
+    @Override
+    protected void service(final HttpServletRequest request, final HttpServletResponse response) throws IOException {
+        final byte[] body = request.getInputStream().readAllBytes();
+        Map<String, Object> result;
+        try {
+            result = endpoint.delegate(eventFor(request, body));
+        } catch (final RuntimeException e) {
+            result = Map.of("statusCode", INTERNAL_SERVER_ERROR);
+        }
+        response.getOutputStream().write(applyHead(result, response));
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.war;
+
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.servlet.ServletContextHandler;
+import org.eclipse.jetty.servlet.ServletHolder;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
+
+import javax.servlet.http.HttpServlet;
+
+/**
+ * A Jetty started in-process on a free port, serving one servlet under {@code /*}. One acceptor and one selector
+ * thread are taken from the pool; the rest of its {@code maxThreads} serve requests.
+ */
+final class EmbeddedJetty implements AutoCloseable {
+    private final Server server;
+    private final int port;
+
+    private EmbeddedJetty(final Server server, final int port) {
+        this.server = server;
+        this.port = port;
+    }
+
+    static EmbeddedJetty startJetty(final HttpServlet servlet, final int maxThreads) throws Exception {
+        final Server server = new Server(new QueuedThreadPool(maxThreads, maxThreads));
+        final ServerConnector connector = new ServerConnector(server, 1, 1);
+        connector.setPort(0);
+        server.addConnector(connector);
+        final ServletContextHandler context = new ServletContextHandler();
+        context.setContextPath("/");
+        final ServletHolder holder = new ServletHolder(servlet);
+        holder.setAsyncSupported(true);
+        context.addServlet(holder, "/*");
+        server.setHandler(context);
+        server.start();
+        return new EmbeddedJetty(server, connector.getLocalPort());
+    }
+
+    int port() {
+        return port;
+    }
+
+    @Override
+    public void close() {
+        try {
+            server.stop();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (final Exception e) {
+            throw new IllegalStateException("could not stop Jetty", e);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.war;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static de.quantummaid.tutorials.WebService.createQuantumMaid;
+import static de.quantummaid.tutorials.war.EmbeddedJetty.startJetty;
+import static de.quantummaid.tutorials.war.RawExchange.get;
+import static de.quantummaid.tutorials.war.RawExchange.send;
+import static de.quantummaid.tutorials.war.RawExchange.stallAfter;
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.core.Is.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class GreetingServletTest {
+    private static final int THREADS = 6;
+    private static final int SLOW_UPLOADS = 8;
+    private static final long UPLOAD_MILLIS = 2_000;
+    private static final int PIECES = 10;
+    private static final long SHORT_TIMEOUT_MILLIS = 500;
+    private static final int STALLED_AFTER_BYTES = 5;
+    private static final int REQUEST_TIMEOUT = 408;
+    private static EmbeddedJetty jetty;
+
+    @BeforeAll
+    public static void startContainer() throws Exception {
+        jetty = startJetty(new GreetingServlet(), THREADS);
+    }
+
+    @AfterAll
+    public static void stopContainer() {
+        jetty.close();
+    }
+
+    @Test
+    public void testGreeting() {
+        given().port(jetty.port())
+                .when().get("/hello/quantummaid")
+                .then()
+                .statusCode(200)
+                .body(is("\"hello quantummaid\""));
+    }
+
+    @Test
+    public void testGreetingPost() {
+        given().port(jetty.port())
+                .when()
+                .body("{ \"name\": \"quantummaid\" }").post("/hello")
+                .then()
+                .statusCode(200)
+                .body(is("\"hello quantummaid\""));
+    }
+
+    @Test
+    public void testSlowUploadsDoNotHoldContainerThreads() throws Exception {
+        final ExecutorService clients = Executors.newFixedThreadPool(SLOW_UPLOADS);
+        try {
+            final List<Future<RawExchange>> uploads = new ArrayList<>();
+            for (int i = 0; i < SLOW_UPLOADS; ++i) {
+                uploads.add(clients.submit(() -> send(jetty.port(), "POST", "/hello",
+                        "{ \"name\": \"slow\" }", PIECES, UPLOAD_MILLIS)));
+            }
+            TimeUnit.MILLISECONDS.sleep(UPLOAD_MILLIS / PIECES * 2);
+
+            final RawExchange greeting = get(jetty.port(), "/hello/quantummaid");
+            assertEquals(200, greeting.status());
+            assertEquals("\"hello quantummaid\"", greeting.body());
+            assertFalse(uploads.stream().allMatch(Future::isDone),
+                    "the slow uploads finished before the greeting was answered");
+
+            for (final Future<RawExchange> upload : uploads) {
+                assertEquals(200, upload.get().status());
+                assertEquals("\"hello slow\"", upload.get().body());
+            }
+        } finally {
+            clients.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testStalledUploadIsAnsweredWithRequestTimeout() throws Exception {
+        try (EmbeddedJetty shortTimeout = startJetty(
+                new AsyncQuantumMaidServlet(() -> createQuantumMaid(0), SHORT_TIMEOUT_MILLIS), THREADS)) {
+            final long start = System.nanoTime();
+            final RawExchange stalled = stallAfter(shortTimeout.port(), "POST", "/hello",
+                    "{ \"name\": \"stalled\" }", STALLED_AFTER_BYTES);
+            final long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            assertEquals(REQUEST_TIMEOUT, stalled.status());
+            assertTrue(elapsedMillis >= SHORT_TIMEOUT_MILLIS, elapsedMillis + " ms");
+
+            assertEquals(200, get(shortTimeout.port(), "/hello/quantummaid").status());
+        }
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.war;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.Socket;
+
+import static java.nio.charset.StandardCharsets.US_ASCII;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Sends one request per connection and can deliver its body slowly, in pieces with pauses in between,
+ * like a client on a poor mobile network, or stop sending it altogether.
+ */
+final class RawExchange {
+    static final int FAILED = -1;
+    private static final String HEADER_END = "\r\n\r\n";
+    private static final int STATUS_OFFSET = "HTTP/1.1 ".length();
+    private static final int STATUS_DIGITS = 3;
+
+    private final int status;
+    private final String body;
+
+    private RawExchange(final int status, final String body) {
+        this.status = status;
+        this.body = body;
+    }
+
+    static RawExchange get(final int port, final String path) throws IOException, InterruptedException {
+        return send(port, "GET", path, "", 1, 0);
+    }
+
+    /**
+     * Sends the request head at once and the body in {@code pieces} parts over {@code uploadMillis}.
+     */
+    static RawExchange send(final int port,
+                            final String method,
+                            final String path,
+                            final String body,
+                            final int pieces,
+                            final long uploadMillis) throws IOException, InterruptedException {
+        final byte[] bodyBytes = body.getBytes(UTF_8);
+        try (Socket socket = new Socket("localhost", port)) {
+            socket.setTcpNoDelay(true);
+            final OutputStream output = socket.getOutputStream();
+            output.write((method + " " + path + " HTTP/1.1\r\nHost: localhost\r\nConnection: close\r\n"
+                    + "Content-Length: " + bodyBytes.length + HEADER_END).getBytes(US_ASCII));
+            output.flush();
+            for (int piece = 0; piece < pieces && bodyBytes.length > 0; ++piece) {
+                if (uploadMillis > 0) {
+                    Thread.sleep(uploadMillis / pieces);
+                }
+                final int from = bodyBytes.length * piece / pieces;
+                final int to = bodyBytes.length * (piece + 1) / pieces;
+                output.write(bodyBytes, from, to - from);
+                output.flush();
+            }
+            return responseOf(socket);
+        }
+    }
+
+    /**
+     * Announces the whole body, but sends only its first {@code sentBytes} and then waits for the response.
+     */
+    static RawExchange stallAfter(final int port,
+                                  final String method,
+                                  final String path,
+                                  final String body,
+                                  final int sentBytes) throws IOException {
+        final byte[] bodyBytes = body.getBytes(UTF_8);
+        try (Socket socket = new Socket("localhost", port)) {
+            socket.setTcpNoDelay(true);
+            final OutputStream output = socket.getOutputStream();
+            output.write((method + " " + path + " HTTP/1.1\r\nHost: localhost\r\n"
+                    + "Content-Length: " + bodyBytes.length + HEADER_END).getBytes(US_ASCII));
+            output.write(bodyBytes, 0, sentBytes);
+            output.flush();
+            return responseOf(socket);
+        }
+    }
+
+    int status() {
+        return status;
+    }
+
+    String body() {
+        return body;
+    }
+
+    private static RawExchange responseOf(final Socket socket) throws IOException {
+        final String response = readFully(socket.getInputStream());
+        final int headerEnd = response.indexOf(HEADER_END);
+        if (headerEnd < 0) {
+            return new RawExchange(FAILED, response);
+        }
+        return new RawExchange(
+                Integer.parseInt(response.substring(STATUS_OFFSET, STATUS_OFFSET + STATUS_DIGITS)),
+                response.substring(headerEnd + HEADER_END.length()));
+    }
+
+    private static String readFully(final InputStream input) throws IOException {
+        return new String(input.readAllBytes(), UTF_8);
+    }
+}
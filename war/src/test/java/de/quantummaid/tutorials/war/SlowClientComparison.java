@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2020 Richard Hauswald - https://quantummaid.de/.
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+
+package de.quantummaid.tutorials.war;
+
+import javax.servlet.http.HttpServlet;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static de.quantummaid.tutorials.WebService.createQuantumMaid;
+import static de.quantummaid.tutorials.war.EmbeddedJetty.startJetty;
+import static de.quantummaid.tutorials.war.RawExchange.get;
+import static de.quantummaid.tutorials.war.RawExchange.send;
+import static java.lang.Integer.parseInt;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Runs the same mix of clients against the {@link BlockingQuantumMaidServlet} and the {@link GreetingServlet}, each
+ * in a Jetty with the same small thread pool: slow clients that keep uploading greeting requests in pieces, and fast
+ * clients that keep requesting a greeting and measure how long they wait for it.
+ */
+public final class SlowClientComparison {
+    private static final int UNUSED_PORT = 0;
+    private static final int PIECES = 10;
+    private static final double PERCENTILE = 0.99;
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+    private static final long SHUTDOWN_SECONDS = 60;
+
+    private SlowClientComparison() {
+    }
+
+    public static void main(final String[] args) throws Exception {
+        final int threads = parseInt(args[0]);
+        final int slowClients = parseInt(args[1]);
+        final long uploadMillis = parseInt(args[2]);
+        final int fastClients = parseInt(args[3]);
+        final long durationSeconds = parseInt(args[4]);
+        final Path results = Paths.get(args[5]);
+
+        final String blocking = run("blocking", new BlockingQuantumMaidServlet(() -> createQuantumMaid(UNUSED_PORT)),
+                threads, slowClients, uploadMillis, fastClients, durationSeconds);
+        final String async = run("async", new GreetingServlet(),
+                threads, slowClients, uploadMillis, fastClients, durationSeconds);
+
+        Files.createDirectories(results.toAbsolutePath().getParent());
+        Files.writeString(results, String.format(Locale.ROOT,
+                "{\"threads\":%d,\"slowClients\":%d,\"uploadMillis\":%d,\"fastClients\":%d,\"durationSeconds\":%d,"
+                        + "\"bridges\":[%s,%s]}%n",
+                threads, slowClients, uploadMillis, fastClients, durationSeconds, blocking, async), UTF_8);
+        System.out.println("results written to " + results);
+    }
+
+    private static String run(final String bridge,
+                              final HttpServlet servlet,
+                              final int threads,
+                              final int slowClients,
+                              final long uploadMillis,
+                              final int fastClients,
+                              final long durationSeconds) throws Exception {
+        final AtomicLong slowCompleted = new AtomicLong();
+        final AtomicLong errors = new AtomicLong();
+        final List<List<Long>> fastLatencies = new ArrayList<>();
+        final ExecutorService clients = Executors.newFixedThreadPool(slowClients + fastClients);
+        try (EmbeddedJetty jetty = startJetty(servlet, threads)) {
+            final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(durationSeconds);
+            for (int i = 0; i < slowClients; ++i) {
+                clients.execute(() -> {
+                    while (System.nanoTime() < deadline) {
+                        try {
+                            count(send(jetty.port(), "POST", "/hello", "{ \"name\": \"slow\" }",
+                                    PIECES, uploadMillis), slowCompleted, errors);
+                        } catch (final Exception e) {
+                            errors.incrementAndGet();
+                        }
+                    }
+                });
+            }
+            for (int i = 0; i < fastClients; ++i) {
+                final List<Long> latencies = new ArrayList<>();
+                fastLatencies.add(latencies);
+                clients.execute(() -> {
+                    while (System.nanoTime() < deadline) {
+                        final long start = System.nanoTime();
+                        try {
+                            if (get(jetty.port(), "/hello/quantummaid").status() == 200) {
+                                latencies.add(System.nanoTime() - start);
+                            } else {
+                                errors.incrementAndGet();
+                            }
+                        } catch (final Exception e) {
+                            errors.incrementAndGet();
+                        }
+                    }
+                });
+            }
+            clients.shutdown();
+            if (!clients.awaitTermination(durationSeconds + SHUTDOWN_SECONDS, TimeUnit.SECONDS)) {
+                throw new IllegalStateException(bridge + " clients did not finish");
+            }
+        } finally {
+            clients.shutdownNow();
+        }
+
+        final long[] sorted = fastLatencies.stream().flatMap(List::stream).mapToLong(Long::longValue).toArray();
+        Arrays.sort(sorted);
+        final double fastPerSecond = (double) sorted.length / durationSeconds;
+        final double p99Millis = sorted.length == 0
+                ? 0 : sorted[(int) Math.ceil(sorted.length * PERCENTILE) - 1] / NANOS_PER_MILLI;
+        System.out.printf(Locale.ROOT, "%-8s fast: %.1f requests/s, p99 %.2f ms; slow: %d completed; errors: %d%n",
+                bridge, fastPerSecond, p99Millis, slowCompleted.get(), errors.get());
+        return String.format(Locale.ROOT, "{\"bridge\":\"%s\",\"fastRequestsPerSecond\":%.1f,\"fastP99Millis\":%.3f,"
+                        + "\"slowCompleted\":%d,\"errors\":%d}",
+                bridge, fastPerSecond, p99Millis, slowCompleted.get(), errors.get());
+    }
+
+    private static void count(final RawExchange exchange, final AtomicLong completed, final AtomicLong errors) {
+        if (exchange.status() == 200) {
+            completed.incrementAndGet();
+        } else {
+            errors.incrementAndGet();
+        }
+    }
+}